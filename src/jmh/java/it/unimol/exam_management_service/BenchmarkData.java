@@ -0,0 +1,57 @@
+package it.unimol.exam_management_service;
+
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entità non gestite da JPA con valori realistici, condivise dai benchmark.
+ * Gli ID sono assegnati per riflessione come farebbe Hibernate.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static Exam exam(long id, int enrolledStudents) {
+        Exam exam = new Exam("Programmazione ad Oggetti " + id, LocalDate.now().plusDays(30), LocalTime.of(9, 30),
+                100L + id % 40, 10L + id % 25, 200L + id % 12, 150, LocalDate.now().plusDays(20));
+        ReflectionTestUtils.setField(exam, "id", id);
+        exam.setNotes("Portare un documento di riconoscimento");
+
+        List<ExamEnrollment> enrollments = new ArrayList<>(enrolledStudents);
+        for (int i = 0; i < enrolledStudents; i++) {
+            enrollments.add(enrollment(id * 1000 + i, exam, false));
+        }
+        exam.setEnrollments(enrollments);
+        return exam;
+    }
+
+    public static ExamEnrollment enrollment(long id, Exam exam, boolean graded) {
+        ExamEnrollment enrollment = new ExamEnrollment(100_000L + id, exam);
+        ReflectionTestUtils.setField(enrollment, "id", id);
+        enrollment.setEnrollmentDate(LocalDateTime.now().minusDays(id % 30));
+        enrollment.setStatus(graded ? EnrollmentStatus.GRADED : EnrollmentStatus.ENROLLED);
+        enrollment.setNotes("Iscrizione online");
+        if (graded) {
+            enrollment.setGrade(grade(id, enrollment));
+        }
+        return enrollment;
+    }
+
+    public static ExamGrade grade(long id, ExamEnrollment enrollment) {
+        int mark = 18 + (int) (id % 13);
+        ExamGrade grade = new ExamGrade(mark, mark == 30 && id % 2 == 0, enrollment.getExam().getProfessorId(),
+                enrollment, "Buona conoscenza degli argomenti");
+        ReflectionTestUtils.setField(grade, "id", id);
+        return grade;
+    }
+}
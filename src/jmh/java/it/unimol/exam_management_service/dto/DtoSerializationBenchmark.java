@@ -0,0 +1,75 @@
+package it.unimol.exam_management_service.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import it.unimol.exam_management_service.BenchmarkData;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import it.unimol.exam_management_service.util.ExamMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializzazione JSON delle risposte a lista (calendario, iscrizioni di un esame) con la stessa
+ * configurazione Jackson dell'applicazione (spring.jackson.* in application.properties).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+    private List<ExamDTO> exams;
+    private List<EnrollmentDTO> enrollments;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .dateFormat(new SimpleDateFormat("yyyy-MM-dd"))
+                .timeZone(TimeZone.getTimeZone("Europe/Rome"))
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        ExamMapper examMapper = new ExamMapper();
+        EnrollmentMapper enrollmentMapper = new EnrollmentMapper();
+        Exam enrolledExam = BenchmarkData.exam(0, 0);
+        exams = new ArrayList<>(rows);
+        enrollments = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            exams.add(examMapper.toDTO(BenchmarkData.exam(i, 0), i % 150));
+            enrollments.add(enrollmentMapper.toDTO(BenchmarkData.enrollment(i, enrolledExam, i % 3 == 0)));
+        }
+    }
+
+    @Benchmark
+    public byte[] examList() throws Exception {
+        return objectMapper.writeValueAsBytes(exams);
+    }
+
+    @Benchmark
+    public byte[] enrollmentList() throws Exception {
+        return objectMapper.writeValueAsBytes(enrollments);
+    }
+}
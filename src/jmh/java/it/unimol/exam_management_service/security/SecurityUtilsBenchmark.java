@@ -0,0 +1,69 @@
+package it.unimol.exam_management_service.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controlli di autorizzazione eseguiti a ogni chiamata dei servizi, con uno studente autenticato.
+ * Lo stato è per thread perché SecurityContextHolder è legato al thread che esegue il benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityUtilsBenchmark {
+
+    private final SecurityUtils securityUtils = new SecurityUtils();
+
+    @Setup
+    public void setUp() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                "42", null, List.of(new SimpleGrantedAuthority("ROLE_STUDENTE")));
+        authentication.setDetails("42");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public boolean hasRoleMatching() {
+        return securityUtils.hasRole("studente");
+    }
+
+    @Benchmark
+    public boolean hasRoleNotMatching() {
+        return securityUtils.hasRole("docente");
+    }
+
+    // Lo studente stesso: basta il confronto dell'ID
+    @Benchmark
+    public boolean isStudentOrAdminSelf() {
+        return securityUtils.isStudentOrAdmin(42L);
+    }
+
+    // Un altro studente: si verifica anche il ruolo ADMIN
+    @Benchmark
+    public boolean isStudentOrAdminOther() {
+        return securityUtils.isStudentOrAdmin(43L);
+    }
+}
@@ -0,0 +1,70 @@
+package it.unimol.exam_management_service.security.jwt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo di JwtAuthFilter per richiesta: token già verificato (in cache), token verificato
+ * a ogni richiesta (cache disattivata, comportamento precedente) e richiesta senza token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter cachingFilter;
+    private JwtAuthFilter verifyingFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtTestTokens tokens = new JwtTestTokens();
+        cachingFilter = new JwtAuthFilter(tokens.keyPair().getPublic(), 10_000, Duration.ofMinutes(10));
+        verifyingFilter = new JwtAuthFilter(tokens.keyPair().getPublic(), 0, Duration.ofMinutes(10));
+        token = tokens.token("42", "student", Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public Object cachedToken() throws Exception {
+        return filter(cachingFilter, token);
+    }
+
+    @Benchmark
+    public Object verifiedOnEveryRequest() throws Exception {
+        return filter(verifyingFilter, token);
+    }
+
+    @Benchmark
+    public Object withoutToken() throws Exception {
+        return filter(cachingFilter, null);
+    }
+
+    private static Object filter(JwtAuthFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/exams/available");
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,64 @@
+package it.unimol.exam_management_service.util;
+
+import it.unimol.exam_management_service.BenchmarkData;
+import it.unimol.exam_management_service.dto.EnrollmentDTO;
+import it.unimol.exam_management_service.dto.ExamDTO;
+import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo della conversione entità-DTO di un singolo elemento, moltiplicato dalle liste restituite dalle API.
+ * L'esame ha 120 iscritti caricati: toDTO(Exam) ne legge solo la dimensione.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final ExamMapper examMapper = new ExamMapper();
+    private final EnrollmentMapper enrollmentMapper = new EnrollmentMapper();
+    private final GradeMapper gradeMapper = new GradeMapper();
+
+    private Exam exam;
+    private ExamEnrollment gradedEnrollment;
+    private ExamGrade grade;
+
+    @Setup
+    public void setUp() {
+        exam = BenchmarkData.exam(1, 120);
+        gradedEnrollment = BenchmarkData.enrollment(1, exam, true);
+        grade = gradedEnrollment.getGrade();
+    }
+
+    @Benchmark
+    public ExamDTO examToDTO() {
+        return examMapper.toDTO(exam);
+    }
+
+    @Benchmark
+    public EnrollmentDTO enrollmentToDTO() {
+        return enrollmentMapper.toDTO(gradedEnrollment);
+    }
+
+    @Benchmark
+    public GradeDTO gradeToDTO() {
+        return gradeMapper.toDTO(grade);
+    }
+}
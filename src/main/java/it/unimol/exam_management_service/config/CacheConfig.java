@@ -0,0 +1,40 @@
+package it.unimol.exam_management_service.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cache locali in memoria (Caffeine), limitate per dimensione e durata.
+ * Le statistiche sono registrate così Actuator espone hit, miss ed evizioni (cache.gets, cache.evictions).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EXAM_METADATA = "exam-metadata";
+
+    // Cache con chiave l'ID dell'esame, invalidate su tutte le istanze a ogni modifica (ClusterCacheInvalidator)
+    public static final List<String> EXAM_CACHES = List.of(EXAM_METADATA);
+
+    @Bean
+    public CacheManager cacheManager(@Value("${exam.cache.exam-metadata.max-size:10000}") long maxSize,
+                                     @Value("${exam.cache.exam-metadata.ttl:PT10M}") Duration ttl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        // Nomi fissi: la cache esiste già all'avvio e le sue metriche vengono registrate subito
+        cacheManager.setCacheNames(List.of(EXAM_METADATA));
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,42 @@
+package it.unimol.exam_management_service.config;
+
+import it.unimol.exam_management_service.repository.GradeRepository;
+import it.unimol.exam_management_service.service.GradeStatisticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ricostruisce le statistiche materializzate dei voti all'avvio se richiesto
+ * (--rebuild-grade-statistics) oppure se la tabella è ancora vuota ma esistono voti,
+ * come dopo la migrazione che la introduce.
+ */
+@Component
+public class GradeStatisticsInitializer implements ApplicationRunner {
+
+    public static final String REBUILD_OPTION = "rebuild-grade-statistics";
+
+    private static final Logger logger = LoggerFactory.getLogger(GradeStatisticsInitializer.class);
+
+    private final GradeStatisticsService gradeStatisticsService;
+    private final GradeRepository gradeRepository;
+
+    public GradeStatisticsInitializer(GradeStatisticsService gradeStatisticsService,
+                                      GradeRepository gradeRepository) {
+        this.gradeStatisticsService = gradeStatisticsService;
+        this.gradeRepository = gradeRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)) {
+            logger.info("Ricostruzione delle statistiche voti richiesta da riga di comando");
+            gradeStatisticsService.rebuild();
+        } else if (gradeStatisticsService.isEmpty() && gradeRepository.count() > 0) {
+            logger.info("Statistiche voti assenti: ricostruzione iniziale da exam_grades");
+            gradeStatisticsService.rebuild();
+        }
+    }
+}
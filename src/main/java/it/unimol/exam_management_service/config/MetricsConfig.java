@@ -0,0 +1,25 @@
+package it.unimol.exam_management_service.config;
+
+import it.unimol.exam_management_service.metrics.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metriche applicative esportate da Actuator (anche su /actuator/prometheus).
+ * I tempi dei servizi sono registrati con @Timed (management.observations.annotations.enabled),
+ * gli invii a RabbitMQ dall'osservazione di RabbitTemplate (spring.rabbit.template).
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Timer dei metodi pubblici di ExamService, EnrollmentService e GradeService (tag class e method)
+    public static final String SERVICE_TIMER = "exam.service";
+
+    // Conta le istruzioni SQL di ogni richiesta (SqlStatementMetricsFilter)
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
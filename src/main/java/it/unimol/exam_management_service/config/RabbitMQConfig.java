@@ -1,9 +1,12 @@
 package it.unimol.exam_management_service.config;
 
+import it.unimol.exam_management_service.messaging.ExamCacheInvalidation;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.boot.autoconfigure.amqp.RabbitTemplateConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -45,6 +48,11 @@ public class RabbitMQConfig {
         return new Queue("exam.enrollment.rejected.queue");
     }
 
+    @Bean
+    public Queue enrollmentPromotedQueue() {
+        return new Queue("exam.enrollment.promoted.queue");
+    }
+
     @Bean
     public Queue gradeRecordedQueue() {
         return new Queue("exam.grade.recorded.queue");
@@ -55,6 +63,16 @@ public class RabbitMQConfig {
         return new Queue("exam.grade.updated.queue");
     }
 
+    @Bean
+    public Queue gradeRecordedBatchQueue() {
+        return new Queue("exam.grade.recorded.batch.queue");
+    }
+
+    @Bean
+    public Queue gradePublishedBatchQueue() {
+        return new Queue("exam.grade.published.batch.queue");
+    }
+
     @Bean
     public Queue examCompletedQueue() {
         return new Queue("exam.completed.queue");
@@ -90,6 +108,11 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(enrollmentRejectedQueue).to(examExchange).with("exam.enrollment.rejected");
     }
 
+    @Bean
+    public Binding enrollmentPromotedBinding(Queue enrollmentPromotedQueue, TopicExchange examExchange) {
+        return BindingBuilder.bind(enrollmentPromotedQueue).to(examExchange).with("exam.enrollment.promoted");
+    }
+
     @Bean
     public Binding gradeRecordedBinding(Queue gradeRecordedQueue, TopicExchange examExchange) {
         return BindingBuilder.bind(gradeRecordedQueue).to(examExchange).with("exam.grade.recorded");
@@ -100,19 +123,45 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(gradeUpdatedQueue).to(examExchange).with("exam.grade.updated");
     }
 
+    @Bean
+    public Binding gradeRecordedBatchBinding(Queue gradeRecordedBatchQueue, TopicExchange examExchange) {
+        return BindingBuilder.bind(gradeRecordedBatchQueue).to(examExchange).with("exam.grade.recorded.batch");
+    }
+
+    @Bean
+    public Binding gradePublishedBatchBinding(Queue gradePublishedBatchQueue, TopicExchange examExchange) {
+        return BindingBuilder.bind(gradePublishedBatchQueue).to(examExchange).with("exam.grade.published.batch");
+    }
+
     @Bean
     public Binding examCompletedBinding(Queue examCompletedQueue, TopicExchange examExchange) {
         return BindingBuilder.bind(examCompletedQueue).to(examExchange).with("exam.completed");
     }
 
+    // Invalidazione delle cache locali: una coda anonima per istanza, eliminata allo spegnimento
+    @Bean
+    @ConditionalOnProperty(name = "exam.cache.invalidation.transport", havingValue = "rabbit", matchIfMissing = true)
+    public Queue cacheInvalidationQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("exam.cache.invalidation."));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "exam.cache.invalidation.transport", havingValue = "rabbit", matchIfMissing = true)
+    public Binding cacheInvalidationBinding(Queue cacheInvalidationQueue, TopicExchange examExchange) {
+        return BindingBuilder.bind(cacheInvalidationQueue).to(examExchange).with(ExamCacheInvalidation.ROUTING_KEY);
+    }
+
     @Bean
     public Jackson2JsonMessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
     }
 
+    // Configurato da Spring Boot come il template predefinito, così valgono le proprietà spring.rabbitmq.template.*
+    // (tra cui observation-enabled, che registra il timer spring.rabbit.template per ogni invio)
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
-        RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+    public RabbitTemplate rabbitTemplate(RabbitTemplateConfigurer configurer, ConnectionFactory connectionFactory) {
+        RabbitTemplate rabbitTemplate = new RabbitTemplate();
+        configurer.configure(rabbitTemplate, connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
         return rabbitTemplate;
     }
@@ -0,0 +1,14 @@
+package it.unimol.exam_management_service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Abilita i job pianificati (es. OutboxRelay); disattivabile con exam.scheduling.enabled=false.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "exam.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,118 @@
+package it.unimol.exam_management_service.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Verifica all'avvio che gli indici creati dalle migrazioni Flyway siano presenti,
+ * così un database non migrato non finisce in produzione con ricerche a scansione completa.
+ */
+@Component
+@ConditionalOnProperty(name = "exam.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    // Tabella -> indici attesi
+    private static final Map<String, List<String>> EXPECTED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        EXPECTED_INDEXES.put("exam_enrollments", List.of(
+                "uk_enrollments_student_exam",
+                "idx_enrollments_exam_status",
+                "idx_enrollments_student_date",
+                "idx_enrollments_date"));
+        EXPECTED_INDEXES.put("exams", List.of(
+                "idx_exams_course_date",
+                "idx_exams_professor_date",
+                "idx_exams_availability",
+                "idx_exams_date"));
+        EXPECTED_INDEXES.put("exam_grades", List.of(
+                "idx_grades_enrollment_status"));
+        EXPECTED_INDEXES.put("outbox_events", List.of(
+                "idx_outbox_pending"));
+        EXPECTED_INDEXES.put("grade_statistics", List.of(
+                "uk_grade_statistics_scope"));
+    }
+
+    private final DataSource dataSource;
+    private final boolean failOnMissing;
+
+    public SchemaIndexVerifier(DataSource dataSource,
+                               @Value("${exam.schema.fail-on-missing-indexes:true}") boolean failOnMissing) {
+        this.dataSource = dataSource;
+        this.failOnMissing = failOnMissing;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        List<String> missing = findMissingIndexes();
+
+        if (missing.isEmpty()) {
+            logger.info("Verifica indici completata: tutti gli indici attesi sono presenti");
+            return;
+        }
+
+        String message = "Indici mancanti nello schema del database: " + String.join(", ", missing);
+        if (failOnMissing) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    public List<String> findMissingIndexes() throws SQLException {
+        List<String> missing = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+
+            for (Map.Entry<String, List<String>> entry : EXPECTED_INDEXES.entrySet()) {
+                Set<String> existing = readIndexNames(metaData, connection.getCatalog(), entry.getKey());
+                for (String index : entry.getValue()) {
+                    // Alcuni database (es. H2) aggiungono un suffisso al nome dell'indice dei vincoli univoci
+                    if (existing.stream().noneMatch(name -> name.startsWith(index))) {
+                        missing.add(entry.getKey() + "." + index);
+                    }
+                }
+            }
+        }
+
+        return missing;
+    }
+
+    private Set<String> readIndexNames(DatabaseMetaData metaData, String catalog, String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+
+        // I metadati possono riportare il nome della tabella in minuscolo (MySQL) o maiuscolo (H2)
+        for (String tableName : List.of(table, table.toUpperCase(Locale.ROOT))) {
+            try (ResultSet rs = metaData.getIndexInfo(catalog, null, tableName, false, false)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    if (indexName != null) {
+                        names.add(indexName.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+
+        return names;
+    }
+}
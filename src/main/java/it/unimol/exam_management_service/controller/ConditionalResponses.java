@@ -0,0 +1,30 @@
+package it.unimol.exam_management_service.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Letture condizionali (ETag / If-None-Match): se il client ha già la versione attuale si risponde
+ * 304 senza calcolare né serializzare il corpo, altrimenti 200 con il nuovo ETag.
+ * no-cache obbliga il client a rivalidare la copia a ogni richiesta.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> withETag(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            // Stato 304 e intestazione ETag sono già impostati sulla risposta
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+}
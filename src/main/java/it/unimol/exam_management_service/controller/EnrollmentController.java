@@ -2,7 +2,9 @@ package it.unimol.exam_management_service.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import it.unimol.exam_management_service.dto.CursorPageDTO;
 import it.unimol.exam_management_service.dto.EnrollmentDTO;
+import it.unimol.exam_management_service.dto.WaitlistPositionDTO;
 import it.unimol.exam_management_service.dto.request.EnrollmentRequest;
 import it.unimol.exam_management_service.enums.EnrollmentStatus;
 import it.unimol.exam_management_service.service.EnrollmentService;
@@ -14,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -40,19 +43,31 @@ public class EnrollmentController {
         return new ResponseEntity<>(enrollment, HttpStatus.CREATED);
     }
 
+    @GetMapping("/exams/{examId}/waitlist/position")
+    @PreAuthorize("hasRole('STUDENTE') or hasRole('ADMIN')")
+    @Operation(summary = "Posizione in lista d'attesa", description = "Ottieni la posizione di uno studente nella lista d'attesa di un esame al completo")
+    public ResponseEntity<WaitlistPositionDTO> getWaitlistPosition(
+            @PathVariable Long examId,
+            @RequestParam Long studentId) {
+
+        WaitlistPositionDTO position = enrollmentService.getWaitlistPosition(examId, studentId);
+        return ResponseEntity.ok(position);
+    }
+
     @GetMapping("/enrollments/my")
     @PreAuthorize("hasRole('STUDENTE')")
     @Operation(summary = "Le mie iscrizioni", description = "Ottieni la lista delle iscrizioni di uno studente")
     public ResponseEntity<List<EnrollmentDTO>> getMyEnrollments(
             @RequestParam Long studentId,
-            @RequestParam(required = false) EnrollmentStatus status) {
+            @RequestParam(required = false) EnrollmentStatus status,
+            WebRequest request) {
 
-        List<EnrollmentDTO> enrollments = enrollmentService.getMyEnrollments(studentId, status);
-        return ResponseEntity.ok(enrollments);
+        return ConditionalResponses.withETag(request, enrollmentService.getMyEnrollmentsETag(studentId, status),
+                () -> enrollmentService.getMyEnrollments(studentId, status));
     }
 
     @GetMapping("/enrollments/{id}")
-    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'admin')")
+    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'ADMIN')")
     @Operation(summary = "Dettaglio iscrizione", description = "Ottieni i dettagli di un'iscrizione specifica")
     public ResponseEntity<EnrollmentDTO> getEnrollmentById(@PathVariable Long id) {
         EnrollmentDTO enrollment = enrollmentService.getEnrollmentById(id);
@@ -60,7 +75,7 @@ public class EnrollmentController {
     }
 
     @DeleteMapping("/enrollments/{id}")
-    @PreAuthorize("hasRole('STUDENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('STUDENTE') or hasRole('ADMIN')")
     @Operation(summary = "Cancella iscrizione", description = "Cancella un'iscrizione a un esame")
     public ResponseEntity<Void> cancelEnrollment(
             @PathVariable Long id,
@@ -71,7 +86,7 @@ public class EnrollmentController {
     }
 
     @GetMapping("/exams/{examId}/enrollments")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Iscrizioni per esame", description = "Ottieni la lista delle iscrizioni per un esame specifico")
     public ResponseEntity<List<EnrollmentDTO>> getExamEnrollments(
             @PathVariable Long examId,
@@ -82,8 +97,21 @@ public class EnrollmentController {
         return ResponseEntity.ok(enrollments);
     }
 
+    @GetMapping("/exams/{examId}/enrollments/scroll")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
+    @Operation(summary = "Scorri iscrizioni per esame", description = "Iscrizioni di un esame paginate con cursore (nextCursor)")
+    public ResponseEntity<CursorPageDTO<EnrollmentDTO>> scrollExamEnrollments(
+            @PathVariable Long examId,
+            @RequestParam(required = false) EnrollmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPageDTO<EnrollmentDTO> page = enrollmentService.scrollExamEnrollments(examId, status, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @PutMapping("/enrollments/{enrollmentId}/status")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Aggiorna stato iscrizione", description = "Aggiorna lo stato di un'iscrizione")
     public ResponseEntity<EnrollmentDTO> updateEnrollmentStatus(
             @PathVariable Long enrollmentId,
@@ -94,7 +122,7 @@ public class EnrollmentController {
     }
 
     @GetMapping("/enrollments")
-    @PreAuthorize("hasRole('admin')")
+    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Tutte le iscrizioni", description = "Ottieni la lista di tutte le iscrizioni con filtri opzionali")
     public ResponseEntity<List<EnrollmentDTO>> getAllEnrollments(
             @RequestParam(required = false) Long examId,
@@ -106,8 +134,22 @@ public class EnrollmentController {
         return ResponseEntity.ok(enrollments);
     }
 
+    @GetMapping("/enrollments/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Scorri tutte le iscrizioni", description = "Tutte le iscrizioni paginate con cursore (nextCursor), senza conteggio totale")
+    public ResponseEntity<CursorPageDTO<EnrollmentDTO>> scrollAllEnrollments(
+            @RequestParam(required = false) Long examId,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) EnrollmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPageDTO<EnrollmentDTO> page = enrollmentService.scrollAllEnrollments(examId, studentId, status, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/enrollments/student/{studentId}")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Iscrizioni per studente", description = "Ottieni la lista delle iscrizioni per uno studente specifico")
     public ResponseEntity<List<EnrollmentDTO>> getStudentEnrollments(
             @PathVariable Long studentId,
@@ -15,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -32,7 +33,7 @@ public class ExamController {
     }
 
     @PostMapping
-    //@PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Crea nuovo esame", description = "Crea un nuovo esame nel sistema")
     public ResponseEntity<ExamDTO> createExam(@Valid @RequestBody CreateExamRequest examRequest) {
         ExamDTO createdExam = examService.createExam(examRequest);
@@ -40,29 +41,30 @@ public class ExamController {
     }
 
     @GetMapping
-    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'admin')")
+    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'ADMIN')")
     @Operation(summary = "Lista tutti gli esami", description = "Ottieni la lista di tutti gli esami con filtri opzionali")
     public ResponseEntity<List<ExamDTO>> getAllExams(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) Long courseId,
             @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) ExamStatus status,
             @PageableDefault(size = 20) Pageable pageable) {
 
-        List<ExamDTO> exams = examService.getAllExams(startDate, endDate, courseId, teacherId, pageable);
+        List<ExamDTO> exams = examService.getAllExams(startDate, endDate, courseId, teacherId, status, pageable);
         return ResponseEntity.ok(exams);
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'admin')")
+    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'ADMIN')")
     @Operation(summary = "Dettaglio singolo esame", description = "Ottieni i dettagli di un esame specifico")
-    public ResponseEntity<ExamDTO> getExamById(@PathVariable Long id) {
-        ExamDTO exam = examService.getExamById(id);
-        return ResponseEntity.ok(exam);
+    public ResponseEntity<ExamDTO> getExamById(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.withETag(request, examService.getExamETag(id),
+                () -> examService.getExamById(id));
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Aggiorna esame", description = "Aggiorna i dettagli di un esame esistente")
     public ResponseEntity<ExamDTO> updateExam(@PathVariable Long id, @Valid @RequestBody ExamDTO examDTO) {
         ExamDTO updatedExam = examService.updateExam(id, examDTO);
@@ -70,7 +72,7 @@ public class ExamController {
     }
 
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('admin')")
+    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Elimina esame", description = "Elimina un esame dal sistema")
     public ResponseEntity<Void> deleteExam(@PathVariable Long id) {
         examService.deleteExam(id);
@@ -78,7 +80,7 @@ public class ExamController {
     }
 
     @GetMapping("/course/{courseId}")
-    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'admin')")
+    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'ADMIN')")
     @Operation(summary = "Esami per corso", description = "Ottieni la lista degli esami per un corso specifico")
     public ResponseEntity<List<ExamDTO>> getExamsByCourse(@PathVariable Long courseId) {
         List<ExamDTO> exams = examService.getExamsByCourse(courseId);
@@ -86,7 +88,7 @@ public class ExamController {
     }
 
     @GetMapping("/teacher/{teacherId}")
-    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'admin')")
+    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'ADMIN')")
     @Operation(summary = "Esami per docente", description = "Ottieni la lista degli esami per un docente specifico")
     public ResponseEntity<List<ExamDTO>> getExamsByTeacher(@PathVariable Long teacherId) {
         List<ExamDTO> exams = examService.getExamsByProfessor(teacherId);
@@ -100,24 +102,27 @@ public class ExamController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) Long courseId,
-            @RequestParam(required = false) Long teacherId) {
+            @RequestParam(required = false) Long teacherId,
+            WebRequest request) {
 
-        List<ExamDTO> calendarExams = examService.getExamCalendar(startDate, endDate, courseId, teacherId);
-        return ResponseEntity.ok(calendarExams);
+        return ConditionalResponses.withETag(request,
+                examService.getExamCalendarETag(startDate, endDate, courseId, teacherId),
+                () -> examService.getExamCalendar(startDate, endDate, courseId, teacherId));
     }
 
     @GetMapping("/available")
     @PreAuthorize("hasRole('STUDENTE')")
     @Operation(summary = "Esami disponibili per iscrizione", description = "Ottieni la lista degli esami disponibili per l'iscrizione")
     public ResponseEntity<List<ExamDTO>> getAvailableExams(
-            @RequestParam(required = false) Long studentId) {
+            @RequestParam(required = false) Long studentId,
+            WebRequest request) {
 
-        List<ExamDTO> availableExams = examService.getAvailableExams(studentId);
-        return ResponseEntity.ok(availableExams);
+        return ConditionalResponses.withETag(request, examService.getAvailableExamsETag(studentId),
+                () -> examService.getAvailableExams(studentId));
     }
 
     @PutMapping("/{id}/status")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Aggiorna stato esame", description = "Aggiorna lo stato di un esame")
     public ResponseEntity<Void> updateExamStatus(
             @PathVariable Long id,
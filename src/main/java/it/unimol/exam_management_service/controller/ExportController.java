@@ -0,0 +1,72 @@
+package it.unimol.exam_management_service.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.enums.ExportFormat;
+import it.unimol.exam_management_service.enums.GradeStatus;
+import it.unimol.exam_management_service.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Le righe vengono scritte direttamente sulla risposta mentre vengono lette dal database
+@RestController
+@RequestMapping("/api/v1/exports")
+@Tag(name = "Exports", description = "API per l'export di registri di iscrizione e voti")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/enrollments")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export iscrizioni", description = "Esporta le iscrizioni in NDJSON o CSV filtrate per corso, esame, date e stato")
+    public void exportEnrollments(
+            @RequestParam(required = false) Long courseId,
+            @RequestParam(required = false) Long examId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) EnrollmentStatus status,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+
+        exportService.validateDateRange(startDate, endDate);
+        prepare(response, "iscrizioni", format);
+        exportService.exportEnrollments(courseId, examId, startDate, endDate, status, format, response.getOutputStream());
+    }
+
+    @GetMapping("/grades")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export voti", description = "Esporta i voti in NDJSON o CSV filtrati per corso, esame, date e stato")
+    public void exportGrades(
+            @RequestParam(required = false) Long courseId,
+            @RequestParam(required = false) Long examId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) GradeStatus status,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+
+        exportService.validateDateRange(startDate, endDate);
+        prepare(response, "voti", format);
+        exportService.exportGrades(courseId, examId, startDate, endDate, status, format, response.getOutputStream());
+    }
+
+    private static void prepare(HttpServletResponse response, String name, ExportFormat format) {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + format.getExtension() + "\"");
+    }
+}
@@ -2,20 +2,27 @@ package it.unimol.exam_management_service.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import it.unimol.exam_management_service.dto.CursorPageDTO;
+import it.unimol.exam_management_service.dto.GradeBatchResponseDTO;
 import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.dto.GradeStatisticsDTO;
 import it.unimol.exam_management_service.dto.request.CreateGradeRequest;
+import it.unimol.exam_management_service.service.GradeBatchService;
 import it.unimol.exam_management_service.service.GradeService;
+import it.unimol.exam_management_service.util.GradeBatchReader;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -23,10 +30,16 @@ import java.util.Map;
 public class GradeController {
 
     private final GradeService gradeService;
+    private final GradeBatchService gradeBatchService;
+    private final GradeBatchReader gradeBatchReader;
 
     @Autowired
-    public GradeController(GradeService gradeService) {
+    public GradeController(GradeService gradeService,
+                           GradeBatchService gradeBatchService,
+                           GradeBatchReader gradeBatchReader) {
         this.gradeService = gradeService;
+        this.gradeBatchService = gradeBatchService;
+        this.gradeBatchReader = gradeBatchReader;
     }
 
     @PostMapping("/exams/{examId}/grades")
@@ -40,8 +53,22 @@ public class GradeController {
         return new ResponseEntity<>(grade, HttpStatus.CREATED);
     }
 
+    // Il corpo (array JSON di CreateGradeRequest) viene letto in streaming fino al limite di righe,
+    // prima di aprire la transazione di registrazione
+    @PostMapping(value = "/exams/{examId}/grades/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('DOCENTE')")
+    @Operation(summary = "Registra voti in blocco", description = "Registra i voti di un'intera sessione d'esame e restituisce l'esito di ogni riga")
+    public ResponseEntity<GradeBatchResponseDTO> recordGradesBatch(
+            @PathVariable Long examId,
+            HttpServletRequest request) throws IOException {
+
+        GradeBatchResponseDTO response = gradeBatchService.recordGrades(
+                examId, gradeBatchReader.read(request.getInputStream()));
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/exams/{examId}/grades")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Voti per esame", description = "Ottieni la lista dei voti per un esame specifico")
     public ResponseEntity<List<GradeDTO>> getExamGrades(
             @PathVariable Long examId,
@@ -54,8 +81,23 @@ public class GradeController {
         return ResponseEntity.ok(grades);
     }
 
+    @GetMapping("/exams/{examId}/grades/scroll")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
+    @Operation(summary = "Scorri voti per esame", description = "Voti di un esame paginati con cursore (nextCursor)")
+    public ResponseEntity<CursorPageDTO<GradeDTO>> scrollExamGrades(
+            @PathVariable Long examId,
+            @RequestParam(required = false) Integer minGrade,
+            @RequestParam(required = false) Integer maxGrade,
+            @RequestParam(required = false) Boolean withHonors,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPageDTO<GradeDTO> page = gradeService.scrollExamGrades(examId, minGrade, maxGrade, withHonors, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/grades/{id}")
-    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'admin')")
+    @PreAuthorize("hasAnyRole('STUDENTE', 'DOCENTE', 'ADMIN')")
     @Operation(summary = "Dettaglio voto", description = "Ottieni i dettagli di un voto specifico")
     public ResponseEntity<GradeDTO> getGradeById(@PathVariable Long id) {
         GradeDTO grade = gradeService.getGradeById(id);
@@ -74,7 +116,7 @@ public class GradeController {
     }
 
     @DeleteMapping("/grades/{id}")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Elimina voto", description = "Elimina un voto dal sistema")
     public ResponseEntity<Void> deleteGrade(@PathVariable Long id) {
         gradeService.deleteGrade(id);
@@ -93,7 +135,7 @@ public class GradeController {
     }
 
     @GetMapping("/grades/student/{studentId}")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Voti per studente", description = "Ottieni la lista dei voti per uno studente specifico")
     public ResponseEntity<List<GradeDTO>> getStudentGrades(
             @PathVariable Long studentId,
@@ -120,10 +162,26 @@ public class GradeController {
     }
 
     @GetMapping("/grades/course/{courseId}/statistics")
-    @PreAuthorize("hasRole('DOCENTE') or hasRole('admin')")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
     @Operation(summary = "Statistiche voti corso", description = "Ottieni le statistiche dei voti per un corso specifico")
-    public ResponseEntity<Map<String, Object>> getCourseGradeStatistics(@PathVariable Long courseId) {
-        Map<String, Object> statistics = gradeService.getCourseGradeStatistics(courseId);
+    public ResponseEntity<GradeStatisticsDTO> getCourseGradeStatistics(@PathVariable Long courseId) {
+        GradeStatisticsDTO statistics = gradeService.getCourseGradeStatistics(courseId);
         return ResponseEntity.ok(statistics);
     }
+
+    @GetMapping("/exams/{examId}/grades/statistics")
+    @PreAuthorize("hasRole('DOCENTE') or hasRole('ADMIN')")
+    @Operation(summary = "Statistiche voti esame", description = "Ottieni le statistiche dei voti per un esame specifico")
+    public ResponseEntity<GradeStatisticsDTO> getExamGradeStatistics(@PathVariable Long examId) {
+        GradeStatisticsDTO statistics = gradeService.getExamGradeStatistics(examId);
+        return ResponseEntity.ok(statistics);
+    }
+
+    @PostMapping("/grades/statistics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ricostruisci statistiche voti", description = "Ricalcola da zero le statistiche materializzate di esami e corsi")
+    public ResponseEntity<Void> rebuildGradeStatistics() {
+        gradeService.rebuildGradeStatistics();
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package it.unimol.exam_management_service.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Indicazione per ReadWriteRoutingDataSource: le letture eseguite dentro onPrimary usano il primario
+ * anche in una transazione readOnly (es. valori che finiscono in cache e non devono arrivare da una replica in ritardo).
+ * Vale per le connessioni aperte durante la chiamata: una transazione che ha già letto dalla replica resta sulla replica.
+ * Senza replica configurata non ha effetto.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> reads) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+}
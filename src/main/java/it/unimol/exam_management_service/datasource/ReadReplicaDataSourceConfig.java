@@ -0,0 +1,68 @@
+package it.unimol.exam_management_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Letture readOnly su una replica MySQL (exam.datasource.replica.enabled=true).
+ * Il primario usa spring.datasource.*, la replica exam.datasource.replica.* (url, username, password, hikari.*).
+ * L'unico DataSource candidato all'iniezione è quello di routing: JPA, Flyway e JdbcTemplate lo usano
+ * senza modifiche e le scritture e le migrazioni vanno sempre al primario.
+ */
+@Configuration
+@ConditionalOnProperty(name = "exam.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    private static final String REPLICA_PREFIX = "exam.datasource.replica";
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource))
+                .orElse(dataSource);
+    }
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource replicaDataSource(Environment environment) {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties properties = binder.bind(REPLICA_PREFIX, DataSourceProperties.class)
+                .orElseThrow(() -> new IllegalStateException("Configurare " + REPLICA_PREFIX + ".url"));
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        // Connessioni in sola lettura: una scrittura instradata per errore sulla replica fallisce
+        dataSource.setReadOnly(true);
+        return binder.bind(REPLICA_PREFIX + ".hikari", Bindable.ofInstance(dataSource)).orElse(dataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${exam.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                               @Value("${exam.datasource.replica.max-lag:PT5S}") Duration maxLag) {
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag);
+    }
+
+    @Bean
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWrites readYourWrites,
+                                 SecurityUtils securityUtils) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+                replicaLagMonitor, readYourWrites, securityUtils);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
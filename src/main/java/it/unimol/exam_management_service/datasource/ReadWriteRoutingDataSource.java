@@ -0,0 +1,47 @@
+package it.unimol.exam_management_service.datasource;
+
+import it.unimol.exam_management_service.security.SecurityUtils;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sceglie il database al momento dell'apertura della connessione: le transazioni readOnly vanno
+ * alla replica, tutto il resto al primario. Restano sul primario anche le letture con
+ * DataSourceRouting.onPrimary, quelle degli studenti con modifiche recenti (ReadYourWrites)
+ * e tutte le letture quando la replica è in ritardo (ReplicaLagMonitor).
+ * Va usato dietro un LazyConnectionDataSourceProxy, così la connessione viene aperta
+ * solo dopo che la transazione è stata marcata readOnly.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+    private final SecurityUtils securityUtils;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      ReadYourWrites readYourWrites, SecurityUtils securityUtils) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        this.securityUtils = securityUtils;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return useReplica() ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    private boolean useReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !DataSourceRouting.isPrimaryRequired()
+                && lagMonitor.isReplicaUsable()
+                && !readYourWrites.hasRecentWrites(securityUtils.getCurrentUserId());
+    }
+}
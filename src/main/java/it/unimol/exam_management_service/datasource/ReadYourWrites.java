@@ -0,0 +1,35 @@
+package it.unimol.exam_management_service.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Studenti che hanno appena modificato le proprie iscrizioni: per read-your-writes-window
+ * le loro letture vanno al primario, così vedono subito la modifica anche se la replica è in ritardo.
+ * Lo stato è locale all'istanza.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${exam.datasource.replica.read-your-writes-window:PT10S}") Duration window,
+                          @Value("${exam.datasource.replica.read-your-writes-max-size:100000}") long maxSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public void recordWrite(Long studentId) {
+        recentWriters.put(String.valueOf(studentId), Boolean.TRUE);
+    }
+
+    public boolean hasRecentWrites(String userId) {
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
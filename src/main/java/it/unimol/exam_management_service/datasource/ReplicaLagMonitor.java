@@ -0,0 +1,84 @@
+package it.unimol.exam_management_service.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Controlla periodicamente il ritardo della replica: oltre max-lag, se la replicazione è ferma
+ * o la replica non risponde, le letture tornano al primario fino al controllo successivo.
+ * La query predefinita è SHOW REPLICA STATUS (colonna Seconds_Behind_Source di MySQL);
+ * in alternativa può restituire i secondi di ritardo nella prima colonna.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    // Finché il primo controllo non va a buon fine si legge dal primario
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Duration maxLag) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        checkLag();
+    }
+
+    @Scheduled(fixedDelayString = "${exam.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Long lagSeconds = replica.query(lagQuery, ReplicaLagMonitor::lagSeconds);
+            usable = lagSeconds != null && lagSeconds <= maxLag.toSeconds();
+            if (!usable && replicaUsable) {
+                logger.warn("Replica in ritardo ({} s, massimo {} s): letture sul primario", lagSeconds, maxLag.toSeconds());
+            }
+        } catch (DataAccessException e) {
+            usable = false;
+            if (replicaUsable) {
+                logger.warn("Replica non raggiungibile: letture sul primario ({})", e.getMessage());
+            }
+        }
+        replicaUsable = usable;
+    }
+
+    // null se la replicazione non è configurata o è ferma
+    private static Long lagSeconds(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return null;
+        }
+        for (String column : LAG_COLUMNS) {
+            try {
+                Object lag = rs.getObject(column);
+                return lag != null ? ((Number) lag).longValue() : null;
+            } catch (SQLException e) {
+                // Colonna assente: versione di MySQL diversa o query personalizzata
+            }
+        }
+        Object lag = rs.getObject(1);
+        return lag instanceof Number number ? number.longValue() : null;
+    }
+}
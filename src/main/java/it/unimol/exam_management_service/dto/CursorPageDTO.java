@@ -0,0 +1,46 @@
+package it.unimol.exam_management_service.dto;
+
+import java.util.List;
+
+/**
+ * Pagina di un elenco scorribile con cursore: nextCursor va passato alla richiesta
+ * successiva ed è null quando non ci sono altri elementi.
+ */
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+    private Boolean hasNext;
+
+    // Costruttori, getters e setters
+    public CursorPageDTO() {}
+
+    public CursorPageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -36,6 +36,21 @@ public class EnrollmentDTO {
     // Costruttori, getters e setters
     public EnrollmentDTO() {}
 
+    // Proiezione JPQL (EnrollmentRepository.find*DTOs): stessi valori di EnrollmentMapper.toDTO
+    public EnrollmentDTO(Long id, Long examId, String examName, LocalDate examDate, Long studentId,
+                         EnrollmentStatus status, LocalDateTime enrollmentDate, String notes, Integer grade) {
+        this.id = id;
+        this.examId = examId;
+        this.examName = examName;
+        this.examDate = examDate;
+        this.studentId = studentId;
+        this.status = status;
+        this.enrollmentDate = enrollmentDate;
+        this.notes = notes;
+        this.hasGrade = grade != null && grade > 0;
+        this.grade = this.hasGrade ? grade : null;
+    }
+
     // Getters e setters completi
     public Long getId() {
         return id;
@@ -0,0 +1,76 @@
+package it.unimol.exam_management_service.dto;
+
+import java.util.List;
+
+/**
+ * Esito della registrazione in blocco dei voti di un esame, con il risultato di ogni riga
+ */
+public class GradeBatchResponseDTO {
+    private Long examId;
+    private Integer received;
+    private Integer created;
+    private Integer updated;
+    private Integer rejected;
+    private List<GradeBatchResultDTO> results;
+
+    // Costruttori, getters e setters
+    public GradeBatchResponseDTO() {}
+
+    public GradeBatchResponseDTO(Long examId, Integer received, Integer created, Integer updated,
+                                 Integer rejected, List<GradeBatchResultDTO> results) {
+        this.examId = examId;
+        this.received = received;
+        this.created = created;
+        this.updated = updated;
+        this.rejected = rejected;
+        this.results = results;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public Integer getReceived() {
+        return received;
+    }
+
+    public void setReceived(Integer received) {
+        this.received = received;
+    }
+
+    public Integer getCreated() {
+        return created;
+    }
+
+    public void setCreated(Integer created) {
+        this.created = created;
+    }
+
+    public Integer getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(Integer updated) {
+        this.updated = updated;
+    }
+
+    public Integer getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(Integer rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<GradeBatchResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<GradeBatchResultDTO> results) {
+        this.results = results;
+    }
+}
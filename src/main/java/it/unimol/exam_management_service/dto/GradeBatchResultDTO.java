@@ -0,0 +1,63 @@
+package it.unimol.exam_management_service.dto;
+
+import it.unimol.exam_management_service.enums.GradeBatchOutcome;
+
+public class GradeBatchResultDTO {
+    private Integer index;
+    private Long enrollmentId;
+    private Long gradeId;
+    private GradeBatchOutcome outcome;
+    private String message;
+
+    // Costruttori, getters e setters
+    public GradeBatchResultDTO() {}
+
+    public GradeBatchResultDTO(Integer index, Long enrollmentId, Long gradeId,
+                               GradeBatchOutcome outcome, String message) {
+        this.index = index;
+        this.enrollmentId = enrollmentId;
+        this.gradeId = gradeId;
+        this.outcome = outcome;
+        this.message = message;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public Long getEnrollmentId() {
+        return enrollmentId;
+    }
+
+    public void setEnrollmentId(Long enrollmentId) {
+        this.enrollmentId = enrollmentId;
+    }
+
+    public Long getGradeId() {
+        return gradeId;
+    }
+
+    public void setGradeId(Long gradeId) {
+        this.gradeId = gradeId;
+    }
+
+    public GradeBatchOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(GradeBatchOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -1,5 +1,6 @@
 package it.unimol.exam_management_service.dto;
 
+import it.unimol.exam_management_service.entity.ExamGrade;
 import it.unimol.exam_management_service.enums.GradeStatus;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
@@ -43,6 +44,25 @@ public class GradeDTO {
     // Costruttori, getters e setters
     public GradeDTO() {}
 
+    // Proiezione JPQL (GradeRepository.find*DTOs): stessi valori di GradeMapper.toDTO
+    public GradeDTO(Long id, Long enrollmentId, Long examId, String examName, Long studentId,
+                    Integer grade, Boolean honors, GradeStatus status, LocalDateTime evaluationDate,
+                    Long professorId, String feedback, LocalDateTime publishedDate) {
+        this.id = id;
+        this.enrollmentId = enrollmentId;
+        this.examId = examId;
+        this.examName = examName;
+        this.studentId = studentId;
+        this.grade = grade;
+        this.honors = honors;
+        this.status = status;
+        this.evaluationDate = evaluationDate;
+        this.professorId = professorId;
+        this.feedback = feedback;
+        this.publishedDate = publishedDate;
+        this.formattedGrade = ExamGrade.formatGrade(grade, honors);
+    }
+
     // Getters e setters completi
     public Long getId() {
         return id;
@@ -0,0 +1,119 @@
+package it.unimol.exam_management_service.dto;
+
+import java.util.Map;
+
+public class GradeStatisticsDTO {
+    private Long courseId;
+    private Long examId;
+    private Long totalGrades;
+    private Long publishedCount;
+    private Double averageGrade;
+    private Double standardDeviation;
+    private Integer minGrade;
+    private Integer maxGrade;
+    private Long passedCount;
+    private Long failedCount;
+    private Long honorsCount;
+
+    // Voti sufficienti per valore: "18" ... "30" e "30 e lode"
+    private Map<String, Long> distribution;
+
+    // Costruttori, getters e setters
+    public GradeStatisticsDTO() {}
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public Long getTotalGrades() {
+        return totalGrades;
+    }
+
+    public void setTotalGrades(Long totalGrades) {
+        this.totalGrades = totalGrades;
+    }
+
+    public Long getPublishedCount() {
+        return publishedCount;
+    }
+
+    public void setPublishedCount(Long publishedCount) {
+        this.publishedCount = publishedCount;
+    }
+
+    public Double getAverageGrade() {
+        return averageGrade;
+    }
+
+    public void setAverageGrade(Double averageGrade) {
+        this.averageGrade = averageGrade;
+    }
+
+    public Double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    public void setStandardDeviation(Double standardDeviation) {
+        this.standardDeviation = standardDeviation;
+    }
+
+    public Integer getMinGrade() {
+        return minGrade;
+    }
+
+    public void setMinGrade(Integer minGrade) {
+        this.minGrade = minGrade;
+    }
+
+    public Integer getMaxGrade() {
+        return maxGrade;
+    }
+
+    public void setMaxGrade(Integer maxGrade) {
+        this.maxGrade = maxGrade;
+    }
+
+    public Long getPassedCount() {
+        return passedCount;
+    }
+
+    public void setPassedCount(Long passedCount) {
+        this.passedCount = passedCount;
+    }
+
+    public Long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public Long getHonorsCount() {
+        return honorsCount;
+    }
+
+    public void setHonorsCount(Long honorsCount) {
+        this.honorsCount = honorsCount;
+    }
+
+    public Map<String, Long> getDistribution() {
+        return distribution;
+    }
+
+    public void setDistribution(Map<String, Long> distribution) {
+        this.distribution = distribution;
+    }
+}
@@ -0,0 +1,77 @@
+package it.unimol.exam_management_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Payload dell'evento exam.grade.published.batch: tutti i voti di un esame pubblicati insieme
+ */
+public class GradesPublishedBatchDTO {
+    private Long examId;
+    private String examName;
+    private Long courseId;
+    private LocalDateTime publishedDate;
+    private Integer gradeCount;
+    private List<PublishedGradeDTO> grades;
+
+    // Costruttori, getters e setters
+    public GradesPublishedBatchDTO() {}
+
+    public GradesPublishedBatchDTO(Long examId, String examName, Long courseId,
+                                   LocalDateTime publishedDate, List<PublishedGradeDTO> grades) {
+        this.examId = examId;
+        this.examName = examName;
+        this.courseId = courseId;
+        this.publishedDate = publishedDate;
+        this.grades = grades;
+        this.gradeCount = grades != null ? grades.size() : 0;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public String getExamName() {
+        return examName;
+    }
+
+    public void setExamName(String examName) {
+        this.examName = examName;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public LocalDateTime getPublishedDate() {
+        return publishedDate;
+    }
+
+    public void setPublishedDate(LocalDateTime publishedDate) {
+        this.publishedDate = publishedDate;
+    }
+
+    public Integer getGradeCount() {
+        return gradeCount;
+    }
+
+    public void setGradeCount(Integer gradeCount) {
+        this.gradeCount = gradeCount;
+    }
+
+    public List<PublishedGradeDTO> getGrades() {
+        return grades;
+    }
+
+    public void setGrades(List<PublishedGradeDTO> grades) {
+        this.grades = grades;
+    }
+}
@@ -0,0 +1,45 @@
+package it.unimol.exam_management_service.dto;
+
+import java.util.List;
+
+/**
+ * Payload dell'evento exam.grade.recorded.batch: voti registrati o aggiornati con un unico lotto
+ */
+public class GradesRecordedBatchDTO {
+    private Long examId;
+    private Integer gradeCount;
+    private List<GradeDTO> grades;
+
+    // Costruttori, getters e setters
+    public GradesRecordedBatchDTO() {}
+
+    public GradesRecordedBatchDTO(Long examId, List<GradeDTO> grades) {
+        this.examId = examId;
+        this.grades = grades;
+        this.gradeCount = grades != null ? grades.size() : 0;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public Integer getGradeCount() {
+        return gradeCount;
+    }
+
+    public void setGradeCount(Integer gradeCount) {
+        this.gradeCount = gradeCount;
+    }
+
+    public List<GradeDTO> getGrades() {
+        return grades;
+    }
+
+    public void setGrades(List<GradeDTO> grades) {
+        this.grades = grades;
+    }
+}
@@ -0,0 +1,60 @@
+package it.unimol.exam_management_service.dto;
+
+public class PublishedGradeDTO {
+    private Long gradeId;
+    private Long enrollmentId;
+    private Long studentId;
+    private Integer grade;
+    private Boolean honors;
+
+    // Costruttori, getters e setters
+    public PublishedGradeDTO() {}
+
+    public PublishedGradeDTO(Long gradeId, Long enrollmentId, Long studentId, Integer grade, Boolean honors) {
+        this.gradeId = gradeId;
+        this.enrollmentId = enrollmentId;
+        this.studentId = studentId;
+        this.grade = grade;
+        this.honors = honors;
+    }
+
+    public Long getGradeId() {
+        return gradeId;
+    }
+
+    public void setGradeId(Long gradeId) {
+        this.gradeId = gradeId;
+    }
+
+    public Long getEnrollmentId() {
+        return enrollmentId;
+    }
+
+    public void setEnrollmentId(Long enrollmentId) {
+        this.enrollmentId = enrollmentId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Integer getGrade() {
+        return grade;
+    }
+
+    public void setGrade(Integer grade) {
+        this.grade = grade;
+    }
+
+    public Boolean getHonors() {
+        return honors;
+    }
+
+    public void setHonors(Boolean honors) {
+        this.honors = honors;
+    }
+}
@@ -0,0 +1,60 @@
+package it.unimol.exam_management_service.dto;
+
+public class WaitlistPositionDTO {
+    private Long examId;
+    private Long studentId;
+    private Long enrollmentId;
+    private Long position;
+    private Long waitingCount;
+
+    // Costruttori, getters e setters
+    public WaitlistPositionDTO() {}
+
+    public WaitlistPositionDTO(Long examId, Long studentId, Long enrollmentId, Long position, Long waitingCount) {
+        this.examId = examId;
+        this.studentId = studentId;
+        this.enrollmentId = enrollmentId;
+        this.position = position;
+        this.waitingCount = waitingCount;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getEnrollmentId() {
+        return enrollmentId;
+    }
+
+    public void setEnrollmentId(Long enrollmentId) {
+        this.enrollmentId = enrollmentId;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public Long getWaitingCount() {
+        return waitingCount;
+    }
+
+    public void setWaitingCount(Long waitingCount) {
+        this.waitingCount = waitingCount;
+    }
+}
@@ -8,7 +8,12 @@ import java.time.LocalTime;
 import java.util.List;
 
 @Entity
-@Table(name = "exams")
+@Table(name = "exams", indexes = {
+        @Index(name = "idx_exams_course_date", columnList = "course_id, date"),
+        @Index(name = "idx_exams_professor_date", columnList = "professor_id, date"),
+        @Index(name = "idx_exams_availability", columnList = "status, enrollment_deadline, enrolled_count, max_students"),
+        @Index(name = "idx_exams_date", columnList = "date")
+})
 public class Exam {
 
     @Id
@@ -20,8 +25,9 @@ public class Exam {
     @Column(nullable = false)
     private String name;
 
+    // La data futura è verificata sulle richieste (CreateExamRequest, ExamDTO): qui bloccherebbe
+    // ogni aggiornamento di un esame già svolto, come il passaggio a COMPLETED alla pubblicazione dei voti
     @NotNull(message = "La data dell'esame è obbligatoria")
-    @Future(message = "La data dell'esame deve essere futura")
     @Column(nullable = false)
     private LocalDate date;
 
@@ -51,6 +57,10 @@ public class Exam {
     @Column(name = "enrollment_deadline", nullable = false)
     private LocalDate enrollmentDeadline;
 
+    // Posti occupati, aggiornato solo tramite ExamRepository.reserveSeat/releaseSeat (e dalla riconciliazione)
+    @Column(name = "enrolled_count", nullable = false, updatable = false)
+    private Integer enrolledCount = 0;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ExamStatus status = ExamStatus.SCHEDULED;
@@ -59,6 +69,11 @@ public class Exam {
     @Column(length = 1000)
     private String notes;
 
+    // Incrementata a ogni modifica dell'entità (non da reserveSeat/releaseSeat), usata anche per gli ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "exam", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ExamEnrollment> enrollments;
 
@@ -148,6 +163,14 @@ public class Exam {
         this.enrollmentDeadline = enrollmentDeadline;
     }
 
+    public Integer getEnrolledCount() {
+        return enrolledCount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     public ExamStatus getStatus() {
         return status;
     }
@@ -173,14 +196,21 @@ public class Exam {
     }
 
     // Metodi di utilità
+
+    // Posti occupati: il contatore enrolledCount, senza inizializzare la collezione lazy delle iscrizioni
     public int getCurrentEnrollmentCount() {
-        return enrollments != null ? enrollments.size() : 0;
+        return enrolledCount != null ? enrolledCount : 0;
     }
 
     public boolean isEnrollmentOpen() {
+        return isEnrollmentOpen(getCurrentEnrollmentCount());
+    }
+
+    // Variante che non inizializza la collezione lazy delle iscrizioni
+    public boolean isEnrollmentOpen(long currentEnrollmentCount) {
         return LocalDate.now().isBefore(enrollmentDeadline) &&
                 status == ExamStatus.SCHEDULED &&
-                getCurrentEnrollmentCount() < maxStudents;
+                currentEnrollmentCount < maxStudents;
     }
 
     public boolean hasAvailableSpots() {
@@ -6,9 +6,21 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "exam_enrollments")
+@Table(name = "exam_enrollments",
+        uniqueConstraints = @UniqueConstraint(name = "uk_enrollments_student_exam", columnNames = {"student_id", "exam_id"}),
+        indexes = {
+                @Index(name = "idx_enrollments_exam_status", columnList = "exam_id, status, enrollment_date"),
+                @Index(name = "idx_enrollments_student_date", columnList = "student_id, enrollment_date"),
+                @Index(name = "idx_enrollments_date", columnList = "enrollment_date, id")
+        })
+@NamedEntityGraph(name = ExamEnrollment.WITH_EXAM_AND_GRADE, attributeNodes = {
+        @NamedAttributeNode("exam"),
+        @NamedAttributeNode("grade")
+})
 public class ExamEnrollment {
 
+    public static final String WITH_EXAM_AND_GRADE = "ExamEnrollment.withExamAndGrade";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -36,6 +48,11 @@ public class ExamEnrollment {
     @Column(length = 500)
     private String notes;
 
+    // Incrementata a ogni modifica dell'iscrizione, usata anche per gli ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Costruttori
     public ExamEnrollment() {
         this.enrollmentDate = LocalDateTime.now();
@@ -97,6 +114,10 @@ public class ExamEnrollment {
         return notes;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setNotes(String notes) {
         this.notes = notes;
     }
@@ -6,9 +6,16 @@ import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "exam_grades")
+@Table(name = "exam_grades", indexes = {
+        @Index(name = "idx_grades_enrollment_status", columnList = "enrollment_id, status")
+})
+@NamedEntityGraph(name = ExamGrade.WITH_ENROLLMENT_AND_EXAM, attributeNodes = @NamedAttributeNode(
+        value = "enrollment", subgraph = "enrollment"),
+        subgraphs = @NamedSubgraph(name = "enrollment", attributeNodes = @NamedAttributeNode("exam")))
 public class ExamGrade {
 
+    public static final String WITH_ENROLLMENT_AND_EXAM = "ExamGrade.withEnrollmentAndExam";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -41,7 +48,7 @@ public class ExamGrade {
     private LocalDateTime publishedDate;
 
     @NotNull(message = "L'iscrizione è obbligatoria")
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "enrollment_id", nullable = false)
     private ExamEnrollment enrollment;
 
@@ -155,6 +162,11 @@ public class ExamGrade {
     }
 
     public String getFormattedGrade() {
+        return formatGrade(grade, honors);
+    }
+
+    // Usato anche dalle proiezioni DTO che non caricano l'entità
+    public static String formatGrade(Integer grade, Boolean honors) {
         if (grade == null) {
             return "Non valutato";
         }
@@ -0,0 +1,37 @@
+package it.unimol.exam_management_service.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Salva l'istogramma dei voti (0..30 e 30 e lode) come elenco separato da virgole
+ */
+@Converter
+public class GradeHistogramConverter implements AttributeConverter<long[], String> {
+
+    @Override
+    public String convertToDatabaseColumn(long[] histogram) {
+        if (histogram == null) {
+            return null;
+        }
+        return Arrays.stream(histogram)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public long[] convertToEntityAttribute(String value) {
+        long[] histogram = new long[GradeStatistics.HISTOGRAM_SIZE];
+        if (value == null || value.isBlank()) {
+            return histogram;
+        }
+        String[] parts = value.split(",");
+        for (int i = 0; i < parts.length && i < histogram.length; i++) {
+            histogram[i] = Long.parseLong(parts[i].trim());
+        }
+        return histogram;
+    }
+}
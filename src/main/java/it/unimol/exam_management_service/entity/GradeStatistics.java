@@ -0,0 +1,235 @@
+package it.unimol.exam_management_service.entity;
+
+import it.unimol.exam_management_service.enums.StatisticsScope;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Statistiche dei voti materializzate per esame o per corso, aggiornate a ogni modifica
+ * di un voto (GradeStatisticsService) così la lettura è una sola riga.
+ */
+@Entity
+@Table(name = "grade_statistics", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_grade_statistics_scope", columnNames = {"scope", "scope_id"})
+})
+public class GradeStatistics {
+
+    // Posizioni 0..30 per il valore del voto, 31 per il 30 e lode
+    public static final int HISTOGRAM_SIZE = 32;
+    public static final int HONORS_BUCKET = 31;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private StatisticsScope scope;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    // Tutti i voti, anche non ancora valutati
+    @Column(name = "total_grades", nullable = false)
+    private long totalGrades;
+
+    // Voti con un valore
+    @Column(name = "grade_count", nullable = false)
+    private long gradeCount;
+
+    @Column(name = "grade_sum", nullable = false)
+    private long gradeSum;
+
+    @Column(name = "grade_sum_squares", nullable = false)
+    private long gradeSumSquares;
+
+    @Column(name = "min_grade")
+    private Integer minGrade;
+
+    @Column(name = "max_grade")
+    private Integer maxGrade;
+
+    @Column(name = "passed_count", nullable = false)
+    private long passedCount;
+
+    @Column(name = "honors_count", nullable = false)
+    private long honorsCount;
+
+    @Column(name = "published_count", nullable = false)
+    private long publishedCount;
+
+    @Convert(converter = GradeHistogramConverter.class)
+    @Column(nullable = false, length = 400)
+    private long[] histogram = new long[HISTOGRAM_SIZE];
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Costruttori
+    public GradeStatistics() {
+    }
+
+    public GradeStatistics(StatisticsScope scope, Long scopeId) {
+        this.scope = scope;
+        this.scopeId = scopeId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getter
+    public Long getId() {
+        return id;
+    }
+
+    public StatisticsScope getScope() {
+        return scope;
+    }
+
+    public Long getScopeId() {
+        return scopeId;
+    }
+
+    public long getTotalGrades() {
+        return totalGrades;
+    }
+
+    public long getGradeCount() {
+        return gradeCount;
+    }
+
+    public long getGradeSum() {
+        return gradeSum;
+    }
+
+    public long getGradeSumSquares() {
+        return gradeSumSquares;
+    }
+
+    public Integer getMinGrade() {
+        return minGrade;
+    }
+
+    public Integer getMaxGrade() {
+        return maxGrade;
+    }
+
+    public long getPassedCount() {
+        return passedCount;
+    }
+
+    public long getFailedCount() {
+        return gradeCount - passedCount;
+    }
+
+    public long getHonorsCount() {
+        return honorsCount;
+    }
+
+    public long getPublishedCount() {
+        return publishedCount;
+    }
+
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    // Metodi di utilità
+
+    /**
+     * Aggiunge (count positivo) o toglie (count negativo) voti con gli stessi valori
+     */
+    public void apply(Integer grade, Boolean honors, boolean published, long count) {
+        totalGrades += count;
+        if (Boolean.TRUE.equals(honors)) {
+            honorsCount += count;
+        }
+        if (published) {
+            publishedCount += count;
+        }
+
+        if (grade != null) {
+            gradeCount += count;
+            gradeSum += count * grade;
+            gradeSumSquares += count * grade * grade;
+            if (grade >= 18) {
+                passedCount += count;
+            }
+
+            // Nuovo array a ogni modifica, così Hibernate rileva sempre il cambiamento
+            long[] updated = histogram.clone();
+            updated[bucket(grade, honors)] += count;
+            histogram = updated;
+            refreshBounds();
+        }
+
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Somma (sign = 1) o sottrae (sign = -1) le statistiche di un'altra riga, es. un esame nel suo corso
+     */
+    public void merge(GradeStatistics other, long sign) {
+        totalGrades += sign * other.totalGrades;
+        gradeCount += sign * other.gradeCount;
+        gradeSum += sign * other.gradeSum;
+        gradeSumSquares += sign * other.gradeSumSquares;
+        passedCount += sign * other.passedCount;
+        honorsCount += sign * other.honorsCount;
+        publishedCount += sign * other.publishedCount;
+
+        long[] updated = histogram.clone();
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            updated[i] += sign * other.histogram[i];
+        }
+        histogram = updated;
+        refreshBounds();
+
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void addPublished(long count) {
+        publishedCount += count;
+        updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isEmpty() {
+        return totalGrades == 0;
+    }
+
+    public boolean hasSameValuesAs(GradeStatistics other) {
+        return totalGrades == other.totalGrades
+                && gradeCount == other.gradeCount
+                && gradeSum == other.gradeSum
+                && gradeSumSquares == other.gradeSumSquares
+                && passedCount == other.passedCount
+                && honorsCount == other.honorsCount
+                && publishedCount == other.publishedCount
+                && Objects.equals(minGrade, other.minGrade)
+                && Objects.equals(maxGrade, other.maxGrade)
+                && Arrays.equals(histogram, other.histogram);
+    }
+
+    public static int bucket(int grade, Boolean honors) {
+        return grade == 30 && Boolean.TRUE.equals(honors) ? HONORS_BUCKET : grade;
+    }
+
+    // Minimo e massimo ricavati dall'istogramma, così restano corretti anche dopo una rimozione
+    private void refreshBounds() {
+        minGrade = null;
+        maxGrade = null;
+        for (int grade = 0; grade <= 30; grade++) {
+            long count = histogram[grade] + (grade == 30 ? histogram[HONORS_BUCKET] : 0);
+            if (count > 0) {
+                if (minGrade == null) {
+                    minGrade = grade;
+                }
+                maxGrade = grade;
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package it.unimol.exam_management_service.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.Length;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento in attesa di essere inoltrato al broker, scritto nella stessa transazione
+ * della modifica che lo ha generato e consegnato da OutboxRelay.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_pending", columnList = "published_at, id")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String exchange;
+
+    @Column(name = "routing_key", nullable = false, length = 100)
+    private String routingKey;
+
+    // Corpo JSON già serializzato dal convertitore dei messaggi: LONGTEXT in V5, letto e scritto come stringa
+    // (la lunghezza vale solo per lo schema generato da Hibernate nel profilo di test)
+    @JdbcTypeCode(SqlTypes.LONGVARCHAR)
+    @Column(nullable = false, length = Length.LONG16)
+    private String payload;
+
+    // Intestazione __TypeId__ prodotta dal convertitore JSON
+    @Column(name = "payload_type")
+    private String payloadType;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // Impostato quando il broker continua a rifiutare l'evento: il relay non lo ritenta più
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // Rifiuti con il broker raggiungibile; i tentativi falliti per broker non disponibile non contano
+    @Column(nullable = false)
+    private Integer rejections = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Costruttori
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String exchange, String routingKey, String payload, String payloadType) {
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.payload = payload;
+        this.payloadType = payloadType;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getter
+    public Long getId() {
+        return id;
+    }
+
+    public String getExchange() {
+        return exchange;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public String getPayloadType() {
+        return payloadType;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public Integer getRejections() {
+        return rejections;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    // Metodi di utilità
+    public boolean isPublished() {
+        return publishedAt != null;
+    }
+
+    public boolean isFailed() {
+        return failedAt != null;
+    }
+
+    public void markPublished(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+        this.attempts = attempts + 1;
+        this.lastError = null;
+    }
+}
@@ -5,7 +5,8 @@ public enum EnrollmentStatus {
     PRESENT("Presente"),
     ABSENT("Assente"),
     WITHDREW("Ritirato"),
-    GRADED("Valutato");
+    GRADED("Valutato"),
+    WAITLISTED("In lista d'attesa");
 
     private final String description;
 
@@ -0,0 +1,17 @@
+package it.unimol.exam_management_service.enums;
+
+public enum GradeBatchOutcome {
+    CREATED("Creato"),
+    UPDATED("Aggiornato"),
+    REJECTED("Rifiutato");
+
+    private final String description;
+
+    GradeBatchOutcome(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
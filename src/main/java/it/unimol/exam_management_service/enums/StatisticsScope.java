@@ -0,0 +1,16 @@
+package it.unimol.exam_management_service.enums;
+
+public enum StatisticsScope {
+    EXAM("Esame"),
+    COURSE("Corso");
+
+    private final String description;
+
+    StatisticsScope(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
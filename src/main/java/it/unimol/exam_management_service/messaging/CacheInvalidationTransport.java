@@ -0,0 +1,14 @@
+package it.unimol.exam_management_service.messaging;
+
+import java.util.function.Consumer;
+
+/**
+ * Canale di diffusione delle invalidazioni di cache tra le istanze del servizio.
+ * L'invio è best effort: un messaggio perso è coperto dalla scadenza delle voci in cache.
+ */
+public interface CacheInvalidationTransport {
+
+    void broadcast(ExamCacheInvalidation invalidation);
+
+    void subscribe(Consumer<ExamCacheInvalidation> listener);
+}
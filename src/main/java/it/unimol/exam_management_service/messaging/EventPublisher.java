@@ -0,0 +1,45 @@
+package it.unimol.exam_management_service.messaging;
+
+import it.unimol.exam_management_service.entity.OutboxEvent;
+import it.unimol.exam_management_service.repository.OutboxEventRepository;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pubblica gli eventi di dominio sull'exchange "exam-events" tramite l'outbox:
+ * l'evento viene salvato nella transazione del chiamante e inoltrato al broker da OutboxRelay,
+ * quindi un rollback annulla anche l'evento e la richiesta non attende il broker.
+ */
+@Component
+public class EventPublisher {
+
+    public static final String EXAM_EXCHANGE = "exam-events";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageConverter messageConverter;
+
+    public EventPublisher(OutboxEventRepository outboxEventRepository, MessageConverter messageConverter) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.messageConverter = messageConverter;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String routingKey, Object payload) {
+        // Serializzazione immediata: il payload riflette lo stato al momento della modifica
+        Message message = messageConverter.toMessage(payload, new MessageProperties());
+        Object typeId = message.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+
+        outboxEventRepository.save(new OutboxEvent(
+                EXAM_EXCHANGE,
+                routingKey,
+                new String(message.getBody(), StandardCharsets.UTF_8),
+                typeId != null ? typeId.toString() : null));
+    }
+}
@@ -0,0 +1,10 @@
+package it.unimol.exam_management_service.messaging;
+
+/**
+ * Messaggio inviato a tutte le istanze del servizio quando un esame cambia, così ognuna
+ * rimuove le proprie copie locali. origin identifica l'istanza che ha eseguito la modifica.
+ */
+public record ExamCacheInvalidation(String origin, Long examId) {
+
+    public static final String ROUTING_KEY = "exam.cache.invalidated";
+}
@@ -0,0 +1,61 @@
+package it.unimol.exam_management_service.messaging;
+
+import it.unimol.exam_management_service.entity.OutboxEvent;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.core.Message;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Broker in memoria per sviluppo e test senza RabbitMQ (exam.outbox.broker=in-memory).
+ * Può simulare un broker non raggiungibile, o che rifiuta i messaggi di una routing key,
+ * per verificare i tentativi del relay.
+ */
+@Component
+@ConditionalOnProperty(name = "exam.outbox.broker", havingValue = "in-memory")
+public class InMemoryMessageBroker implements MessageBrokerGateway {
+
+    private final List<PublishedMessage> published = new CopyOnWriteArrayList<>();
+    private volatile boolean unavailable;
+    private volatile String rejectedRoutingKey;
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        if (unavailable) {
+            throw new AmqpIOException(new IOException("Broker in memoria non disponibile"));
+        }
+        List<PublishedMessage> batch = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            if (event.getRoutingKey().equals(rejectedRoutingKey)) {
+                throw new AmqpException("Messaggio rifiutato dal broker in memoria: " + event.getId());
+            }
+            batch.add(new PublishedMessage(event.getExchange(), event.getRoutingKey(), OutboxMessages.toMessage(event)));
+        }
+        published.addAll(batch);
+    }
+
+    public List<PublishedMessage> getPublished() {
+        return List.copyOf(published);
+    }
+
+    public void setUnavailable(boolean unavailable) {
+        this.unavailable = unavailable;
+    }
+
+    public void setRejectedRoutingKey(String rejectedRoutingKey) {
+        this.rejectedRoutingKey = rejectedRoutingKey;
+    }
+
+    public void clear() {
+        published.clear();
+    }
+
+    public record PublishedMessage(String exchange, String routingKey, Message message) {
+    }
+}
@@ -0,0 +1,29 @@
+package it.unimol.exam_management_service.messaging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Trasporto in memoria per sviluppo e test senza RabbitMQ (exam.cache.invalidation.transport=local).
+ * Si comporta come l'exchange con una coda per istanza: ogni iscritto riceve tutte le invalidazioni.
+ */
+@Component
+@ConditionalOnProperty(name = "exam.cache.invalidation.transport", havingValue = "local")
+public class LocalCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final List<Consumer<ExamCacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void broadcast(ExamCacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<ExamCacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
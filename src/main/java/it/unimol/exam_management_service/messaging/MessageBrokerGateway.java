@@ -0,0 +1,14 @@
+package it.unimol.exam_management_service.messaging;
+
+import it.unimol.exam_management_service.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Canale verso il broker usato da OutboxRelay. L'implementazione deve restituire
+ * solo quando il broker ha confermato l'intero lotto, altrimenti lanciare un'eccezione.
+ */
+public interface MessageBrokerGateway {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,29 @@
+package it.unimol.exam_management_service.messaging;
+
+import it.unimol.exam_management_service.entity.OutboxEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ricostruisce il messaggio AMQP di un evento dell'outbox con le stesse intestazioni
+ * che avrebbe prodotto Jackson2JsonMessageConverter.
+ */
+final class OutboxMessages {
+
+    private OutboxMessages() {
+    }
+
+    static Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId("outbox-" + event.getId());
+        if (event.getPayloadType() != null) {
+            properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getPayloadType());
+        }
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
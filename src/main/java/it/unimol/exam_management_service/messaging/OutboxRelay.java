@@ -0,0 +1,166 @@
+package it.unimol.exam_management_service.messaging;
+
+import it.unimol.exam_management_service.entity.OutboxEvent;
+import it.unimol.exam_management_service.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Svuota periodicamente l'outbox inoltrando gli eventi al broker a lotti.
+ * La consegna è almeno-una-volta: se il commit fallisce dopo la conferma del broker
+ * il lotto viene reinviato, i consumer possono deduplicare con il messageId "outbox-{id}".
+ * Un lotto rifiutato viene ritentato un evento alla volta, così un evento che il broker non accetta
+ * non blocca quelli successivi; dopo exam.outbox.max-attempts rifiuti l'evento viene escluso (failed_at).
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageBrokerGateway brokerGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       MessageBrokerGateway brokerGateway,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${exam.outbox.batch-size:100}") int batchSize,
+                       @Value("${exam.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${exam.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.brokerGateway = brokerGateway;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${exam.outbox.relay-interval-ms:500}")
+    public void relayPendingEvents() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * Inoltra un lotto di eventi e restituisce quanti ne sono stati confermati.
+     * Se il broker rifiuta il lotto, gli eventi vengono ritentati uno alla volta (relayOneByOne).
+     */
+    public int relayBatch() {
+        List<Long> batchIds = new ArrayList<>();
+
+        try {
+            Integer relayed = transactionTemplate.execute(status -> {
+                List<OutboxEvent> batch = outboxEventRepository.findPendingForUpdate(PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                batch.forEach(event -> batchIds.add(event.getId()));
+
+                brokerGateway.publish(batch);
+
+                LocalDateTime now = LocalDateTime.now();
+                batch.forEach(event -> event.markPublished(now));
+                return batch.size();
+            });
+            return relayed != null ? relayed : 0;
+        } catch (RuntimeException e) {
+            logger.warn("Inoltro di {} eventi dall'outbox fallito: {}", batchIds.size(), e.getMessage());
+            if (batchIds.size() == 1) {
+                recordFailure(batchIds, e);
+            } else if (!batchIds.isEmpty()) {
+                return relayOneByOne(batchIds);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Ritenta da soli, in ordine, gli eventi di un lotto fallito. Un evento rifiutato mentre il broker
+     * accetta gli eventi successivi conta come rifiuto dell'evento stesso (rejections) e, esauriti i rifiuti
+     * ammessi, viene escluso; due rifiuti consecutivi indicano invece un broker non disponibile: il resto del lotto
+     * attende il giro successivo. I tentativi falliti (attempts, lastError) servono solo alla diagnostica.
+     */
+    private int relayOneByOne(List<Long> ids) {
+        int relayed = 0;
+        List<Long> rejected = new ArrayList<>();
+        List<Long> rejectedWhileBrokerUp = new ArrayList<>();
+        boolean previousFailed = false;
+
+        for (Long id : ids) {
+            try {
+                Boolean published = transactionTemplate.execute(status -> outboxEventRepository
+                        .findPendingByIdForUpdate(id)
+                        .map(event -> {
+                            brokerGateway.publish(List.of(event));
+                            event.markPublished(LocalDateTime.now());
+                            return true;
+                        })
+                        .orElse(false));
+                if (Boolean.TRUE.equals(published)) {
+                    relayed++;
+                }
+                rejectedWhileBrokerUp.addAll(rejected);
+                rejected.clear();
+                previousFailed = false;
+            } catch (RuntimeException e) {
+                logger.warn("Inoltro dell'evento {} dall'outbox fallito: {}", id, e.getMessage());
+                recordFailure(List.of(id), e);
+                rejected.add(id);
+                if (previousFailed) {
+                    break;
+                }
+                previousFailed = true;
+            }
+        }
+
+        if (!rejectedWhileBrokerUp.isEmpty()) {
+            Integer failed = transactionTemplate.execute(status -> {
+                outboxEventRepository.recordRejection(rejectedWhileBrokerUp);
+                return outboxEventRepository.markFailed(rejectedWhileBrokerUp, maxAttempts, LocalDateTime.now());
+            });
+            if (failed != null && failed > 0) {
+                logger.error("{} eventi esclusi dall'outbox dopo {} rifiuti del broker (failed_at)",
+                        failed, maxAttempts);
+            }
+        }
+        return relayed;
+    }
+
+    private void recordFailure(List<Long> ids, RuntimeException e) {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.recordFailure(ids, truncate(e.getMessage())));
+    }
+
+    @Scheduled(fixedDelayString = "${exam.outbox.purge-interval-ms:3600000}")
+    public void purgePublishedEvents() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            logger.debug("Rimossi {} eventi già consegnati dall'outbox", deleted);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
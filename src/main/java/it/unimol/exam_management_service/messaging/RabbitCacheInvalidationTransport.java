@@ -0,0 +1,53 @@
+package it.unimol.exam_management_service.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Invalidazioni sull'exchange "exam-events": ogni istanza riceve i messaggi su una propria coda anonima
+ * (RabbitMQConfig.cacheInvalidationQueue), eliminata alla chiusura della connessione.
+ * L'invio è diretto e non passa dall'outbox, per non attendere il ciclo di OutboxRelay.
+ */
+@Component
+@ConditionalOnProperty(name = "exam.cache.invalidation.transport", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(RabbitCacheInvalidationTransport.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final List<Consumer<ExamCacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public RabbitCacheInvalidationTransport(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public void broadcast(ExamCacheInvalidation invalidation) {
+        try {
+            rabbitTemplate.convertAndSend(EventPublisher.EXAM_EXCHANGE, ExamCacheInvalidation.ROUTING_KEY, invalidation);
+        } catch (AmqpException e) {
+            // La modifica è già confermata: le altre istanze vedranno il nuovo valore alla scadenza della cache
+            logger.warn("Invalidazione della cache per l'esame ID: {} non inviata alle altre istanze: {}",
+                    invalidation.examId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ExamCacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @RabbitListener(queues = "#{cacheInvalidationQueue.name}")
+    public void receive(ExamCacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+}
@@ -0,0 +1,38 @@
+package it.unimol.exam_management_service.messaging;
+
+import it.unimol.exam_management_service.entity.OutboxEvent;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Invia un lotto di eventi su un unico canale e attende una sola volta le conferme del broker
+ * (richiede spring.rabbitmq.publisher-confirm-type=simple).
+ */
+@Component
+@ConditionalOnProperty(name = "exam.outbox.broker", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitMessageBrokerGateway implements MessageBrokerGateway {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final long confirmTimeoutMs;
+
+    public RabbitMessageBrokerGateway(RabbitTemplate rabbitTemplate,
+                                      @Value("${exam.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxEvent event : events) {
+                operations.send(event.getExchange(), event.getRoutingKey(), OutboxMessages.toMessage(event));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+}
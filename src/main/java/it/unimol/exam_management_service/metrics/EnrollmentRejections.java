@@ -0,0 +1,53 @@
+package it.unimol.exam_management_service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Contatore exam.enrollment.rejections delle richieste di iscrizione non accolte, con il motivo
+ * nel tag reason. Le iscrizioni messe in lista d'attesa perché l'esame è pieno sono accolte e hanno
+ * un contatore a parte, exam.enrollment.waitlisted.
+ */
+@Component
+public class EnrollmentRejections {
+
+    public static final String METRIC = "exam.enrollment.rejections";
+    public static final String WAITLISTED_METRIC = "exam.enrollment.waitlisted";
+
+    public enum Reason {
+        DEADLINE, DUPLICATE, UNAUTHORIZED;
+
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<Reason, Counter> counters = new EnumMap<>(Reason.class);
+    private final Counter waitlisted;
+
+    public EnrollmentRejections(MeterRegistry meterRegistry) {
+        // Registrati subito, così ogni motivo è esportato anche a zero
+        for (Reason reason : Reason.values()) {
+            counters.put(reason, Counter.builder(METRIC)
+                    .description("Richieste di iscrizione agli esami non accolte")
+                    .tag("reason", reason.tag())
+                    .register(meterRegistry));
+        }
+        waitlisted = Counter.builder(WAITLISTED_METRIC)
+                .description("Iscrizioni agli esami messe in lista d'attesa perché l'esame è al completo")
+                .register(meterRegistry);
+    }
+
+    public void record(Reason reason) {
+        counters.get(reason).increment();
+    }
+
+    public void recordWaitlisted() {
+        waitlisted.increment();
+    }
+}
@@ -0,0 +1,35 @@
+package it.unimol.exam_management_service.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta le istruzioni SQL preparate da Hibernate sul thread corrente, tra start() e stop().
+ * Fuori da una richiesta HTTP (job schedulati, relay dell'outbox) non conta nulla.
+ * Le query di JdbcTemplate non passano da Hibernate e non sono incluse.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Termina il conteggio sul thread corrente e restituisce il numero di istruzioni eseguite
+     */
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,54 @@
+package it.unimol.exam_management_service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Registra per ogni richiesta HTTP il numero di istruzioni SQL eseguite (exam.http.sql.statements),
+ * con metodo e URI come in http.server.requests: un endpoint che esegue N+1 query si vede dalla distribuzione.
+ */
+@Component
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String METRIC = "exam.http.sql.statements";
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementCounter.stop();
+            DistributionSummary.builder(METRIC)
+                    .description("Istruzioni SQL eseguite per richiesta HTTP")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri(request))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+
+    // Il pattern dell'handler (es. /api/v1/exams/{id}), non l'URI effettivo, per limitare il numero di serie
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -1,40 +1,74 @@
 package it.unimol.exam_management_service.repository;
 
+import it.unimol.exam_management_service.dto.EnrollmentDTO;
 import it.unimol.exam_management_service.entity.ExamEnrollment;
 import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.repository.projection.EnrollmentVersion;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface EnrollmentRepository extends JpaRepository<ExamEnrollment, Long> {
 
+    // I metodi di elenco caricano esame e voto nella stessa query (EnrollmentMapper li legge per ogni riga)
+
+    @Override
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
+    Page<ExamEnrollment> findAll(Pageable pageable);
+
+    // Singola iscrizione con esame e voto, per le scritture che leggono entrambi
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
+    Optional<ExamEnrollment> findWithExamById(Long id);
+
     // Trova iscrizione per uno studente e un esame specifico
     Optional<ExamEnrollment> findByStudentIdAndExamId(Long studentId, Long examId);
 
     // Tutte le iscrizioni di uno studente
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     List<ExamEnrollment> findByStudentIdOrderByEnrollmentDateDesc(Long studentId);
 
     // Iscrizioni di uno studente con uno stato specifico
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     List<ExamEnrollment> findByStudentIdAndStatusOrderByEnrollmentDateDesc(Long studentId, EnrollmentStatus status);
 
     // Iscrizioni per un esame specifico
     List<ExamEnrollment> findByExamIdOrderByEnrollmentDateAsc(Long examId);
 
+    // Iscrizioni di un esame con il voto già caricato (evita una query per iscrizione)
+    @Query("SELECT en FROM ExamEnrollment en LEFT JOIN FETCH en.grade WHERE en.exam.id = :examId")
+    List<ExamEnrollment> findByExamIdWithGrade(@Param("examId") Long examId);
+
     // Iscrizioni per un esame con uno stato specifico
     List<ExamEnrollment> findByExamIdAndStatusOrderByEnrollmentDateAsc(Long examId, EnrollmentStatus status);
 
     // Conteggio iscrizioni per un esame
     long countByExamId(Long examId);
 
+    // Iscrizioni che occupano un posto (né ritirate né in lista d'attesa)
+    @Query("SELECT COUNT(en) FROM ExamEnrollment en WHERE en.exam.id = :examId " +
+           "AND en.status NOT IN ('WITHDREW', 'WAITLISTED')")
+    long countSeatHoldersByExamId(@Param("examId") Long examId);
+
     // Ricerca paginata per esame e stato
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     Page<ExamEnrollment> findByExamIdAndStatus(Long examId, EnrollmentStatus status, Pageable pageable);
 
     // Iscrizioni attive (non ritirate) per uno studente
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     @Query("SELECT e FROM ExamEnrollment e WHERE e.studentId = :studentId AND e.status != 'WITHDREW'")
     List<ExamEnrollment> findActiveEnrollmentsByStudent(@Param("studentId") Long studentId);
 
@@ -44,20 +78,96 @@ public interface EnrollmentRepository extends JpaRepository<ExamEnrollment, Long
     // Nuovi metodi per supportare la paginazione e filtri combinati
 
     // Trova iscrizioni per esame con paginazione
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     Page<ExamEnrollment> findByExamId(Long examId, Pageable pageable);
 
     // Trova iscrizioni per studente con paginazione
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     Page<ExamEnrollment> findByStudentId(Long studentId, Pageable pageable);
 
     // Trova iscrizioni per stato con paginazione
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     Page<ExamEnrollment> findByStatus(EnrollmentStatus status, Pageable pageable);
 
     // Trova iscrizioni per studente e stato con paginazione
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     Page<ExamEnrollment> findByStudentIdAndStatus(Long studentId, EnrollmentStatus status, Pageable pageable);
 
     // Trova iscrizioni per esame e studente
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     Page<ExamEnrollment> findByExamIdAndStudentId(Long examId, Long studentId, Pageable pageable);
 
     // Trova iscrizioni per esame, studente e stato
+    @EntityGraph(ExamEnrollment.WITH_EXAM_AND_GRADE)
     Page<ExamEnrollment> findByExamIdAndStudentIdAndStatus(Long examId, Long studentId, EnrollmentStatus status, Pageable pageable);
-}
\ No newline at end of file
+
+    // Lista d'attesa
+
+    // Primo studente in lista d'attesa (FIFO), bloccato per la promozione
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ExamEnrollment> findFirstByExamIdAndStatusOrderByEnrollmentDateAscIdAsc(Long examId, EnrollmentStatus status);
+
+    // Numero di iscrizioni di un esame in uno stato
+    long countByExamIdAndStatus(Long examId, EnrollmentStatus status);
+
+    // Studenti in lista d'attesa prima di una data iscrizione
+    @Query("SELECT COUNT(en) FROM ExamEnrollment en WHERE en.exam.id = :examId AND en.status = 'WAITLISTED' " +
+           "AND (en.enrollmentDate < :enrollmentDate OR (en.enrollmentDate = :enrollmentDate AND en.id < :enrollmentId))")
+    long countWaitlistedBefore(@Param("examId") Long examId,
+                               @Param("enrollmentDate") LocalDateTime enrollmentDate,
+                               @Param("enrollmentId") Long enrollmentId);
+
+    // Proiezioni DTO per gli elenchi in sola lettura: nessuna entità nel contesto di persistenza
+
+    String ENROLLMENT_DTO = "SELECT new it.unimol.exam_management_service.dto.EnrollmentDTO(" +
+            "en.id, ex.id, ex.name, ex.date, en.studentId, en.status, en.enrollmentDate, en.notes, g.grade) " +
+            "FROM ExamEnrollment en JOIN en.exam ex LEFT JOIN en.grade g ";
+
+    // Iscrizioni di uno studente, dalla più recente
+    @Query(ENROLLMENT_DTO + "WHERE en.studentId = :studentId AND (en.status = :status OR :status IS NULL) " +
+           "ORDER BY en.enrollmentDate DESC")
+    List<EnrollmentDTO> findDTOsByStudentId(@Param("studentId") Long studentId,
+                                            @Param("status") EnrollmentStatus status);
+
+    // Versioni per l'ETag di findDTOsByStudentId: cambia con l'iscrizione, con l'esame o con il voto
+    @Query("SELECT en.id AS enrollmentId, en.version + ex.version AS version, g.grade AS grade " +
+           "FROM ExamEnrollment en JOIN en.exam ex LEFT JOIN en.grade g " +
+           "WHERE en.studentId = :studentId AND (en.status = :status OR :status IS NULL)")
+    List<EnrollmentVersion> findVersionsByStudentId(@Param("studentId") Long studentId,
+                                                    @Param("status") EnrollmentStatus status);
+
+    // Iscrizioni di un esame; ordinamento e pagina dal Pageable, senza query di conteggio
+    @Query(ENROLLMENT_DTO + "WHERE ex.id = :examId AND (en.status = :status OR :status IS NULL)")
+    List<EnrollmentDTO> findDTOsByExamId(@Param("examId") Long examId,
+                                         @Param("status") EnrollmentStatus status,
+                                         Pageable pageable);
+
+    // Paginazione keyset su (enrollmentDate, id): la pagina parte dopo l'ultima riga già restituita
+    @Query(ENROLLMENT_DTO + "WHERE (en.enrollmentDate > :afterDate " +
+           "OR (en.enrollmentDate = :afterDate AND en.id > :afterId)) " +
+           "AND (ex.id = :examId OR :examId IS NULL) " +
+           "AND (en.studentId = :studentId OR :studentId IS NULL) " +
+           "AND (en.status = :status OR :status IS NULL) " +
+           "ORDER BY en.enrollmentDate, en.id")
+    List<EnrollmentDTO> findDTOsAfter(@Param("examId") Long examId,
+                                      @Param("studentId") Long studentId,
+                                      @Param("status") EnrollmentStatus status,
+                                      @Param("afterDate") LocalDateTime afterDate,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    // Export delle iscrizioni: righe lette a blocchi dal cursore del database (useCursorFetch su MySQL),
+    // da consumare dentro una transazione e chiudere al termine
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ENROLLMENT_DTO + "WHERE (ex.courseId = :courseId OR :courseId IS NULL) " +
+           "AND (ex.id = :examId OR :examId IS NULL) " +
+           "AND (ex.date >= :fromDate OR :fromDate IS NULL) " +
+           "AND (ex.date <= :toDate OR :toDate IS NULL) " +
+           "AND (en.status = :status OR :status IS NULL) " +
+           "ORDER BY ex.date, ex.id, en.id")
+    Stream<EnrollmentDTO> streamDTOs(@Param("courseId") Long courseId,
+                                     @Param("examId") Long examId,
+                                     @Param("fromDate") LocalDate fromDate,
+                                     @Param("toDate") LocalDate toDate,
+                                     @Param("status") EnrollmentStatus status);
+}
@@ -2,22 +2,62 @@ package it.unimol.exam_management_service.repository;
 
 import it.unimol.exam_management_service.entity.Exam;
 import it.unimol.exam_management_service.enums.ExamStatus;
+import it.unimol.exam_management_service.repository.projection.ExamEnrollmentCount;
+import it.unimol.exam_management_service.repository.projection.ExamMetadata;
+import it.unimol.exam_management_service.repository.projection.ExamVersion;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
-public interface ExamRepository extends JpaRepository<Exam, Long> {
+public interface ExamRepository extends JpaRepository<Exam, Long>, JpaSpecificationExecutor<Exam> {
+
+    // Condizioni degli esami aperte alle iscrizioni, condivise da elenco e versioni per l'ETag
+    String AVAILABLE_EXAMS = "WHERE e.status = 'SCHEDULED' AND e.enrollmentDeadline >= :today " +
+            "AND e.enrolledCount < e.maxStudents ";
+
+    String AVAILABLE_EXAMS_FOR_STUDENT = AVAILABLE_EXAMS + "AND e.date > :today " +
+            "AND NOT EXISTS (SELECT 1 FROM ExamEnrollment en WHERE en.exam = e AND en.studentId = :studentId)";
+
+    String EXAM_METADATA = "SELECT new it.unimol.exam_management_service.repository.projection.ExamMetadata(" +
+            "e.id, e.version, e.name, e.date, e.time, e.courseId, e.professorId, e.classroomId, " +
+            "e.maxStudents, e.enrollmentDeadline, e.status, e.notes) FROM Exam e ";
+
+    String EXAM_VERSION = "SELECT e.id AS examId, e.version AS version, e.enrolledCount AS enrollmentCount FROM Exam e ";
 
     // Esami futuri per un corso specifico
     List<Exam> findByCourseIdAndDateAfterOrderByDateAsc(Long courseId, LocalDate date);
 
     List<Exam> findByCourseIdOrderByDateDesc(Long courseId);
 
+    // Dati anagrafici dell'esame senza caricare l'entità (valore della cache exam-metadata)
+    @Query(EXAM_METADATA + "WHERE e.id = :examId")
+    Optional<ExamMetadata> findMetadataById(@Param("examId") Long examId);
+
+    // Dati anagrafici degli esami nella finestra di date di ExamCalendarIndex
+    @Query(EXAM_METADATA + "WHERE e.date BETWEEN :fromDate AND :toDate")
+    List<ExamMetadata> findMetadataBetween(@Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate);
+
+    // Iscritti di un esame: il contatore dei posti occupati, senza contare le iscrizioni
+    @Query("SELECT e.enrolledCount FROM Exam e WHERE e.id = :examId")
+    Optional<Integer> findEnrolledCountById(@Param("examId") Long examId);
+
+    // Iscritti degli esami nella finestra di date di ExamCalendarIndex
+    @Query("SELECT e.id AS examId, e.enrolledCount AS enrollmentCount FROM Exam e " +
+           "WHERE e.date BETWEEN :fromDate AND :toDate")
+    List<ExamEnrollmentCount> findEnrolledCountsBetween(@Param("fromDate") LocalDate fromDate,
+                                                        @Param("toDate") LocalDate toDate);
+
 
     // Esami per professore
     List<Exam> findByProfessorIdOrderByDateDesc(Long professorId);
@@ -33,18 +73,59 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
             LocalDate endDate, 
             Pageable pageable);
             
-    // Esami disponibili per le iscrizioni
-    @Query("SELECT e FROM Exam e WHERE e.status = 'SCHEDULED' AND e.enrollmentDeadline >= :today AND " +
-           "(SELECT COUNT(en) FROM ExamEnrollment en WHERE en.exam = e) < e.maxStudents")
+    // Esami disponibili per le iscrizioni: i posti liberi si leggono dal contatore enrolledCount
+    @Query("SELECT e FROM Exam e " + AVAILABLE_EXAMS)
     List<Exam> findAvailableExams(@Param("today") LocalDate today);
     
     // Esami per corso con stato specifico
     List<Exam> findByCourseIdAndStatus(Long courseId, ExamStatus status);
     
     // Trova esami futuri a cui uno studente può iscriversi
-    @Query("SELECT e FROM Exam e WHERE e.status = 'SCHEDULED' AND e.enrollmentDeadline >= :today " +
-           "AND e.date > :today " +
-           "AND (SELECT COUNT(en) FROM ExamEnrollment en WHERE en.exam = e) < e.maxStudents " +
-           "AND NOT EXISTS (SELECT 1 FROM ExamEnrollment en WHERE en.exam = e AND en.studentId = :studentId)")
+    @Query("SELECT e FROM Exam e " + AVAILABLE_EXAMS_FOR_STUDENT)
     List<Exam> findAvailableExamsForStudent(@Param("today") LocalDate today, @Param("studentId") Long studentId);
+
+    // Versioni per gli ETag: stessi filtri degli elenchi, solo id, versione e iscritti
+
+    @Query(EXAM_VERSION + AVAILABLE_EXAMS)
+    List<ExamVersion> findAvailableExamVersions(@Param("today") LocalDate today);
+
+    @Query(EXAM_VERSION + AVAILABLE_EXAMS_FOR_STUDENT)
+    List<ExamVersion> findAvailableExamVersionsForStudent(@Param("today") LocalDate today,
+                                                          @Param("studentId") Long studentId);
+
+    @Query(EXAM_VERSION + "WHERE e.date >= :startDate AND e.date <= :endDate " +
+           "AND (:courseId IS NULL OR e.courseId = :courseId) " +
+           "AND (:professorId IS NULL OR e.professorId = :professorId)")
+    List<ExamVersion> findCalendarVersions(@Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate,
+                                           @Param("courseId") Long courseId,
+                                           @Param("professorId") Long professorId);
+
+    // Prenota un posto solo se l'esame non è pieno: restituisce 0 se non ci sono posti disponibili
+    @Modifying
+    @Query("UPDATE Exam e SET e.enrolledCount = e.enrolledCount + 1 " +
+           "WHERE e.id = :examId AND e.enrolledCount < e.maxStudents")
+    int reserveSeat(@Param("examId") Long examId);
+
+    // Libera un posto prenotato
+    @Modifying
+    @Query("UPDATE Exam e SET e.enrolledCount = e.enrolledCount - 1 " +
+           "WHERE e.id = :examId AND e.enrolledCount > 0")
+    int releaseSeat(@Param("examId") Long examId);
+
+    // Riconciliazione del contatore
+
+    // Esami non ancora svolti il cui contatore non corrisponde alle iscrizioni che occupano un posto
+    @Query("SELECT e.id FROM Exam e WHERE e.date >= :today AND e.enrolledCount <> " +
+           "(SELECT COUNT(en) FROM ExamEnrollment en WHERE en.exam = e AND en.status NOT IN ('WITHDREW', 'WAITLISTED'))")
+    List<Long> findExamIdsWithSeatCountDrift(@Param("today") LocalDate today);
+
+    // Blocca la riga dell'esame: reserveSeat/releaseSeat restano in attesa fino al commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Exam e WHERE e.id = :examId")
+    Optional<Exam> findByIdForUpdate(@Param("examId") Long examId);
+
+    @Modifying
+    @Query("UPDATE Exam e SET e.enrolledCount = :enrolledCount WHERE e.id = :examId")
+    int updateEnrolledCount(@Param("examId") Long examId, @Param("enrolledCount") int enrolledCount);
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package it.unimol.exam_management_service.repository;
+
+import it.unimol.exam_management_service.entity.ExamGrade;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserimenti JDBC in batch per i voti: con chiavi IDENTITY Hibernate non può
+ * raggruppare gli INSERT, quindi la registrazione in blocco passa da qui.
+ */
+@Repository
+public class GradeJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO exam_grades (grade_value, has_honors, status, evaluation_date, professor_id, " +
+            "feedback, published_date, enrollment_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public GradeJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void insertAll(List<ExamGrade> grades) {
+        if (grades.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, grades, grades.size(), (ps, grade) -> {
+            ps.setObject(1, grade.getGrade(), Types.INTEGER);
+            ps.setObject(2, grade.getHonors(), Types.BOOLEAN);
+            ps.setString(3, grade.getStatus().name());
+            ps.setTimestamp(4, Timestamp.valueOf(grade.getEvaluationDate()));
+            ps.setLong(5, grade.getProfessorId());
+            ps.setString(6, grade.getFeedback());
+            ps.setTimestamp(7, grade.getPublishedDate() != null ? Timestamp.valueOf(grade.getPublishedDate()) : null);
+            ps.setLong(8, grade.getEnrollment().getId());
+        });
+    }
+
+    // ID dei voti appena inseriti, per iscrizione (vincolo univoco uk_grades_enrollment)
+    public Map<Long, Long> findIdsByEnrollmentIds(Collection<Long> enrollmentIds) {
+        Map<Long, Long> ids = new HashMap<>();
+        if (enrollmentIds.isEmpty()) {
+            return ids;
+        }
+
+        namedParameterJdbcTemplate.query(
+                "SELECT id, enrollment_id FROM exam_grades WHERE enrollment_id IN (:enrollmentIds)",
+                new MapSqlParameterSource("enrollmentIds", enrollmentIds),
+                rs -> {
+                    ids.put(rs.getLong("enrollment_id"), rs.getLong("id"));
+                });
+        return ids;
+    }
+}
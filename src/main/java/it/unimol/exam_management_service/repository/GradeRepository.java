@@ -1,41 +1,48 @@
 package it.unimol.exam_management_service.repository;
 
+import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.dto.PublishedGradeDTO;
 import it.unimol.exam_management_service.entity.ExamGrade;
 import it.unimol.exam_management_service.enums.GradeStatus;
-import org.springframework.data.domain.Page;
+import it.unimol.exam_management_service.repository.projection.ExamGradeDistributionRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface GradeRepository extends JpaRepository<ExamGrade, Long> {
 
+    // I metodi di elenco caricano iscrizione ed esame nella stessa query (GradeMapper li legge per ogni riga)
+
     // Trova voto per un'iscrizione specifica
     Optional<ExamGrade> findByEnrollmentId(Long enrollmentId);
     
     // Voti per esame
+    @EntityGraph(ExamGrade.WITH_ENROLLMENT_AND_EXAM)
     @Query("SELECT g FROM ExamGrade g JOIN g.enrollment e WHERE e.exam.id = :examId")
     List<ExamGrade> findByExamId(@Param("examId") Long examId);
     
-    // Voti per studente
-    @Query("SELECT g FROM ExamGrade g JOIN g.enrollment e WHERE e.studentId = :studentId")
-    List<ExamGrade> findByStudentId(@Param("studentId") Long studentId);
-    
     // Voti per corso
+    @EntityGraph(ExamGrade.WITH_ENROLLMENT_AND_EXAM)
     @Query("SELECT g FROM ExamGrade g JOIN g.enrollment e JOIN e.exam ex WHERE ex.courseId = :courseId")
     List<ExamGrade> findByCourseId(@Param("courseId") Long courseId);
     
-    // Voti per studente e corso
-    @Query("SELECT g FROM ExamGrade g JOIN g.enrollment e JOIN e.exam ex " +
-           "WHERE e.studentId = :studentId AND ex.courseId = :courseId")
-    List<ExamGrade> findByStudentIdAndCourseId(
-            @Param("studentId") Long studentId, 
-            @Param("courseId") Long courseId);
-    
     // Voti pubblicati per studente
+    @EntityGraph(ExamGrade.WITH_ENROLLMENT_AND_EXAM)
     @Query("SELECT g FROM ExamGrade g JOIN g.enrollment e " +
            "WHERE e.studentId = :studentId AND g.status = 'PUBLISHED'")
     List<ExamGrade> findPublishedGradesByStudentId(@Param("studentId") Long studentId);
@@ -45,19 +52,86 @@ public interface GradeRepository extends JpaRepository<ExamGrade, Long> {
            "COUNT(g) as totalGrades, SUM(CASE WHEN g.grade >= 18 THEN 1 ELSE 0 END) as passedCount " +
            "FROM ExamGrade g JOIN g.enrollment e WHERE e.exam.id = :examId AND g.grade IS NOT NULL")
     Object[] getExamStatistics(@Param("examId") Long examId);
+
+    // Distribuzione completa per esame, usata per ricostruire le statistiche materializzate
+    @Query("SELECT ex.id AS examId, ex.courseId AS courseId, g.grade AS grade, g.honors AS honors, " +
+           "g.status AS status, COUNT(g) AS gradeCount " +
+           "FROM ExamGrade g JOIN g.enrollment e JOIN e.exam ex " +
+           "GROUP BY ex.id, ex.courseId, g.grade, g.honors, g.status")
+    List<ExamGradeDistributionRow> getGradeDistributionByExam();
     
-    // Voti filtrati per valore
-    @Query("SELECT g FROM ExamGrade g JOIN g.enrollment e WHERE e.exam.id = :examId " +
+    // Conta voti per status
+    long countByStatus(GradeStatus status);
+
+    // Voti valutati di un esame da pubblicare in blocco; il lock impedisce che cambino prima dell'UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g.id FROM ExamGrade g JOIN g.enrollment e WHERE e.exam.id = :examId AND g.status = 'EVALUATED'")
+    List<Long> findEvaluatedIdsForUpdate(@Param("examId") Long examId);
+
+    // Pubblicazione in blocco: i voti indicati passano a PUBLISHED con un solo UPDATE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ExamGrade g SET g.status = 'PUBLISHED', g.publishedDate = :publishedDate " +
+           "WHERE g.status = 'EVALUATED' AND g.id IN :gradeIds")
+    int publishEvaluatedGrades(@Param("gradeIds") Collection<Long> gradeIds,
+                               @Param("publishedDate") LocalDateTime publishedDate);
+
+    // Voti pubblicati da publishEvaluatedGrades, letti per id
+    @Query("SELECT new it.unimol.exam_management_service.dto.PublishedGradeDTO(g.id, e.id, e.studentId, g.grade, g.honors) " +
+           "FROM ExamGrade g JOIN g.enrollment e WHERE g.id IN :gradeIds ORDER BY e.studentId")
+    List<PublishedGradeDTO> findPublishedBatch(@Param("gradeIds") Collection<Long> gradeIds);
+
+    @Query("SELECT g FROM ExamGrade g JOIN FETCH g.enrollment e JOIN FETCH e.exam WHERE g.id IN :gradeIds")
+    List<ExamGrade> findPublishedBatchWithEnrollment(@Param("gradeIds") Collection<Long> gradeIds);
+
+    // Proiezioni DTO per gli elenchi in sola lettura: nessuna entità nel contesto di persistenza
+
+    String GRADE_DTO = "SELECT new it.unimol.exam_management_service.dto.GradeDTO(" +
+            "g.id, e.id, ex.id, ex.name, e.studentId, g.grade, g.honors, g.status, g.evaluationDate, " +
+            "g.professorId, g.feedback, g.publishedDate) " +
+            "FROM ExamGrade g JOIN g.enrollment e JOIN e.exam ex ";
+
+    // Voti di un esame filtrati per valore; ordinamento e pagina dal Pageable, senza query di conteggio
+    @Query(GRADE_DTO + "WHERE ex.id = :examId " +
            "AND (g.grade >= :minGrade OR :minGrade IS NULL) " +
            "AND (g.grade <= :maxGrade OR :maxGrade IS NULL) " +
            "AND (g.honors = :withHonors OR :withHonors IS NULL)")
-    Page<ExamGrade> findGradesWithFilters(
+    List<GradeDTO> findDTOsWithFilters(
             @Param("examId") Long examId,
             @Param("minGrade") Integer minGrade,
             @Param("maxGrade") Integer maxGrade,
             @Param("withHonors") Boolean withHonors,
             Pageable pageable);
-            
-    // Conta voti per status
-    long countByStatus(GradeStatus status);
-}
\ No newline at end of file
+
+    // Voti di uno studente, eventualmente limitati a un corso
+    @Query(GRADE_DTO + "WHERE e.studentId = :studentId AND (ex.courseId = :courseId OR :courseId IS NULL)")
+    List<GradeDTO> findDTOsByStudentId(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+
+    // Paginazione keyset sull'id del voto: la pagina parte dopo l'ultima riga già restituita
+    @Query(GRADE_DTO + "WHERE ex.id = :examId AND g.id > :afterId " +
+           "AND (g.grade >= :minGrade OR :minGrade IS NULL) " +
+           "AND (g.grade <= :maxGrade OR :maxGrade IS NULL) " +
+           "AND (g.honors = :withHonors OR :withHonors IS NULL) " +
+           "ORDER BY g.id")
+    List<GradeDTO> findDTOsAfter(
+            @Param("examId") Long examId,
+            @Param("minGrade") Integer minGrade,
+            @Param("maxGrade") Integer maxGrade,
+            @Param("withHonors") Boolean withHonors,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Export dei voti: righe lette a blocchi dal cursore del database (useCursorFetch su MySQL),
+    // da consumare dentro una transazione e chiudere al termine
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(GRADE_DTO + "WHERE (ex.courseId = :courseId OR :courseId IS NULL) " +
+           "AND (ex.id = :examId OR :examId IS NULL) " +
+           "AND (ex.date >= :fromDate OR :fromDate IS NULL) " +
+           "AND (ex.date <= :toDate OR :toDate IS NULL) " +
+           "AND (g.status = :status OR :status IS NULL) " +
+           "ORDER BY ex.date, ex.id, e.studentId")
+    Stream<GradeDTO> streamDTOs(@Param("courseId") Long courseId,
+                                @Param("examId") Long examId,
+                                @Param("fromDate") LocalDate fromDate,
+                                @Param("toDate") LocalDate toDate,
+                                @Param("status") GradeStatus status);
+}
@@ -0,0 +1,34 @@
+package it.unimol.exam_management_service.repository;
+
+import it.unimol.exam_management_service.entity.GradeStatistics;
+import it.unimol.exam_management_service.enums.StatisticsScope;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface GradeStatisticsRepository extends JpaRepository<GradeStatistics, Long> {
+
+    Optional<GradeStatistics> findByScopeAndScopeId(StatisticsScope scope, Long scopeId);
+
+    boolean existsByScopeAndScopeId(StatisticsScope scope, Long scopeId);
+
+    // Crea la riga vuota di un ambito; se un'altra transazione l'ha appena creata l'inserimento non ha effetto
+    // (uk_grade_statistics_scope) invece di fallire
+    @Modifying
+    @Query("INSERT INTO GradeStatistics (scope, scopeId, totalGrades, gradeCount, gradeSum, gradeSumSquares, " +
+           "passedCount, honorsCount, publishedCount, histogram, updatedAt) " +
+           "VALUES (:scope, :scopeId, 0, 0, 0, 0, 0, 0, 0, :histogram, :updatedAt) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(@Param("scope") StatisticsScope scope, @Param("scopeId") Long scopeId,
+                       @Param("histogram") long[] histogram, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Blocca la riga durante l'aggiornamento incrementale, così modifiche concorrenti non si sovrascrivono
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM GradeStatistics s WHERE s.scope = :scope AND s.scopeId = :scopeId")
+    Optional<GradeStatistics> findForUpdate(@Param("scope") StatisticsScope scope, @Param("scopeId") Long scopeId);
+}
@@ -0,0 +1,55 @@
+package it.unimol.exam_management_service.repository;
+
+import it.unimol.exam_management_service.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Prossimo lotto da inoltrare; SKIP LOCKED (timeout -2) permette a più istanze di lavorare su lotti diversi
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxEvent o WHERE o.publishedAt IS NULL AND o.failedAt IS NULL ORDER BY o.id")
+    List<OutboxEvent> findPendingForUpdate(Pageable pageable);
+
+    // Singolo evento di un lotto fallito, ritentato da solo; vuoto se un'altra istanza lo sta già inoltrando
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxEvent o WHERE o.id = :id AND o.publishedAt IS NULL AND o.failedAt IS NULL")
+    Optional<OutboxEvent> findPendingByIdForUpdate(@Param("id") Long id);
+
+    long countByPublishedAtIsNull();
+
+    // Registra un tentativo di consegna fallito
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.attempts = o.attempts + 1, o.lastError = :error WHERE o.id IN :ids")
+    int recordFailure(@Param("ids") Collection<Long> ids, @Param("error") String error);
+
+    // Registra un rifiuto dell'evento da parte di un broker che accetta gli altri eventi
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.rejections = o.rejections + 1 WHERE o.id IN :ids")
+    int recordRejection(@Param("ids") Collection<Long> ids);
+
+    // Esclude dal relay gli eventi che hanno esaurito i rifiuti ammessi
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.failedAt = :failedAt WHERE o.id IN :ids AND o.rejections >= :maxRejections")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("maxRejections") int maxRejections,
+                   @Param("failedAt") LocalDateTime failedAt);
+
+    // Pulizia degli eventi già consegnati
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,14 @@
+package it.unimol.exam_management_service.repository.projection;
+
+/**
+ * Proiezione della versione di un'iscrizione (iscrizione + esame) con il voto mostrato nella risposta,
+ * usata per calcolare l'ETag di un elenco senza caricare le entità
+ */
+public interface EnrollmentVersion {
+
+    Long getEnrollmentId();
+
+    Long getVersion();
+
+    Integer getGrade();
+}
@@ -0,0 +1,11 @@
+package it.unimol.exam_management_service.repository.projection;
+
+/**
+ * Proiezione del numero di iscritti (contatore enrolledCount) di un esame
+ */
+public interface ExamEnrollmentCount {
+
+    Long getExamId();
+
+    long getEnrollmentCount();
+}
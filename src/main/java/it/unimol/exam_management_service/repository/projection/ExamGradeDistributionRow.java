@@ -0,0 +1,21 @@
+package it.unimol.exam_management_service.repository.projection;
+
+import it.unimol.exam_management_service.enums.GradeStatus;
+
+/**
+ * Proiezione del numero di voti raggruppati per esame, valore, lode e stato
+ */
+public interface ExamGradeDistributionRow {
+
+    Long getExamId();
+
+    Long getCourseId();
+
+    Integer getGrade();
+
+    Boolean getHonors();
+
+    GradeStatus getStatus();
+
+    long getGradeCount();
+}
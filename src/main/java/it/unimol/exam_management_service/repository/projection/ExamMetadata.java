@@ -0,0 +1,30 @@
+package it.unimol.exam_management_service.repository.projection;
+
+import it.unimol.exam_management_service.enums.ExamStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Dati anagrafici di un esame, immutabili e quindi condivisibili dalla cache tra richieste diverse.
+ * Non contiene i posti occupati: la capienza si verifica sempre sul database.
+ */
+public record ExamMetadata(Long id,
+                           Long version,
+                           String name,
+                           LocalDate date,
+                           LocalTime time,
+                           Long courseId,
+                           Long professorId,
+                           Long classroomId,
+                           Integer maxStudents,
+                           LocalDate enrollmentDeadline,
+                           ExamStatus status,
+                           String notes) {
+
+    public boolean isEnrollmentOpen(long currentEnrollmentCount) {
+        return LocalDate.now().isBefore(enrollmentDeadline) &&
+                status == ExamStatus.SCHEDULED &&
+                currentEnrollmentCount < maxStudents;
+    }
+}
@@ -0,0 +1,14 @@
+package it.unimol.exam_management_service.repository.projection;
+
+/**
+ * Proiezione della versione di un esame con il numero di iscrizioni mostrato nella risposta,
+ * usata per calcolare l'ETag di un elenco senza caricare le entità
+ */
+public interface ExamVersion {
+
+    Long getExamId();
+
+    Long getVersion();
+
+    long getEnrollmentCount();
+}
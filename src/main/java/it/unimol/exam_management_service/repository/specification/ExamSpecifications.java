@@ -0,0 +1,47 @@
+package it.unimol.exam_management_service.repository.specification;
+
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.enums.ExamStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Predicati componibili per la ricerca degli esami.
+ * Ogni predicato con parametro null viene ignorato, così i filtri
+ * opzionali vengono applicati direttamente dal database.
+ */
+public final class ExamSpecifications {
+
+    private ExamSpecifications() {
+    }
+
+    public static Specification<Exam> withFilters(Long courseId, Long professorId, ExamStatus status,
+                                                  LocalDate startDate, LocalDate endDate) {
+        return Specification.where(hasCourse(courseId))
+                .and(hasProfessor(professorId))
+                .and(hasStatus(status))
+                .and(dateFrom(startDate))
+                .and(dateTo(endDate));
+    }
+
+    public static Specification<Exam> hasCourse(Long courseId) {
+        return (root, query, cb) -> courseId == null ? null : cb.equal(root.get("courseId"), courseId);
+    }
+
+    public static Specification<Exam> hasProfessor(Long professorId) {
+        return (root, query, cb) -> professorId == null ? null : cb.equal(root.get("professorId"), professorId);
+    }
+
+    public static Specification<Exam> hasStatus(ExamStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Exam> dateFrom(LocalDate startDate) {
+        return (root, query, cb) -> startDate == null ? null : cb.greaterThanOrEqualTo(root.get("date"), startDate);
+    }
+
+    public static Specification<Exam> dateTo(LocalDate endDate) {
+        return (root, query, cb) -> endDate == null ? null : cb.lessThanOrEqualTo(root.get("date"), endDate);
+    }
+}
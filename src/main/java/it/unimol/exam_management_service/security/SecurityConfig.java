@@ -1,6 +1,9 @@
 package it.unimol.exam_management_service.security;
 
 import it.unimol.exam_management_service.security.jwt.JwtAuthFilter;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -43,13 +46,20 @@ public class SecurityConfig {
                 // Configurazione delle autorizzazioni
                 .authorizeHttpRequests(authorize -> authorize
                         // Endpoint pubblici (non richiedono autenticazione)
-                        .requestMatchers("/api-docs/**", "/swagger-ui/**", "/actuator/**").permitAll()
+                        .requestMatchers("/api-docs/**", "/swagger-ui/**").permitAll()
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class)).permitAll()
                         .requestMatchers("/api/v1/exams/calendar").permitAll()
 
-                        // Consenti accesso a chi ha ruolo ADMINISTRATIVE o ADMIN (convertito da "admin")
-                        .requestMatchers("/api/v1/exams/**").hasAnyAuthority("ROLE_ADMINISTRATIVE", "ROLE_ADMIN")
-                        .requestMatchers("/api/v1/enrollments/**").hasAnyAuthority("ROLE_ADMINISTRATIVE", "ROLE_ADMIN")
-                        .requestMatchers("/api/v1/grades/**").hasAnyAuthority("ROLE_ADMINISTRATIVE", "ROLE_ADMIN")
+                        // Gli altri endpoint di Actuator (metriche, svuotamento delle cache): solo amministrativi
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+
+                        // Export dei registri: solo amministrativi
+                        .requestMatchers("/api/v1/exports/**").hasRole("ADMIN")
+
+                        // Esami, iscrizioni e voti: aperti ai tre ruoli, il ruolo richiesto da ogni endpoint
+                        // è verificato da @PreAuthorize sui controller
+                        .requestMatchers("/api/v1/exams/**", "/api/v1/enrollments/**", "/api/v1/grades/**")
+                        .hasAnyRole("STUDENTE", "DOCENTE", "ADMIN")
 
                         // Il resto richiede solo autenticazione, senza ruoli specifici
                         .anyRequest().authenticated()
@@ -36,7 +36,7 @@ public class SecurityUtils {
      * Verifica se l'utente corrente è un amministratore
      */
     public boolean isAdmin() {
-        return hasRole("ADMIN") || hasRole("SUPER_ADMIN");
+        return hasRole("ADMIN");
     }
 
     /**
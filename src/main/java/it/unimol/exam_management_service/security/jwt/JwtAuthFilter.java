@@ -1,11 +1,18 @@
 package it.unimol.exam_management_service.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,35 +22,65 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Date;
-
+import java.util.Locale;
+
+/**
+ * Autentica le richieste con il token JWT (RS256) dell'header Authorization.
+ * Il parser è unico e condiviso tra le richieste (è thread-safe) e ogni token viene verificato una sola volta:
+ * i token validi restano in una cache limitata fino alla loro scadenza, così le richieste successive
+ * dello stesso client non ripetono la verifica della firma RSA.
+ */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final PublicKey publicKey;
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtAuthFilter(PublicKey jwtPublicKey,
+                         @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+                         @Value("${jwt.verified-cache.max-ttl:PT10M}") Duration maxTtl) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(jwtPublicKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+    }
 
-    public JwtAuthFilter(PublicKey jwtPublicKey) {
-        this.publicKey = jwtPublicKey;
+    /**
+     * Utente autenticato da un token già verificato, valido fino a expiresAt
+     */
+    record VerifiedToken(User principal, String userId, Instant expiresAt) {
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        /*try {
-            String token = extractToken(request);
-            if (token != null && validateToken(token)) {
-                Claims claims = extractClaims(token);
-                setupAuthentication(claims);
+        String token = extractToken(request);
+        if (token != null) {
+            try {
+                VerifiedToken verified = verifiedTokens.get(token, this::verify);
+                setupAuthentication(verified);
+            } catch (JwtException | IllegalArgumentException e) {
+                // Token scaduto, con firma non valida o senza ruolo: la richiesta prosegue senza autenticazione
+                logger.debug("Impossibile autenticare l'utente: " + e.getMessage());
             }
-        } catch (Exception e) {
-            logger.error("Impossibile autenticare l'utente", e);
         }
-*/
+
         filterChain.doFilter(request, response);
     }
 
+    CacheStats verifiedTokenStats() {
+        return verifiedTokens.stats();
+    }
+
     private String extractToken(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
@@ -52,58 +89,76 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         return null;
     }
 
-    // Nel metodo validateToken di JwtAuthFilter
-    private boolean validateToken(String token) {
-        try {
-            Claims claims = extractClaims(token);
-            Date expiration = claims.getExpiration();
-
-            // Verifica che il token non sia scaduto
-            if (!expiration.after(new Date())) {
-                return false;
-            }
-
-            // Opzionale: verifica che il token sia stato emesso per questo servizio
-            /*String audience = claims.getAudience();
-            if (audience == null || !audience.contains("exam-service")) {
-                return false;
-            }
-*/
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(publicKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
+    // Verifica firma e scadenza (controllata dal parser) e ricava l'utente dai claims
+    private VerifiedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
 
-    private void setupAuthentication(Claims claims) {
-        String userId = claims.getSubject();
-        String username = claims.get("username", String.class);
         String role = claims.get("role", String.class);
-
-        if ("admin".equals(role)) {
-            role = "ADMINISTRATIVE";
+        if (role == null) {
+            throw new IllegalArgumentException("Ruolo mancante nel token");
         }
         // Trasforma il ruolo in formato ROLE_XXX (richiesto da Spring Security)
-        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role.toUpperCase());
+        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + normalizeRole(role));
 
         // Crea l'oggetto principal (rappresenta l'utente autenticato)
-        User principal = new User(username, "", Collections.singletonList(authority));
+        User principal = new User(claims.get("username", String.class), "", Collections.singletonList(authority));
+
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(principal, claims.getSubject(), expiration != null ? expiration.toInstant() : null);
+    }
 
+    // Un solo ruolo amministrativo (ROLE_ADMIN), lo stesso atteso da SecurityConfig, @PreAuthorize e SecurityUtils
+    private static String normalizeRole(String role) {
+        String normalized = role.toUpperCase(Locale.ROOT);
+        return switch (normalized) {
+            case "ADMINISTRATIVE", "SUPER_ADMIN" -> "ADMIN";
+            default -> normalized;
+        };
+    }
+
+    private void setupAuthentication(VerifiedToken verified) {
         // Crea l'oggetto Authentication e lo inserisce nel SecurityContext
         UsernamePasswordAuthenticationToken authentication =
-                new UsernamePasswordAuthenticationToken(principal, null, Collections.singletonList(authority));
+                new UsernamePasswordAuthenticationToken(verified.principal(), null, verified.principal().getAuthorities());
 
         // Memorizza l'ID utente come dettaglio aggiuntivo
-        authentication.setDetails(userId);
+        authentication.setDetails(verified.userId());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
     }
-}
\ No newline at end of file
+
+    /**
+     * Ogni token resta in cache fino alla propria scadenza, al massimo per maxTtl
+     * (anche i token senza scadenza vengono quindi riverificati periodicamente)
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final Duration maxTtl;
+
+        UntilTokenExpiry(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            if (verified.expiresAt() == null) {
+                return maxTtl.toNanos();
+            }
+            Duration untilExpiry = Duration.between(Instant.now(), verified.expiresAt());
+            if (untilExpiry.compareTo(maxTtl) > 0) {
+                return maxTtl.toNanos();
+            }
+            return Math.max(0, untilExpiry.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.config.CacheConfig;
+import it.unimol.exam_management_service.messaging.CacheInvalidationTransport;
+import it.unimol.exam_management_service.messaging.ExamCacheInvalidation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Propaga le modifiche agli esami alle altre istanze del servizio: dopo il commit invia
+ * un'invalidazione e, alla ricezione di quelle altrui, rimuove la chiave dalle cache locali.
+ * La cache dell'istanza che ha eseguito la modifica è già invalidata da ExamMetadataService,
+ * le altre istanze aggiornano anche il proprio calendario in memoria (ExamCalendarIndex).
+ */
+@Component
+public class ClusterCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheInvalidator.class);
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final CacheInvalidationTransport transport;
+    private final CacheManager cacheManager;
+    private final ExamCalendarIndex examCalendarIndex;
+
+    public ClusterCacheInvalidator(CacheInvalidationTransport transport, CacheManager cacheManager,
+                                   ExamCalendarIndex examCalendarIndex) {
+        this.transport = transport;
+        this.cacheManager = cacheManager;
+        this.examCalendarIndex = examCalendarIndex;
+        transport.subscribe(this::onInvalidation);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        transport.broadcast(new ExamCacheInvalidation(instanceId, event.examId()));
+    }
+
+    void onInvalidation(ExamCacheInvalidation invalidation) {
+        if (instanceId.equals(invalidation.origin())) {
+            return;
+        }
+
+        for (String cacheName : CacheConfig.EXAM_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(invalidation.examId());
+            }
+        }
+        examCalendarIndex.refresh(invalidation.examId());
+        logger.debug("Cache dell'esame ID: {} invalidata da un'altra istanza", invalidation.examId());
+    }
+}
@@ -1,19 +1,32 @@
 package it.unimol.exam_management_service.service;
 
+import io.micrometer.core.annotation.Timed;
+import it.unimol.exam_management_service.config.MetricsConfig;
+import it.unimol.exam_management_service.datasource.ReadYourWrites;
+import it.unimol.exam_management_service.dto.CursorPageDTO;
 import it.unimol.exam_management_service.dto.EnrollmentDTO;
+import it.unimol.exam_management_service.dto.WaitlistPositionDTO;
 import it.unimol.exam_management_service.dto.request.EnrollmentRequest;
-import it.unimol.exam_management_service.entity.Exam;
 import it.unimol.exam_management_service.entity.ExamEnrollment;
 import it.unimol.exam_management_service.entity.ExamGrade;
 import it.unimol.exam_management_service.enums.EnrollmentStatus;
 import it.unimol.exam_management_service.exception.ResourceNotFoundException;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.metrics.EnrollmentRejections;
+import it.unimol.exam_management_service.util.ETags;
 import it.unimol.exam_management_service.util.EnrollmentMapper;
+import it.unimol.exam_management_service.util.PageCursor;
 import it.unimol.exam_management_service.repository.EnrollmentRepository;
 import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.repository.projection.EnrollmentVersion;
+import it.unimol.exam_management_service.repository.projection.ExamMetadata;
 import it.unimol.exam_management_service.security.SecurityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
@@ -21,27 +34,46 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class EnrollmentService {
     private final Logger logger = LoggerFactory.getLogger(EnrollmentService.class);
 
+    // Vincolo univoco (student_id, exam_id) di exam_enrollments (V2)
+    private static final String DUPLICATE_ENROLLMENT_CONSTRAINT = "uk_enrollments_student_exam";
+
     private final EnrollmentRepository enrollmentRepository;
     private final ExamRepository examRepository;
     private final EnrollmentMapper enrollmentMapper;
     private final SecurityUtils securityUtils;
+    private final EventPublisher eventPublisher;
+    private final ExamMetadataService examMetadataService;
+    private final ReadYourWrites readYourWrites;
+    private final EnrollmentRejections enrollmentRejections;
 
     @Autowired
     public EnrollmentService(EnrollmentRepository enrollmentRepository,
                              ExamRepository examRepository,
                              EnrollmentMapper enrollmentMapper,
-                             SecurityUtils securityUtils) {
+                             SecurityUtils securityUtils,
+                             EventPublisher eventPublisher,
+                             ExamMetadataService examMetadataService,
+                             ReadYourWrites readYourWrites,
+                             EnrollmentRejections enrollmentRejections) {
         this.enrollmentRepository = enrollmentRepository;
         this.examRepository = examRepository;
         this.enrollmentMapper = enrollmentMapper;
         this.securityUtils = securityUtils;
+        this.eventPublisher = eventPublisher;
+        this.examMetadataService = examMetadataService;
+        this.readYourWrites = readYourWrites;
+        this.enrollmentRejections = enrollmentRejections;
     }
 
     @Transactional
@@ -51,39 +83,38 @@ public class EnrollmentService {
         // Verifica che lo studente sia quello corretto o un admin
         if (!securityUtils.isStudentOrAdmin(studentId)) {
             logger.warn("Tentativo non autorizzato di iscrizione per studente ID: {}", studentId);
+            enrollmentRejections.record(EnrollmentRejections.Reason.UNAUTHORIZED);
             throw new AccessDeniedException("Non sei autorizzato ad iscrivere questo studente");
         }
 
-        // Verifica che l'esame esista
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> {
-                    logger.error("Esame non trovato con ID: {}", examId);
-                    return new ResourceNotFoundException("Esame non trovato con ID: " + examId);
-                });
+        // Verifica che l'esame esista (dati anagrafici in cache, la capienza è verificata da reserveSeat)
+        ExamMetadata exam = getExamMetadata(examId);
 
         // Verifica che l'esame sia ancora aperto per le iscrizioni
-        if (LocalDateTime.now().isAfter(exam.getDate().minusDays(1).atStartOfDay())) {
+        if (LocalDateTime.now().isAfter(exam.date().minusDays(1).atStartOfDay())) {
             logger.error("Iscrizione non possibile, esame ID: {} è troppo vicino", examId);
+            enrollmentRejections.record(EnrollmentRejections.Reason.DEADLINE);
             throw new IllegalStateException("L'iscrizione non è più possibile. Il termine per iscriversi è scaduto.");
         }
 
         // Verifica che lo studente non sia già iscritto
         if (enrollmentRepository.existsByStudentIdAndExamId(studentId, examId)) {
             logger.error("Studente ID: {} già iscritto all'esame ID: {}", studentId, examId);
+            enrollmentRejections.record(EnrollmentRejections.Reason.DUPLICATE);
             throw new IllegalStateException("Sei già iscritto a questo esame");
         }
 
         // Crea la nuova iscrizione
         ExamEnrollment enrollment = new ExamEnrollment();
         enrollment.setStudentId(studentId);
-        enrollment.setExam(exam);
+        enrollment.setExam(examRepository.getReferenceById(examId));
         enrollment.setEnrollmentDate(LocalDateTime.now());
-        enrollment.setStatus(EnrollmentStatus.ENROLLED);
 
-        // Salva e restituisci
-        ExamEnrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        // Prenota il posto e salva
+        ExamEnrollment savedEnrollment = reserveSeatAndSave(enrollment);
+        readYourWrites.recordWrite(studentId);
         logger.info("Iscrizione creata con successo per studente ID: {} all'esame ID: {}", studentId, examId);
-        return enrollmentMapper.toDTO(savedEnrollment);
+        return enrollmentMapper.toDTO(savedEnrollment, exam);
     }
 
     /**
@@ -96,40 +127,40 @@ public class EnrollmentService {
         // Verifica che lo studente sia quello corretto o un admin
         if (!securityUtils.isStudentOrAdmin(request.getStudentId())) {
             logger.warn("Tentativo non autorizzato di iscrizione per studente ID: {}", request.getStudentId());
+            enrollmentRejections.record(EnrollmentRejections.Reason.UNAUTHORIZED);
             throw new AccessDeniedException("Non sei autorizzato ad iscrivere questo studente");
         }
 
-        // Verifica che l'esame esista
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> {
-                    logger.error("Esame non trovato con ID: {}", examId);
-                    return new ResourceNotFoundException("Esame non trovato con ID: " + examId);
-                });
+        // Verifica che l'esame esista (dati anagrafici in cache, la capienza è verificata da reserveSeat)
+        ExamMetadata exam = getExamMetadata(examId);
 
         // Verifica che l'esame sia ancora aperto per le iscrizioni
-        if (LocalDateTime.now().isAfter(exam.getEnrollmentDeadline().atStartOfDay())) {
+        if (LocalDateTime.now().isAfter(exam.enrollmentDeadline().atStartOfDay())) {
             logger.error("Iscrizione non possibile, termine iscrizioni per esame ID: {} è scaduto", examId);
+            enrollmentRejections.record(EnrollmentRejections.Reason.DEADLINE);
             throw new IllegalStateException("L'iscrizione non è più possibile. Il termine per iscriversi è scaduto.");
         }
 
         // Verifica che lo studente non sia già iscritto
         if (enrollmentRepository.existsByStudentIdAndExamId(request.getStudentId(), examId)) {
             logger.error("Studente ID: {} già iscritto all'esame ID: {}", request.getStudentId(), examId);
+            enrollmentRejections.record(EnrollmentRejections.Reason.DUPLICATE);
             throw new IllegalStateException("Sei già iscritto a questo esame");
         }
 
         // Crea la nuova iscrizione
         ExamEnrollment enrollment = new ExamEnrollment();
         enrollment.setStudentId(request.getStudentId());
-        enrollment.setExam(exam);
+        enrollment.setExam(examRepository.getReferenceById(examId));
         enrollment.setEnrollmentDate(LocalDateTime.now());
-        enrollment.setStatus(EnrollmentStatus.ENROLLED);
         enrollment.setNotes(request.getNotes());
 
-        // Salva e restituisci
-        ExamEnrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        // Prenota il posto e salva
+        ExamEnrollment savedEnrollment = reserveSeatAndSave(enrollment);
+        // Le letture successive dello studente vanno al primario, che contiene già la nuova iscrizione
+        readYourWrites.recordWrite(request.getStudentId());
         logger.info("Iscrizione creata con successo per studente ID: {} all'esame ID: {}", request.getStudentId(), examId);
-        return enrollmentMapper.toDTO(savedEnrollment);
+        return enrollmentMapper.toDTO(savedEnrollment, exam);
     }
 
     @Transactional(readOnly = true)
@@ -170,6 +201,24 @@ public class EnrollmentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Scorre tutte le iscrizioni in ordine di data con un cursore, senza offset né conteggio totale
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<EnrollmentDTO> scrollAllEnrollments(Long examId, Long studentId, EnrollmentStatus status,
+                                                            String cursor, int size) {
+        logger.debug("Scorrimento iscrizioni con filtri - esame: {}, studente: {}, stato: {}",
+                examId, studentId, status);
+
+        // Verifica che l'utente sia un admin
+        if (!securityUtils.isAdmin()) {
+            logger.warn("Tentativo non autorizzato di accesso a tutte le iscrizioni");
+            throw new AccessDeniedException("Solo gli amministratori possono visualizzare tutte le iscrizioni");
+        }
+
+        return scrollEnrollments(examId, studentId, status, cursor, size);
+    }
+
     @Transactional(readOnly = true)
     public EnrollmentDTO getEnrollmentById(Long enrollmentId) {
         logger.debug("Recupero iscrizione con ID: {}", enrollmentId);
@@ -202,19 +251,25 @@ public class EnrollmentService {
             throw new AccessDeniedException("Non sei autorizzato a visualizzare le iscrizioni di questo studente");
         }
 
-        List<ExamEnrollment> enrollments;
+        // Filtro per stato opzionale, proiezione diretta sulle colonne del DTO
+        return enrollmentRepository.findDTOsByStudentId(studentId, status);
+    }
 
-        if (status != null) {
-            // Filtra per stato
-            enrollments = enrollmentRepository.findByStudentIdAndStatusOrderByEnrollmentDateDesc(studentId, status);
-        } else {
-            // Prendi tutte le iscrizioni dello studente
-            enrollments = enrollmentRepository.findByStudentIdOrderByEnrollmentDateDesc(studentId);
+    /**
+     * ETag di getMyEnrollments, con gli stessi controlli di accesso
+     */
+    @Transactional(readOnly = true)
+    public String getMyEnrollmentsETag(Long studentId, EnrollmentStatus status) {
+        if (!securityUtils.isStudentOrAdmin(studentId)) {
+            logger.warn("Tentativo non autorizzato di accesso alle iscrizioni dello studente ID: {}", studentId);
+            throw new AccessDeniedException("Non sei autorizzato a visualizzare le iscrizioni di questo studente");
         }
 
-        return enrollments.stream()
-                .map(enrollmentMapper::toDTO)
-                .collect(Collectors.toList());
+        String versions = enrollmentRepository.findVersionsByStudentId(studentId, status).stream()
+                .sorted(Comparator.comparing(EnrollmentVersion::getEnrollmentId))
+                .map(v -> v.getEnrollmentId() + ":" + v.getVersion() + ":" + v.getGrade())
+                .collect(Collectors.joining(","));
+        return ETags.of(studentId, status, versions);
     }
 
     @Transactional(readOnly = true)
@@ -286,19 +341,40 @@ public class EnrollmentService {
             throw new AccessDeniedException("Solo docenti e amministratori possono visualizzare le iscrizioni agli esami");
         }
 
-        Page<ExamEnrollment> enrollments;
+        // Filtro per stato opzionale, proiezione diretta sulle colonne del DTO
+        return enrollmentRepository.findDTOsByExamId(examId, status, pageable);
+    }
 
-        if (status != null) {
-            // Filter by status
-            enrollments = enrollmentRepository.findByExamIdAndStatus(examId, status, pageable);
-        } else {
-            // Get all enrollments for the exam
-            enrollments = enrollmentRepository.findByExamId(examId, pageable);
+    /**
+     * Scorre le iscrizioni di un esame in ordine di iscrizione con un cursore
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<EnrollmentDTO> scrollExamEnrollments(Long examId, EnrollmentStatus status,
+                                                             String cursor, int size) {
+        logger.debug("Scorrimento iscrizioni per esame ID: {}, stato: {}", examId, status);
+
+        // Verifica che l'esame esista
+        if (!examRepository.existsById(examId)) {
+            logger.error("Esame non trovato con ID: {}", examId);
+            throw new ResourceNotFoundException("Esame non trovato con ID: " + examId);
         }
 
-        return enrollments.getContent().stream()
-                .map(enrollmentMapper::toDTO)
-                .collect(Collectors.toList());
+        // Verifica che l'utente sia un docente o admin
+        if (!securityUtils.isDocente() && !securityUtils.isAdmin()) {
+            logger.warn("Tentativo non autorizzato di accesso alle iscrizioni dell'esame ID: {}", examId);
+            throw new AccessDeniedException("Solo docenti e amministratori possono visualizzare le iscrizioni agli esami");
+        }
+
+        return scrollEnrollments(examId, null, status, cursor, size);
+    }
+
+    private CursorPageDTO<EnrollmentDTO> scrollEnrollments(Long examId, Long studentId, EnrollmentStatus status,
+                                                          String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<EnrollmentDTO> rows = enrollmentRepository.findDTOsAfter(examId, studentId, status,
+                after.timestamp(), after.id(), PageCursor.nextRows(size));
+
+        return PageCursor.toPage(rows, size, dto -> new PageCursor(dto.getEnrollmentDate(), dto.getId()));
     }
 
     @Transactional
@@ -330,16 +406,21 @@ public class EnrollmentService {
             throw new IllegalStateException("Non è possibile ritirare l'iscrizione poiché l'esame è già stato svolto");
         }
 
-        // Verifica che l'iscrizione sia nello stato ENROLLED
-        if (enrollment.getStatus() != EnrollmentStatus.ENROLLED) {
+        // Verifica che l'iscrizione sia nello stato ENROLLED o in lista d'attesa
+        EnrollmentStatus previousStatus = enrollment.getStatus();
+        if (previousStatus != EnrollmentStatus.ENROLLED && previousStatus != EnrollmentStatus.WAITLISTED) {
             logger.error("Impossibile ritirare iscrizione ID: {} - stato attuale: {}",
-                    enrollmentId, enrollment.getStatus());
-            throw new IllegalStateException("Non è possibile ritirare un'iscrizione che non è nello stato ENROLLED");
+                    enrollmentId, previousStatus);
+            throw new IllegalStateException("Non è possibile ritirare un'iscrizione che non è nello stato ENROLLED o WAITLISTED");
         }
 
-        // Aggiorna lo stato dell'iscrizione
+        // Aggiorna lo stato dell'iscrizione e cedi il posto al primo in lista d'attesa
         enrollment.setStatus(EnrollmentStatus.WITHDREW);
         ExamEnrollment updatedEnrollment = enrollmentRepository.save(enrollment);
+        if (holdsSeat(previousStatus)) {
+            releaseSeatOrPromote(enrollment.getExam().getId());
+        }
+        readYourWrites.recordWrite(studentId);
         logger.info("Iscrizione ID: {} ritirata con successo", enrollmentId);
 
         return enrollmentMapper.toDTO(updatedEnrollment);
@@ -377,15 +458,19 @@ public class EnrollmentService {
             throw new IllegalStateException("Non è possibile cancellare l'iscrizione poiché l'esame è già stato svolto");
         }
 
-        // Verifica che l'iscrizione sia nello stato ENROLLED
-        if (enrollment.getStatus() != EnrollmentStatus.ENROLLED) {
+        // Verifica che l'iscrizione sia nello stato ENROLLED o in lista d'attesa
+        if (enrollment.getStatus() != EnrollmentStatus.ENROLLED && enrollment.getStatus() != EnrollmentStatus.WAITLISTED) {
             logger.error("Impossibile cancellare iscrizione ID: {} - stato attuale: {}",
                     enrollmentId, enrollment.getStatus());
-            throw new IllegalStateException("Non è possibile cancellare un'iscrizione che non è nello stato ENROLLED");
+            throw new IllegalStateException("Non è possibile cancellare un'iscrizione che non è nello stato ENROLLED o WAITLISTED");
         }
 
-        // Cancella l'iscrizione
+        // Cancella l'iscrizione e cedi il posto al primo in lista d'attesa
         enrollmentRepository.delete(enrollment);
+        if (holdsSeat(enrollment.getStatus())) {
+            releaseSeatOrPromote(enrollment.getExam().getId());
+        }
+        readYourWrites.recordWrite(studentId);
         logger.info("Iscrizione ID: {} cancellata con successo", enrollmentId);
     }
 
@@ -416,8 +501,19 @@ public class EnrollmentService {
             throw new IllegalStateException("Solo un'iscrizione nello stato ENROLLED o PRESENT può essere valutata");
         }
 
+        // Aggiorna il contatore dei posti se il cambio di stato occupa o libera un posto
+        Long examId = enrollment.getExam().getId();
+        boolean releasesSeat = holdsSeat(enrollment.getStatus()) && !holdsSeat(status);
+        if (!holdsSeat(enrollment.getStatus()) && holdsSeat(status)
+                && examRepository.reserveSeat(examId) == 0) {
+            throw new IllegalStateException("L'esame ha raggiunto il numero massimo di iscritti");
+        }
+
         enrollment.setStatus(status);
         ExamEnrollment updatedEnrollment = enrollmentRepository.save(enrollment);
+        if (releasesSeat) {
+            releaseSeatOrPromote(examId);
+        }
         logger.info("Stato iscrizione ID: {} aggiornato a {} con successo", enrollmentId, status);
 
         return enrollmentMapper.toDTO(updatedEnrollment);
@@ -467,6 +563,134 @@ public class EnrollmentService {
         return enrollmentMapper.toDTO(updatedEnrollment);
     }
 
+    private ExamMetadata getExamMetadata(Long examId) {
+        try {
+            return examMetadataService.getExamMetadata(examId);
+        } catch (ResourceNotFoundException e) {
+            logger.error("Esame non trovato con ID: {}", examId);
+            throw e;
+        }
+    }
+
+    /**
+     * Prenota un posto e salva l'iscrizione nella stessa transazione; se l'esame è pieno
+     * lo studente viene messo in lista d'attesa.
+     * La prenotazione è un UPDATE condizionale sul contatore dell'esame, quindi non supera
+     * mai maxStudents e blocca solo la riga dell'esame interessato; il vincolo univoco
+     * (student_id, exam_id) impedisce le iscrizioni doppie anche con richieste concorrenti.
+     */
+    private ExamEnrollment reserveSeatAndSave(ExamEnrollment enrollment) {
+        Long examId = enrollment.getExam().getId();
+
+        if (examRepository.reserveSeat(examId) > 0) {
+            enrollment.setStatus(EnrollmentStatus.ENROLLED);
+        } else {
+            logger.info("Esame ID: {} al completo, studente ID: {} in lista d'attesa", examId, enrollment.getStudentId());
+            enrollmentRejections.recordWaitlisted();
+            enrollment.setStatus(EnrollmentStatus.WAITLISTED);
+        }
+
+        try {
+            return enrollmentRepository.saveAndFlush(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, DUPLICATE_ENROLLMENT_CONSTRAINT)) {
+                throw e;
+            }
+            // Iscrizione concorrente dello stesso studente: il rollback annulla anche la prenotazione
+            logger.error("Studente ID: {} già iscritto all'esame ID: {}", enrollment.getStudentId(), examId);
+            enrollmentRejections.record(EnrollmentRejections.Reason.DUPLICATE);
+            throw new IllegalStateException("Sei già iscritto a questo esame");
+        }
+    }
+
+    // Il nome riportato dal driver può avere prefissi (tabella, schema) e maiuscole diverse a seconda del database
+    private static boolean violates(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraintName);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cede un posto liberato al primo studente in lista d'attesa, nella stessa transazione
+     * del ritiro; se la lista è vuota il posto viene liberato.
+     * La lettura della testa della lista blocca la riga, così due ritiri concorrenti
+     * promuovono studenti diversi.
+     */
+    private void releaseSeatOrPromote(Long examId) {
+        Optional<ExamEnrollment> next = enrollmentRepository
+                .findFirstByExamIdAndStatusOrderByEnrollmentDateAscIdAsc(examId, EnrollmentStatus.WAITLISTED);
+
+        if (next.isEmpty()) {
+            examRepository.releaseSeat(examId);
+            return;
+        }
+
+        promote(next.get(), examId);
+    }
+
+    /**
+     * Cede i posti aggiunti da un aumento di capienza agli studenti in lista d'attesa, in ordine di arrivo.
+     * Gira nella transazione di ExamService.updateExam: ogni promozione prenota il posto con reserveSeat,
+     * come una nuova iscrizione, così le iscrizioni concorrenti non superano la nuova capienza.
+     */
+    @EventListener
+    public void promoteWaitlisted(ExamCapacityIncreasedEvent event) {
+        Long examId = event.examId();
+
+        while (examRepository.reserveSeat(examId) > 0) {
+            Optional<ExamEnrollment> next = enrollmentRepository
+                    .findFirstByExamIdAndStatusOrderByEnrollmentDateAscIdAsc(examId, EnrollmentStatus.WAITLISTED);
+            if (next.isEmpty()) {
+                // Lista d'attesa esaurita: il posto prenotato resta libero
+                examRepository.releaseSeat(examId);
+                return;
+            }
+            promote(next.get(), examId);
+        }
+    }
+
+    private void promote(ExamEnrollment promoted, Long examId) {
+        promoted.setStatus(EnrollmentStatus.ENROLLED);
+        enrollmentRepository.save(promoted);
+        logger.info("Studente ID: {} promosso dalla lista d'attesa dell'esame ID: {}", promoted.getStudentId(), examId);
+
+        eventPublisher.publish("exam.enrollment.promoted", enrollmentMapper.toDTO(promoted));
+    }
+
+    // Le iscrizioni ritirate o in lista d'attesa non occupano posti
+    private static boolean holdsSeat(EnrollmentStatus status) {
+        return status != EnrollmentStatus.WITHDREW && status != EnrollmentStatus.WAITLISTED;
+    }
+
+    /**
+     * Posizione di uno studente nella lista d'attesa di un esame (1 = primo)
+     */
+    @Transactional(readOnly = true)
+    public WaitlistPositionDTO getWaitlistPosition(Long examId, Long studentId) {
+        logger.debug("Recupero posizione in lista d'attesa per studente ID: {} all'esame ID: {}", studentId, examId);
+
+        if (!securityUtils.isStudentOrAdmin(studentId)) {
+            logger.warn("Tentativo non autorizzato di accesso alla lista d'attesa per studente ID: {}", studentId);
+            throw new AccessDeniedException("Non sei autorizzato a visualizzare la lista d'attesa di questo studente");
+        }
+
+        ExamEnrollment enrollment = enrollmentRepository.findByStudentIdAndExamId(studentId, examId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Nessuna iscrizione trovata per lo studente ID: " + studentId + " all'esame ID: " + examId));
+
+        if (enrollment.getStatus() != EnrollmentStatus.WAITLISTED) {
+            throw new IllegalStateException("Lo studente non è in lista d'attesa per questo esame");
+        }
+
+        long ahead = enrollmentRepository.countWaitlistedBefore(examId, enrollment.getEnrollmentDate(), enrollment.getId());
+        long waiting = enrollmentRepository.countByExamIdAndStatus(examId, EnrollmentStatus.WAITLISTED);
+
+        return new WaitlistPositionDTO(examId, studentId, enrollment.getId(), ahead + 1, waiting);
+    }
+
     @Transactional(readOnly = true)
     public long countEnrollmentsForExam(Long examId) {
         logger.debug("Conteggio iscrizioni per esame ID: {}", examId);
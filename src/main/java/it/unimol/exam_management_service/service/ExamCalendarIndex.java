@@ -0,0 +1,244 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.datasource.DataSourceRouting;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.repository.projection.ExamEnrollmentCount;
+import it.unimol.exam_management_service.repository.projection.ExamMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Calendario degli esami in memoria, ordinato per data e con indici secondari per corso e professore:
+ * GET /exams/calendar viene servito senza accedere al database.
+ * L'indice contiene solo gli esami in una finestra di date (da exam.calendar.past-days giorni fa a
+ * exam.calendar.horizon-days giorni da oggi): le richieste che escono dalla finestra leggono dal database.
+ * L'indice è un'istantanea immutabile sostituita a ogni modifica, quindi le letture non usano lock.
+ * Viene aggiornato dopo il commit delle modifiche agli esami (anche di altre istanze, via
+ * ClusterCacheInvalidator) e ricaricato periodicamente, che riallinea anche il numero di iscritti.
+ */
+@Component
+public class ExamCalendarIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamCalendarIndex.class);
+
+    // Ordine degli esami nello stesso giorno
+    private static final Comparator<ExamMetadata> BY_TIME = Comparator
+            .comparing(ExamMetadata::time, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ExamMetadata::id);
+
+    private final ExamRepository examRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int pastDays;
+    private final int horizonDays;
+
+    // Le scritture sono serializzate; le letture usano l'ultima istantanea pubblicata.
+    // ReentrantLock e non synchronized: con i virtual thread l'attesa del database non blocca il carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public ExamCalendarIndex(ExamRepository examRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${exam.calendar.past-days:30}") int pastDays,
+                             @Value("${exam.calendar.horizon-days:365}") int horizonDays) {
+        this.examRepository = examRepository;
+        this.pastDays = pastDays;
+        this.horizonDays = horizonDays;
+        // Nuova transazione: gli aggiornamenti arrivano anche dopo il commit di un'altra transazione
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Esame del calendario con il numero di iscritti al momento dell'ultimo aggiornamento
+     */
+    public record Entry(ExamMetadata exam, long enrollmentCount) {
+    }
+
+    /**
+     * Indica se l'indice è caricato e l'intervallo richiesto rientra nella finestra di date che contiene
+     */
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        Snapshot current = snapshot;
+        return current != null && !startDate.isBefore(current.from()) && !endDate.isAfter(current.to());
+    }
+
+    /**
+     * Esami con data compresa tra startDate ed endDate (inclusi), filtrati per corso e professore
+     * se indicati, in ordine di data e ora. L'intervallo va verificato prima con covers
+     */
+    public List<Entry> find(LocalDate startDate, LocalDate endDate, Long courseId, Long professorId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Calendario degli esami non ancora caricato");
+        }
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+
+        // Si parte dall'indice più selettivo, l'eventuale secondo filtro si applica in memoria
+        NavigableMap<LocalDate, List<ExamMetadata>> byDate;
+        if (courseId != null) {
+            byDate = current.byCourse().getOrDefault(courseId, Snapshot.EMPTY);
+        } else if (professorId != null) {
+            byDate = current.byProfessor().getOrDefault(professorId, Snapshot.EMPTY);
+        } else {
+            byDate = current.byDate();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (List<ExamMetadata> exams : byDate.subMap(startDate, true, endDate, true).values()) {
+            for (ExamMetadata exam : exams) {
+                if (professorId == null || professorId.equals(exam.professorId())) {
+                    entries.add(new Entry(exam, current.enrollmentCounts().getOrDefault(exam.id(), 0L)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            // Finché l'indice non è caricato il calendario viene letto dal database
+            logger.warn("Caricamento del calendario degli esami non riuscito: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${exam.calendar.refresh-interval-ms:30000}")
+    public void reloadScheduled() {
+        reload();
+    }
+
+    /**
+     * Ricarica il calendario della finestra di date con due query sugli esami: dati anagrafici
+     * e contatore degli iscritti. La finestra si sposta con la data corrente a ogni ricaricamento.
+     * Legge dal primario come refresh: un'istantanea presa da una replica in ritardo sostituirebbe
+     * gli aggiornamenti più recenti già applicati
+     */
+    public void reload() {
+        writeLock.lock();
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate from = today.minusDays(pastDays);
+            LocalDate to = today.plusDays(horizonDays);
+            Snapshot loaded = DataSourceRouting.onPrimary(() -> transactionTemplate.execute(status -> {
+                Map<Long, ExamMetadata> exams = examRepository.findMetadataBetween(from, to).stream()
+                        .collect(Collectors.toMap(ExamMetadata::id, exam -> exam));
+                Map<Long, Long> counts = examRepository.findEnrolledCountsBetween(from, to).stream()
+                        .collect(Collectors.toMap(ExamEnrollmentCount::getExamId,
+                                ExamEnrollmentCount::getEnrollmentCount));
+                return Snapshot.of(from, to, exams, counts);
+            }));
+            snapshot = loaded;
+            logger.debug("Calendario degli esami caricato: {} esami", loaded.exams().size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        refresh(event.examId());
+    }
+
+    /**
+     * Rilegge un singolo esame: lo aggiunge, lo aggiorna o lo rimuove se non esiste più
+     * o se la sua data è uscita dalla finestra
+     */
+    public void refresh(Long examId) {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                // Verrà incluso dal primo caricamento completo
+                return;
+            }
+
+            // Dal primario: la modifica appena confermata potrebbe non essere ancora sulla replica
+            Optional<Entry> entry = DataSourceRouting.onPrimary(() -> transactionTemplate.execute(status ->
+                    examRepository.findMetadataById(examId)
+                            .map(exam -> new Entry(exam, examRepository.findEnrolledCountById(examId).orElse(0)))));
+
+            Map<Long, ExamMetadata> exams = new HashMap<>(current.exams());
+            Map<Long, Long> counts = new HashMap<>(current.enrollmentCounts());
+            if (entry != null && entry.isPresent() && current.contains(entry.get().exam().date())) {
+                exams.put(examId, entry.get().exam());
+                counts.put(examId, entry.get().enrollmentCount());
+            } else {
+                exams.remove(examId);
+                counts.remove(examId);
+            }
+            snapshot = Snapshot.of(current.from(), current.to(), exams, counts);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private record Snapshot(LocalDate from,
+                            LocalDate to,
+                            Map<Long, ExamMetadata> exams,
+                            Map<Long, Long> enrollmentCounts,
+                            NavigableMap<LocalDate, List<ExamMetadata>> byDate,
+                            Map<Long, NavigableMap<LocalDate, List<ExamMetadata>>> byCourse,
+                            Map<Long, NavigableMap<LocalDate, List<ExamMetadata>>> byProfessor) {
+
+        static final NavigableMap<LocalDate, List<ExamMetadata>> EMPTY = new TreeMap<>();
+
+        static Snapshot of(LocalDate from, LocalDate to,
+                           Map<Long, ExamMetadata> exams, Map<Long, Long> enrollmentCounts) {
+            List<ExamMetadata> sorted = exams.values().stream()
+                    .sorted(Comparator.comparing(ExamMetadata::date).thenComparing(BY_TIME))
+                    .collect(Collectors.toList());
+
+            Map<Long, NavigableMap<LocalDate, List<ExamMetadata>>> byCourse = new HashMap<>();
+            Map<Long, NavigableMap<LocalDate, List<ExamMetadata>>> byProfessor = new HashMap<>();
+            for (ExamMetadata exam : sorted) {
+                byCourse.computeIfAbsent(exam.courseId(), id -> new TreeMap<>())
+                        .computeIfAbsent(exam.date(), date -> new ArrayList<>()).add(exam);
+                byProfessor.computeIfAbsent(exam.professorId(), id -> new TreeMap<>())
+                        .computeIfAbsent(exam.date(), date -> new ArrayList<>()).add(exam);
+            }
+
+            return new Snapshot(from, to, Map.copyOf(exams), Map.copyOf(enrollmentCounts),
+                    groupByDate(sorted), byCourse, byProfessor);
+        }
+
+        boolean contains(LocalDate date) {
+            return !date.isBefore(from) && !date.isAfter(to);
+        }
+
+        private static NavigableMap<LocalDate, List<ExamMetadata>> groupByDate(Collection<ExamMetadata> sorted) {
+            NavigableMap<LocalDate, List<ExamMetadata>> byDate = new TreeMap<>();
+            for (ExamMetadata exam : sorted) {
+                byDate.computeIfAbsent(exam.date(), date -> new ArrayList<>()).add(exam);
+            }
+            return byDate;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package it.unimol.exam_management_service.service;
+
+/**
+ * Evento applicativo interno: la capienza dell'esame è aumentata e i nuovi posti vanno ceduti
+ * agli studenti in lista d'attesa, nella stessa transazione della modifica.
+ */
+public record ExamCapacityIncreasedEvent(Long examId) {
+}
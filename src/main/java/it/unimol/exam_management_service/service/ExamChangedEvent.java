@@ -0,0 +1,8 @@
+package it.unimol.exam_management_service.service;
+
+/**
+ * Evento applicativo interno: i dati anagrafici dell'esame sono cambiati (modifica, cambio di stato, eliminazione)
+ * e le copie in cache non sono più valide.
+ */
+public record ExamChangedEvent(Long examId) {
+}
@@ -0,0 +1,48 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.config.CacheConfig;
+import it.unimol.exam_management_service.datasource.DataSourceRouting;
+import it.unimol.exam_management_service.exception.ResourceNotFoundException;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.repository.projection.ExamMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Lettura in cache dei dati anagrafici degli esami, usata dai percorsi più frequenti
+ * (dettaglio esame, iscrizioni, registrazione dei voti).
+ * Le voci sono invalidate dopo il commit di ogni modifica all'esame (ExamChangedEvent)
+ * e comunque scadono dopo exam.cache.exam-metadata.ttl.
+ */
+@Service
+public class ExamMetadataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamMetadataService.class);
+
+    private final ExamRepository examRepository;
+
+    public ExamMetadataService(ExamRepository examRepository) {
+        this.examRepository = examRepository;
+    }
+
+    // Gli esami inesistenti non vengono messi in cache: l'eccezione interrompe il caching.
+    // Letto dal primario: una replica in ritardo rimetterebbe in cache la versione appena invalidata
+    @Cacheable(cacheNames = CacheConfig.EXAM_METADATA, key = "#examId")
+    @Transactional(readOnly = true)
+    public ExamMetadata getExamMetadata(Long examId) {
+        return DataSourceRouting.onPrimary(() -> examRepository.findMetadataById(examId))
+                .orElseThrow(() -> new ResourceNotFoundException("Esame non trovato con ID: " + examId));
+    }
+
+    // Eseguito solo a transazione confermata: un rollback lascia valida la voce in cache
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = CacheConfig.EXAM_METADATA, key = "#event.examId()")
+    public void onExamChanged(ExamChangedEvent event) {
+        logger.debug("Invalidata la cache dell'esame ID: {}", event.examId());
+    }
+}
@@ -1,41 +1,63 @@
 package it.unimol.exam_management_service.service;
 
+import io.micrometer.core.annotation.Timed;
+import it.unimol.exam_management_service.config.MetricsConfig;
 import it.unimol.exam_management_service.dto.ExamDTO;
 import it.unimol.exam_management_service.dto.request.CreateExamRequest;
 import it.unimol.exam_management_service.entity.Exam;
 import it.unimol.exam_management_service.enums.ExamStatus;
 import it.unimol.exam_management_service.exception.ResourceNotFoundException;
+import it.unimol.exam_management_service.messaging.EventPublisher;
 import it.unimol.exam_management_service.repository.EnrollmentRepository;
 import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.repository.projection.ExamMetadata;
+import it.unimol.exam_management_service.repository.projection.ExamVersion;
+import it.unimol.exam_management_service.repository.specification.ExamSpecifications;
+import it.unimol.exam_management_service.util.ETags;
 import it.unimol.exam_management_service.util.ExamMapper;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class ExamService {
 
     private final ExamRepository examRepository;
     private final EnrollmentRepository enrollmentRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final EventPublisher eventPublisher;
     private final ExamMapper examMapper;
+    private final GradeStatisticsService gradeStatisticsService;
+    private final ExamMetadataService examMetadataService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ExamCalendarIndex examCalendarIndex;
 
     @Autowired
     public ExamService(ExamRepository examRepository,
                        EnrollmentRepository enrollmentRepository,
-                       RabbitTemplate rabbitTemplate,
-                       ExamMapper examMapper) {
+                       EventPublisher eventPublisher,
+                       ExamMapper examMapper,
+                       GradeStatisticsService gradeStatisticsService,
+                       ExamMetadataService examMetadataService,
+                       ApplicationEventPublisher applicationEventPublisher,
+                       ExamCalendarIndex examCalendarIndex) {
         this.examRepository = examRepository;
         this.enrollmentRepository = enrollmentRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.eventPublisher = eventPublisher;
         this.examMapper = examMapper;
+        this.gradeStatisticsService = gradeStatisticsService;
+        this.examMetadataService = examMetadataService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.examCalendarIndex = examCalendarIndex;
     }
 
     @Transactional
@@ -59,63 +81,43 @@ public class ExamService {
         exam.setStatus(ExamStatus.SCHEDULED);
 
         Exam savedExam = examRepository.save(exam);
+        applicationEventPublisher.publishEvent(new ExamChangedEvent(savedExam.getId()));
 
         // Publish event
-        rabbitTemplate.convertAndSend("exam-events", "exam.created", examMapper.toDTO(savedExam));
+        eventPublisher.publish("exam.created", examMapper.toDTO(savedExam));
 
         return examMapper.toDTO(savedExam);
     }
 
     @Transactional(readOnly = true)
     public ExamDTO getExamById(Long id) {
-        Exam exam = examRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Esame non trovato con ID: " + id));
+        // Dati anagrafici dalla cache, numero di iscritti sempre letto dal database
+        ExamMetadata exam = examMetadataService.getExamMetadata(id);
+
+        return examMapper.toDTO(exam, enrolledCount(id));
+    }
+
+    /**
+     * ETag del dettaglio esame: versione dei dati in cache, numero di iscrizioni
+     * e data corrente, da cui dipende enrollmentOpen
+     */
+    @Transactional(readOnly = true)
+    public String getExamETag(Long id) {
+        ExamMetadata exam = examMetadataService.getExamMetadata(id);
 
-        ExamDTO dto = examMapper.toDTO(exam);
-        dto.setCurrentEnrollments((int) enrollmentRepository.countByExamId(id));
-        return dto;
+        return ETags.of(exam.id(), exam.version(), enrolledCount(id), LocalDate.now());
     }
 
     @Transactional(readOnly = true)
     public List<ExamDTO> getAllExams(LocalDate startDate, LocalDate endDate,
                                      Long courseId, Long professorId,
-                                     Pageable pageable) {
-        Page<Exam> exams;
-
-        if (startDate != null && endDate != null) {
-            // Filter by date range
-            if (courseId != null) {
-                // Filter by course and date range
-                exams = examRepository.findByCourseIdAndStatusInAndDateBetween(
-                        courseId,
-                        List.of(ExamStatus.values()),
-                        startDate,
-                        endDate,
-                        pageable);
-            } else if (professorId != null) {
-                // Filter by professor
-                exams = examRepository.findAll(pageable);
-                // Additional filtering will be applied in the stream below
-            } else {
-                // Only date filter
-                exams = examRepository.findAll(pageable);
-                // Additional filtering will be applied in the stream below
-            }
-        } else {
-            // No date filter
-            exams = examRepository.findAll(pageable);
-        }
+                                     ExamStatus status, Pageable pageable) {
+        // Tutti i filtri sono applicati dal database, quindi le pagine sono sempre complete
+        Page<Exam> exams = examRepository.findAll(
+                ExamSpecifications.withFilters(courseId, professorId, status, startDate, endDate),
+                pageable);
 
-        return exams.stream()
-                .filter(e -> professorId == null || e.getProfessorId().equals(professorId))
-                .filter(e -> startDate == null || !e.getDate().isBefore(startDate))
-                .filter(e -> endDate == null || !e.getDate().isAfter(endDate))
-                .map(exam -> {
-                    ExamDTO dto = examMapper.toDTO(exam);
-                    dto.setCurrentEnrollments((int) enrollmentRepository.countByExamId(exam.getId()));
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDTOs(exams.getContent());
     }
 
     @Transactional
@@ -128,6 +130,9 @@ public class ExamService {
             throw new IllegalArgumentException("La scadenza per le iscrizioni deve essere prima della data dell'esame");
         }
 
+        Long previousCourseId = exam.getCourseId();
+        int previousMaxStudents = exam.getMaxStudents();
+
         // Update fields
         exam.setName(examDTO.getName());
         exam.setDate(examDTO.getDate());
@@ -144,11 +149,20 @@ public class ExamService {
         }
 
         Exam updatedExam = examRepository.save(exam);
+        gradeStatisticsService.moveExam(updatedExam, previousCourseId);
+        ExamDTO updatedDTO = examMapper.toDTO(updatedExam);
+        if (updatedExam.getMaxStudents() > previousMaxStudents) {
+            // I posti aggiunti passano subito agli studenti in lista d'attesa (EnrollmentService);
+            // le promozioni aggiornano il contatore nel database, non l'entità già caricata
+            applicationEventPublisher.publishEvent(new ExamCapacityIncreasedEvent(id));
+            updatedDTO = examMapper.toDTO(updatedExam, enrolledCount(id));
+        }
+        applicationEventPublisher.publishEvent(new ExamChangedEvent(id));
 
         // Publish event
-        rabbitTemplate.convertAndSend("exam-events", "exam.updated", examMapper.toDTO(updatedExam));
+        eventPublisher.publish("exam.updated", updatedDTO);
 
-        return examMapper.toDTO(updatedExam);
+        return updatedDTO;
     }
 
     @Transactional
@@ -163,31 +177,20 @@ public class ExamService {
         }
 
         examRepository.delete(exam);
+        applicationEventPublisher.publishEvent(new ExamChangedEvent(id));
 
         // Publish event
-        rabbitTemplate.convertAndSend("exam-events", "exam.deleted", id);
+        eventPublisher.publish("exam.deleted", id);
     }
 
     @Transactional(readOnly = true)
     public List<ExamDTO> getExamsByCourse(Long courseId) {
-        return examRepository.findByCourseIdOrderByDateDesc(courseId).stream()
-                .map(exam -> {
-                    ExamDTO dto = examMapper.toDTO(exam);
-                    dto.setCurrentEnrollments((int) enrollmentRepository.countByExamId(exam.getId()));
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDTOs(examRepository.findByCourseIdOrderByDateDesc(courseId));
     }
 
     @Transactional(readOnly = true)
     public List<ExamDTO> getExamsByProfessor(Long professorId) {
-        return examRepository.findByProfessorIdOrderByDateDesc(professorId).stream()
-                .map(exam -> {
-                    ExamDTO dto = examMapper.toDTO(exam);
-                    dto.setCurrentEnrollments((int) enrollmentRepository.countByExamId(exam.getId()));
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDTOs(examRepository.findByProfessorIdOrderByDateDesc(professorId));
     }
 
     @Transactional(readOnly = true)
@@ -203,16 +206,26 @@ public class ExamService {
             exams = examRepository.findAvailableExams(today);
         }
 
+        // I posti occupati sono già nel contatore dell'esame: nessun conteggio aggiuntivo
         return exams.stream()
                 .map(exam -> {
-                    ExamDTO dto = examMapper.toDTO(exam);
-                    dto.setCurrentEnrollments((int) enrollmentRepository.countByExamId(exam.getId()));
+                    ExamDTO dto = examMapper.toDTO(exam, exam.getEnrolledCount());
                     dto.setEnrollmentOpen(true);
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public String getAvailableExamsETag(Long studentId) {
+        LocalDate today = LocalDate.now();
+        List<ExamVersion> versions = studentId != null
+                ? examRepository.findAvailableExamVersionsForStudent(today, studentId)
+                : examRepository.findAvailableExamVersions(today);
+
+        return ETags.of(today, studentId, describe(versions));
+    }
+
     @Transactional
     public void updateExamStatus(Long id, ExamStatus status) {
         Exam exam = examRepository.findById(id)
@@ -220,9 +233,10 @@ public class ExamService {
 
         exam.setStatus(status);
         examRepository.save(exam);
+        applicationEventPublisher.publishEvent(new ExamChangedEvent(id));
 
         // Publish event
-        rabbitTemplate.convertAndSend("exam-events", "exam.status.updated", examMapper.toDTO(exam));
+        eventPublisher.publish("exam.status.updated", examMapper.toDTO(exam));
     }
 
     @Transactional(readOnly = true)
@@ -234,17 +248,56 @@ public class ExamService {
         startDate = startDate != null ? startDate : defaultStartDate;
         endDate = endDate != null ? endDate : defaultEndDate;
 
-        List<Exam> exams = examRepository.findByDateBetweenOrderByDateAsc(startDate, endDate);
+        if (examCalendarIndex.covers(startDate, endDate)) {
+            return examCalendarIndex.find(startDate, endDate, courseId, professorId).stream()
+                    .map(entry -> examMapper.toDTO(entry.exam(), entry.enrollmentCount()))
+                    .collect(Collectors.toList());
+        }
+
+        // Calendario in memoria non ancora caricato o intervallo fuori dalla sua finestra
+        List<Exam> exams = examRepository.findAll(
+                ExamSpecifications.withFilters(courseId, professorId, null, startDate, endDate),
+                Sort.by(Sort.Direction.ASC, "date"));
+
+        return toDTOs(exams);
+    }
+
+    @Transactional(readOnly = true)
+    public String getExamCalendarETag(LocalDate startDate, LocalDate endDate,
+                                      Long courseId, Long professorId) {
+        LocalDate today = LocalDate.now();
+        startDate = startDate != null ? startDate : today;
+        endDate = endDate != null ? endDate : today.plusMonths(3);
+
+        if (examCalendarIndex.covers(startDate, endDate)) {
+            String exams = examCalendarIndex.find(startDate, endDate, courseId, professorId).stream()
+                    .sorted(Comparator.comparing(entry -> entry.exam().id()))
+                    .map(entry -> entry.exam().id() + ":" + entry.exam().version() + ":" + entry.enrollmentCount())
+                    .collect(Collectors.joining(","));
+            return ETags.of(today, startDate, endDate, courseId, professorId, exams);
+        }
+
+        return ETags.of(today, startDate, endDate, courseId, professorId,
+                describe(examRepository.findCalendarVersions(startDate, endDate, courseId, professorId)));
+    }
+
+    // Stato di un elenco di esami come stringa stabile, indipendente dall'ordine delle righe
+    private static String describe(List<ExamVersion> versions) {
+        return versions.stream()
+                .sorted(Comparator.comparing(ExamVersion::getExamId))
+                .map(v -> v.getExamId() + ":" + v.getVersion() + ":" + v.getEnrollmentCount())
+                .collect(Collectors.joining(","));
+    }
 
+    // Il numero di iscritti è il contatore dell'esame: nessuna query di conteggio
+    private List<ExamDTO> toDTOs(List<Exam> exams) {
         return exams.stream()
-                .filter(e -> courseId == null || e.getCourseId().equals(courseId))
-                .filter(e -> professorId == null || e.getProfessorId().equals(professorId))
-                .map(exam -> {
-                    ExamDTO dto = examMapper.toDTO(exam);
-                    dto.setCurrentEnrollments((int) enrollmentRepository.countByExamId(exam.getId()));
-                    dto.setEnrollmentOpen(exam.isEnrollmentOpen());
-                    return dto;
-                })
+                .map(exam -> examMapper.toDTO(exam, exam.getEnrolledCount()))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    // Posti occupati secondo il contatore enrolledCount (lettura per chiave primaria)
+    private long enrolledCount(Long examId) {
+        return examRepository.findEnrolledCountById(examId).orElse(0);
+    }
+}
@@ -0,0 +1,102 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.dto.EnrollmentDTO;
+import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.enums.ExportFormat;
+import it.unimol.exam_management_service.enums.GradeStatus;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.GradeRepository;
+import it.unimol.exam_management_service.util.ExportWriter;
+import it.unimol.exam_management_service.util.ExportWriter.Column;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Export di registri di iscrizione e di voti per corso, esame e intervallo di date.
+ * Le righe sono proiezioni DTO lette in streaming e scritte subito sulla risposta,
+ * quindi né il contesto di persistenza né la memoria crescono con la dimensione dell'export.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final List<Column<EnrollmentDTO>> ENROLLMENT_COLUMNS = List.of(
+            new Column<>("enrollmentId", EnrollmentDTO::getId),
+            new Column<>("examId", EnrollmentDTO::getExamId),
+            new Column<>("examName", EnrollmentDTO::getExamName),
+            new Column<>("examDate", EnrollmentDTO::getExamDate),
+            new Column<>("studentId", EnrollmentDTO::getStudentId),
+            new Column<>("status", EnrollmentDTO::getStatus),
+            new Column<>("enrollmentDate", EnrollmentDTO::getEnrollmentDate),
+            new Column<>("grade", EnrollmentDTO::getGrade),
+            new Column<>("notes", EnrollmentDTO::getNotes));
+
+    private static final List<Column<GradeDTO>> GRADE_COLUMNS = List.of(
+            new Column<>("gradeId", GradeDTO::getId),
+            new Column<>("enrollmentId", GradeDTO::getEnrollmentId),
+            new Column<>("examId", GradeDTO::getExamId),
+            new Column<>("examName", GradeDTO::getExamName),
+            new Column<>("studentId", GradeDTO::getStudentId),
+            new Column<>("grade", GradeDTO::getGrade),
+            new Column<>("honors", GradeDTO::getHonors),
+            new Column<>("formattedGrade", GradeDTO::getFormattedGrade),
+            new Column<>("status", GradeDTO::getStatus),
+            new Column<>("evaluationDate", GradeDTO::getEvaluationDate),
+            new Column<>("publishedDate", GradeDTO::getPublishedDate),
+            new Column<>("professorId", GradeDTO::getProfessorId));
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final GradeRepository gradeRepository;
+    private final ExportWriter exportWriter;
+
+    public ExportService(EnrollmentRepository enrollmentRepository,
+                         GradeRepository gradeRepository,
+                         ExportWriter exportWriter) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.gradeRepository = gradeRepository;
+        this.exportWriter = exportWriter;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportEnrollments(Long courseId, Long examId, LocalDate fromDate, LocalDate toDate,
+                                  EnrollmentStatus status, ExportFormat format,
+                                  OutputStream outputStream) throws IOException {
+        validateDateRange(fromDate, toDate);
+
+        try (Stream<EnrollmentDTO> rows = enrollmentRepository.streamDTOs(courseId, examId, fromDate, toDate, status)) {
+            long count = exportWriter.write(rows, format, ENROLLMENT_COLUMNS, outputStream);
+            logger.info("Export iscrizioni completato: {} righe ({})", count, format);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportGrades(Long courseId, Long examId, LocalDate fromDate, LocalDate toDate,
+                             GradeStatus status, ExportFormat format,
+                             OutputStream outputStream) throws IOException {
+        validateDateRange(fromDate, toDate);
+
+        try (Stream<GradeDTO> rows = gradeRepository.streamDTOs(courseId, examId, fromDate, toDate, status)) {
+            long count = exportWriter.write(rows, format, GRADE_COLUMNS, outputStream);
+            logger.info("Export voti completato: {} righe ({})", count, format);
+            return count;
+        }
+    }
+
+    // Chiamato anche prima di impostare gli header della risposta, così l'errore resta un 400 JSON
+    public void validateDateRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("La data di inizio deve precedere la data di fine");
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.dto.GradeBatchResponseDTO;
+import it.unimol.exam_management_service.dto.GradeBatchResultDTO;
+import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.dto.GradesRecordedBatchDTO;
+import it.unimol.exam_management_service.dto.request.CreateGradeRequest;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.enums.GradeBatchOutcome;
+import it.unimol.exam_management_service.enums.GradeStatus;
+import it.unimol.exam_management_service.exception.ResourceNotFoundException;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.repository.GradeJdbcRepository;
+import it.unimol.exam_management_service.repository.GradeRepository;
+import it.unimol.exam_management_service.service.GradeStatisticsService.GradeSnapshot;
+import it.unimol.exam_management_service.util.GradeMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Registrazione in blocco dei voti di un esame. Le regole sono le stesse di
+ * GradeService.recordGrade, ma iscrizioni e voti esistenti vengono letti una sola volta
+ * e le scritture avvengono a lotti; le righe non valide vengono segnalate senza
+ * interrompere il resto del lotto. Come per la pubblicazione in blocco, gli eventi
+ * exam.grade.recorded di ogni voto restano disponibili (exam.grades.per-grade-publish-events).
+ */
+@Service
+public class GradeBatchService {
+
+    private final ExamRepository examRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final GradeRepository gradeRepository;
+    private final GradeJdbcRepository gradeJdbcRepository;
+    private final EventPublisher eventPublisher;
+    private final GradeMapper gradeMapper;
+    private final GradeStatisticsService gradeStatisticsService;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxRows;
+    private final boolean perGradeEvents;
+
+    public GradeBatchService(ExamRepository examRepository,
+                             EnrollmentRepository enrollmentRepository,
+                             GradeRepository gradeRepository,
+                             GradeJdbcRepository gradeJdbcRepository,
+                             EventPublisher eventPublisher,
+                             GradeMapper gradeMapper,
+                             GradeStatisticsService gradeStatisticsService,
+                             Validator validator,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int chunkSize,
+                             @Value("${exam.grades.batch-max-rows:2000}") int maxRows,
+                             @Value("${exam.grades.per-grade-publish-events:true}") boolean perGradeEvents) {
+        this.examRepository = examRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.gradeRepository = gradeRepository;
+        this.gradeJdbcRepository = gradeJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.gradeMapper = gradeMapper;
+        this.gradeStatisticsService = gradeStatisticsService;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        this.perGradeEvents = perGradeEvents;
+    }
+
+    @Transactional
+    public GradeBatchResponseDTO recordGrades(Long examId, List<CreateGradeRequest> requests) {
+        if (requests.size() > maxRows) {
+            throw new IllegalArgumentException("Il lotto supera il limite di " + maxRows + " voti");
+        }
+        Exam exam = examRepository.findById(examId)
+                .orElseThrow(() -> new ResourceNotFoundException("Esame non trovato con ID: " + examId));
+
+        // Unica lettura delle iscrizioni dell'esame con i voti già presenti
+        Map<Long, ExamEnrollment> enrollments = new HashMap<>();
+        for (ExamEnrollment enrollment : enrollmentRepository.findByExamIdWithGrade(examId)) {
+            enrollments.put(enrollment.getId(), enrollment);
+        }
+
+        List<GradeBatchResultDTO> results = new ArrayList<>();
+        Set<Long> seenEnrollments = new HashSet<>();
+        List<ExamGrade> pendingInserts = new ArrayList<>();
+        Map<Long, ExamGrade> createdGrades = new LinkedHashMap<>();
+        List<ExamGrade> updatedGrades = new ArrayList<>();
+        List<GradeSnapshot> replacedSnapshots = new ArrayList<>();
+        int pendingUpdates = 0;
+        int rejected = 0;
+        int row = 0;
+
+        for (CreateGradeRequest request : requests) {
+            int index = row++;
+
+            String error = validate(exam, request, enrollments, seenEnrollments);
+            if (error != null) {
+                results.add(new GradeBatchResultDTO(index, request.getEnrollmentId(), null,
+                        GradeBatchOutcome.REJECTED, error));
+                rejected++;
+                continue;
+            }
+
+            ExamEnrollment enrollment = enrollments.get(request.getEnrollmentId());
+            ExamGrade grade = enrollment.getGrade();
+            if (grade != null) {
+                // Update existing grade
+                replacedSnapshots.add(GradeSnapshot.of(grade));
+                grade.setGrade(request.getGrade());
+                grade.setHonors(request.getHonors());
+                grade.setFeedback(request.getFeedback());
+                grade.setStatus(GradeStatus.EVALUATED);
+                updatedGrades.add(grade);
+                pendingUpdates++;
+                results.add(new GradeBatchResultDTO(index, enrollment.getId(), grade.getId(),
+                        GradeBatchOutcome.UPDATED, null));
+            } else {
+                grade = new ExamGrade(
+                        request.getGrade(),
+                        request.getHonors(),
+                        request.getProfessorId(),
+                        enrollment,
+                        request.getFeedback()
+                );
+                pendingInserts.add(grade);
+                createdGrades.put(enrollment.getId(), grade);
+                results.add(new GradeBatchResultDTO(index, enrollment.getId(), null,
+                        GradeBatchOutcome.CREATED, null));
+            }
+
+            if (pendingInserts.size() + pendingUpdates >= chunkSize) {
+                writeChunk(pendingInserts);
+                pendingUpdates = 0;
+            }
+        }
+        writeChunk(pendingInserts);
+
+        // Un solo SELECT per recuperare gli ID generati dei nuovi voti
+        Map<Long, Long> createdIds = gradeJdbcRepository.findIdsByEnrollmentIds(createdGrades.keySet());
+        for (GradeBatchResultDTO result : results) {
+            if (result.getOutcome() == GradeBatchOutcome.CREATED) {
+                result.setGradeId(createdIds.get(result.getEnrollmentId()));
+            }
+        }
+
+        // Statistiche aggiornate una sola volta per l'intero lotto
+        List<GradeSnapshot> recordedSnapshots = new ArrayList<>(updatedGrades.size() + createdGrades.size());
+        updatedGrades.forEach(grade -> recordedSnapshots.add(GradeSnapshot.of(grade)));
+        createdGrades.values().forEach(grade -> recordedSnapshots.add(GradeSnapshot.of(grade)));
+        gradeStatisticsService.recordChanges(exam, replacedSnapshots, recordedSnapshots);
+
+        List<GradeDTO> recorded = new ArrayList<>(updatedGrades.size() + createdGrades.size());
+        updatedGrades.forEach(grade -> recorded.add(gradeMapper.toDTO(grade)));
+        createdGrades.forEach((enrollmentId, grade) -> {
+            GradeDTO dto = gradeMapper.toDTO(grade);
+            dto.setId(createdIds.get(enrollmentId));
+            recorded.add(dto);
+        });
+        if (!recorded.isEmpty()) {
+            eventPublisher.publish("exam.grade.recorded.batch", new GradesRecordedBatchDTO(examId, recorded));
+        }
+        if (perGradeEvents) {
+            recorded.forEach(grade -> eventPublisher.publish("exam.grade.recorded", grade));
+        }
+
+        return new GradeBatchResponseDTO(examId, row, createdGrades.size(), updatedGrades.size(), rejected, results);
+    }
+
+    // Nuovi voti con INSERT JDBC in batch, modifiche con UPDATE raggruppati da Hibernate (hibernate.jdbc.batch_size)
+    private void writeChunk(List<ExamGrade> pendingInserts) {
+        gradeRepository.flush();
+        gradeJdbcRepository.insertAll(pendingInserts);
+        pendingInserts.clear();
+    }
+
+    private String validate(Exam exam, CreateGradeRequest request,
+                            Map<Long, ExamEnrollment> enrollments, Set<Long> seenEnrollments) {
+        if (request == null) {
+            return "Riga vuota";
+        }
+
+        Set<ConstraintViolation<CreateGradeRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        ExamEnrollment enrollment = enrollments.get(request.getEnrollmentId());
+        if (enrollment == null) {
+            return "L'iscrizione " + request.getEnrollmentId() + " non appartiene a questo esame";
+        }
+
+        if (!seenEnrollments.add(enrollment.getId())) {
+            return "Iscrizione ripetuta nel lotto";
+        }
+
+        if (enrollment.getStatus() != EnrollmentStatus.PRESENT) {
+            return "Lo studente deve essere marcato come presente per ricevere un voto";
+        }
+
+        if (!exam.getProfessorId().equals(request.getProfessorId())) {
+            return "Solo il professore assegnato può registrare i voti per questo esame";
+        }
+
+        return null;
+    }
+}
@@ -1,6 +1,12 @@
 package it.unimol.exam_management_service.service;
 
+import io.micrometer.core.annotation.Timed;
+import it.unimol.exam_management_service.config.MetricsConfig;
+import it.unimol.exam_management_service.dto.CursorPageDTO;
 import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.dto.GradeStatisticsDTO;
+import it.unimol.exam_management_service.dto.GradesPublishedBatchDTO;
+import it.unimol.exam_management_service.dto.PublishedGradeDTO;
 import it.unimol.exam_management_service.dto.request.CreateGradeRequest;
 import it.unimol.exam_management_service.entity.Exam;
 import it.unimol.exam_management_service.entity.ExamEnrollment;
@@ -9,53 +15,68 @@ import it.unimol.exam_management_service.enums.EnrollmentStatus;
 import it.unimol.exam_management_service.enums.ExamStatus;
 import it.unimol.exam_management_service.enums.GradeStatus;
 import it.unimol.exam_management_service.exception.ResourceNotFoundException;
+import it.unimol.exam_management_service.messaging.EventPublisher;
 import it.unimol.exam_management_service.repository.EnrollmentRepository;
 import it.unimol.exam_management_service.repository.ExamRepository;
 import it.unimol.exam_management_service.repository.GradeRepository;
+import it.unimol.exam_management_service.repository.projection.ExamMetadata;
+import it.unimol.exam_management_service.service.GradeStatisticsService.GradeSnapshot;
 import it.unimol.exam_management_service.util.GradeMapper;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import it.unimol.exam_management_service.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class GradeService {
 
     private final GradeRepository gradeRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final ExamRepository examRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final EventPublisher eventPublisher;
     private final GradeMapper gradeMapper;
+    private final GradeStatisticsService gradeStatisticsService;
+    private final ExamMetadataService examMetadataService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final boolean perGradePublishEvents;
 
     @Autowired
     public GradeService(GradeRepository gradeRepository,
                         EnrollmentRepository enrollmentRepository,
                         ExamRepository examRepository,
-                        RabbitTemplate rabbitTemplate,
-                        GradeMapper gradeMapper) {
+                        EventPublisher eventPublisher,
+                        GradeMapper gradeMapper,
+                        GradeStatisticsService gradeStatisticsService,
+                        ExamMetadataService examMetadataService,
+                        ApplicationEventPublisher applicationEventPublisher,
+                        @Value("${exam.grades.per-grade-publish-events:true}") boolean perGradePublishEvents) {
         this.gradeRepository = gradeRepository;
         this.enrollmentRepository = enrollmentRepository;
         this.examRepository = examRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.eventPublisher = eventPublisher;
         this.gradeMapper = gradeMapper;
+        this.gradeStatisticsService = gradeStatisticsService;
+        this.examMetadataService = examMetadataService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.perGradePublishEvents = perGradePublishEvents;
     }
 
     @Transactional
     public GradeDTO recordGrade(Long examId, CreateGradeRequest request) {
-        // Validate exam exists
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new ResourceNotFoundException("Esame non trovato con ID: " + examId));
+        // Validate exam exists (cached metadata)
+        ExamMetadata exam = examMetadataService.getExamMetadata(examId);
 
-        // Validate enrollment exists
-        ExamEnrollment enrollment = enrollmentRepository.findById(request.getEnrollmentId())
+        // Validate enrollment exists, loading its exam in the same query
+        ExamEnrollment enrollment = enrollmentRepository.findWithExamById(request.getEnrollmentId())
                 .orElseThrow(() -> new ResourceNotFoundException("Iscrizione non trovata con ID: " + request.getEnrollmentId()));
 
         // Validate enrollment belongs to this exam
@@ -69,7 +90,7 @@ public class GradeService {
         }
 
         // Validate professor is assigned to the exam
-        if (!exam.getProfessorId().equals(request.getProfessorId())) {
+        if (!exam.professorId().equals(request.getProfessorId())) {
             throw new IllegalStateException("Solo il professore assegnato può registrare i voti per questo esame");
         }
 
@@ -77,9 +98,11 @@ public class GradeService {
         Optional<ExamGrade> existingGrade = gradeRepository.findByEnrollmentId(request.getEnrollmentId());
 
         ExamGrade grade;
+        GradeSnapshot before = null;
         if (existingGrade.isPresent()) {
             // Update existing grade
             grade = existingGrade.get();
+            before = GradeSnapshot.of(grade);
             grade.setGrade(request.getGrade());
             grade.setHonors(request.getHonors());
             grade.setFeedback(request.getFeedback());
@@ -96,9 +119,10 @@ public class GradeService {
         }
 
         ExamGrade savedGrade = gradeRepository.save(grade);
+        gradeStatisticsService.recordChange(enrollment.getExam(), before, GradeSnapshot.of(savedGrade));
 
         // Publish event
-        rabbitTemplate.convertAndSend("exam-events", "exam.grade.recorded", gradeMapper.toDTO(savedGrade));
+        eventPublisher.publish("exam.grade.recorded", gradeMapper.toDTO(savedGrade));
 
         return gradeMapper.toDTO(savedGrade);
     }
@@ -114,11 +138,19 @@ public class GradeService {
     @Transactional(readOnly = true)
     public List<GradeDTO> getExamGrades(Long examId, Integer minGrade, Integer maxGrade,
                                         Boolean withHonors, Pageable pageable) {
-        Page<ExamGrade> grades = gradeRepository.findGradesWithFilters(examId, minGrade, maxGrade, withHonors, pageable);
+        // Proiezione diretta sulle colonne del DTO, senza caricare le entità
+        return gradeRepository.findDTOsWithFilters(examId, minGrade, maxGrade, withHonors, pageable);
+    }
+
+    // Scorrimento con cursore sull'id del voto, senza offset né conteggio totale
+    @Transactional(readOnly = true)
+    public CursorPageDTO<GradeDTO> scrollExamGrades(Long examId, Integer minGrade, Integer maxGrade,
+                                                    Boolean withHonors, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<GradeDTO> rows = gradeRepository.findDTOsAfter(examId, minGrade, maxGrade, withHonors,
+                after.id(), PageCursor.nextRows(size));
 
-        return grades.stream()
-                .map(gradeMapper::toDTO)
-                .collect(Collectors.toList());
+        return PageCursor.toPage(rows, size, dto -> PageCursor.ofId(dto.getId()));
     }
 
     @Transactional
@@ -131,15 +163,18 @@ public class GradeService {
             throw new IllegalStateException("Questo voto non può più essere modificato");
         }
 
+        GradeSnapshot before = GradeSnapshot.of(grade);
+
         // Update fields
         grade.setGrade(gradeDTO.getGrade());
         grade.setHonors(gradeDTO.getHonors());
         grade.setFeedback(gradeDTO.getFeedback());
 
         ExamGrade updatedGrade = gradeRepository.save(grade);
+        gradeStatisticsService.recordChange(updatedGrade.getEnrollment().getExam(), before, GradeSnapshot.of(updatedGrade));
 
         // Publish event
-        rabbitTemplate.convertAndSend("exam-events", "exam.grade.updated", gradeMapper.toDTO(updatedGrade));
+        eventPublisher.publish("exam.grade.updated", gradeMapper.toDTO(updatedGrade));
 
         return gradeMapper.toDTO(updatedGrade);
     }
@@ -155,43 +190,22 @@ public class GradeService {
         }
 
         gradeRepository.delete(grade);
+        gradeStatisticsService.recordChange(grade.getEnrollment().getExam(), GradeSnapshot.of(grade), null);
 
         // Publish event
-        rabbitTemplate.convertAndSend("exam-events", "exam.grade.deleted", id);
+        eventPublisher.publish("exam.grade.deleted", id);
     }
 
     @Transactional(readOnly = true)
     public List<GradeDTO> getMyGrades(Long studentId, Long courseId) {
-        List<ExamGrade> grades;
-
-        if (courseId != null) {
-            // Filter by course
-            grades = gradeRepository.findByStudentIdAndCourseId(studentId, courseId);
-        } else {
-            // All grades
-            grades = gradeRepository.findByStudentId(studentId);
-        }
-
-        return grades.stream()
-                .map(gradeMapper::toDTO)
-                .collect(Collectors.toList());
+        // Filtro per corso opzionale, proiezione diretta sulle colonne del DTO
+        return gradeRepository.findDTOsByStudentId(studentId, courseId);
     }
 
     @Transactional(readOnly = true)
     public List<GradeDTO> getStudentGrades(Long studentId, Long courseId) {
-        List<ExamGrade> grades;
-
-        if (courseId != null) {
-            // Filter by course
-            grades = gradeRepository.findByStudentIdAndCourseId(studentId, courseId);
-        } else {
-            // All grades
-            grades = gradeRepository.findByStudentId(studentId);
-        }
-
-        return grades.stream()
-                .map(gradeMapper::toDTO)
-                .collect(Collectors.toList());
+        // Filtro per corso opzionale, proiezione diretta sulle colonne del DTO
+        return gradeRepository.findDTOsByStudentId(studentId, courseId);
     }
 
     @Transactional
@@ -199,61 +213,73 @@ public class GradeService {
         ExamGrade grade = gradeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Voto non trovato con ID: " + id));
 
+        GradeSnapshot before = GradeSnapshot.of(grade);
         grade.publish();
         ExamGrade publishedGrade = gradeRepository.save(grade);
+        gradeStatisticsService.recordChange(publishedGrade.getEnrollment().getExam(), before, GradeSnapshot.of(publishedGrade));
 
         // Publish event
-        rabbitTemplate.convertAndSend("exam-events", "exam.grade.published", gradeMapper.toDTO(publishedGrade));
+        eventPublisher.publish("exam.grade.published", gradeMapper.toDTO(publishedGrade));
 
         return gradeMapper.toDTO(publishedGrade);
     }
 
+    /**
+     * Pubblica in blocco i voti valutati di un esame: un solo UPDATE e un solo evento
+     * exam.grade.published.batch con l'elenco dei voti. Gli eventi per singolo voto
+     * restano disponibili (exam.grades.per-grade-publish-events) per i consumer esistenti.
+     */
     @Transactional
-    public void publishAllGradesForExam(Long examId) {
-        List<ExamGrade> grades = gradeRepository.findByExamId(examId);
-
-        grades.stream()
-                .filter(g -> g.getStatus() == GradeStatus.EVALUATED)
-                .forEach(g -> {
-                    g.publish();
-                    gradeRepository.save(g);
-
-                    // Publish event for each grade
-                    rabbitTemplate.convertAndSend("exam-events", "exam.grade.published", gradeMapper.toDTO(g));
-                });
+    public int publishAllGradesForExam(Long examId) {
+        // Precisione al microsecondo, la stessa della colonna DATETIME(6)
+        LocalDateTime publishedDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        // Il lotto è identificato dagli id dei voti, non dalla data di pubblicazione
+        List<Long> gradeIds = gradeRepository.findEvaluatedIdsForUpdate(examId);
+        int publishedCount = gradeIds.isEmpty() ? 0 : gradeRepository.publishEvaluatedGrades(gradeIds, publishedDate);
 
         // Update exam status
         Exam exam = examRepository.findById(examId)
                 .orElseThrow(() -> new ResourceNotFoundException("Esame non trovato con ID: " + examId));
 
+        if (publishedCount > 0) {
+            gradeStatisticsService.recordPublished(exam, publishedCount);
+
+            List<PublishedGradeDTO> publishedGrades = gradeRepository.findPublishedBatch(gradeIds);
+            eventPublisher.publish("exam.grade.published.batch", new GradesPublishedBatchDTO(
+                    exam.getId(), exam.getName(), exam.getCourseId(), publishedDate, publishedGrades));
+
+            if (perGradePublishEvents) {
+                gradeRepository.findPublishedBatchWithEnrollment(gradeIds)
+                        .forEach(g -> eventPublisher.publish("exam.grade.published", gradeMapper.toDTO(g)));
+            }
+        }
+
         exam.setStatus(ExamStatus.COMPLETED);
         examRepository.save(exam);
+        applicationEventPublisher.publishEvent(new ExamChangedEvent(examId));
 
         // Publish exam completed event
-        rabbitTemplate.convertAndSend("exam-events", "exam.completed", examId);
+        eventPublisher.publish("exam.completed", examId);
+
+        return publishedCount;
     }
 
     @Transactional(readOnly = true)
-    public Map<String, Object> getCourseGradeStatistics(Long courseId) {
-        List<ExamGrade> grades = gradeRepository.findByCourseId(courseId);
-
-        Map<String, Object> statistics = new HashMap<>();
-        statistics.put("totalGrades", grades.size());
-
-        List<Integer> validGrades = grades.stream()
-                .filter(g -> g.getGrade() != null)
-                .map(ExamGrade::getGrade)
-                .collect(Collectors.toList());
-
-        if (!validGrades.isEmpty()) {
-            statistics.put("averageGrade", validGrades.stream().mapToInt(Integer::intValue).average().orElse(0));
-            statistics.put("minGrade", validGrades.stream().mapToInt(Integer::intValue).min().orElse(0));
-            statistics.put("maxGrade", validGrades.stream().mapToInt(Integer::intValue).max().orElse(0));
-            statistics.put("passedCount", validGrades.stream().filter(g -> g >= 18).count());
-            statistics.put("failedCount", validGrades.stream().filter(g -> g < 18).count());
-            statistics.put("honorsCount", grades.stream().filter(g -> Boolean.TRUE.equals(g.getHonors())).count());
-        }
+    public GradeStatisticsDTO getCourseGradeStatistics(Long courseId) {
+        // Lettura di una sola riga di grade_statistics, aggiornata a ogni modifica dei voti
+        return gradeStatisticsService.getCourseStatistics(courseId);
+    }
+
+    @Transactional(readOnly = true)
+    public GradeStatisticsDTO getExamGradeStatistics(Long examId) {
+        examRepository.findById(examId)
+                .orElseThrow(() -> new ResourceNotFoundException("Esame non trovato con ID: " + examId));
 
-        return statistics;
+        return gradeStatisticsService.getExamStatistics(examId);
+    }
+
+    @Transactional
+    public int rebuildGradeStatistics() {
+        return gradeStatisticsService.rebuild();
     }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.dto.GradeStatisticsDTO;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.entity.GradeStatistics;
+import it.unimol.exam_management_service.enums.GradeStatus;
+import it.unimol.exam_management_service.enums.StatisticsScope;
+import it.unimol.exam_management_service.repository.GradeRepository;
+import it.unimol.exam_management_service.repository.GradeStatisticsRepository;
+import it.unimol.exam_management_service.repository.projection.ExamGradeDistributionRow;
+import it.unimol.exam_management_service.util.GradeStatisticsMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Mantiene le statistiche dei voti per esame e per corso (tabella grade_statistics).
+ * Ogni modifica a un voto aggiorna in modo incrementale le due righe interessate,
+ * sempre nell'ordine esame → corso per evitare deadlock tra transazioni concorrenti.
+ */
+@Service
+public class GradeStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradeStatisticsService.class);
+
+    private final GradeStatisticsRepository statisticsRepository;
+    private final GradeRepository gradeRepository;
+    private final GradeStatisticsMapper statisticsMapper;
+
+    public GradeStatisticsService(GradeStatisticsRepository statisticsRepository,
+                                  GradeRepository gradeRepository,
+                                  GradeStatisticsMapper statisticsMapper) {
+        this.statisticsRepository = statisticsRepository;
+        this.gradeRepository = gradeRepository;
+        this.statisticsMapper = statisticsMapper;
+    }
+
+    /**
+     * Valori di un voto rilevanti per le statistiche, prima o dopo una modifica
+     */
+    public record GradeSnapshot(Integer grade, Boolean honors, boolean published) {
+
+        public static GradeSnapshot of(ExamGrade grade) {
+            return new GradeSnapshot(grade.getGrade(), grade.getHonors(), grade.getStatus() == GradeStatus.PUBLISHED);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Exam exam, GradeSnapshot before, GradeSnapshot after) {
+        List<GradeSnapshot> removed = before != null ? List.of(before) : List.of();
+        List<GradeSnapshot> added = after != null ? List.of(after) : List.of();
+        recordChanges(exam, removed, added);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(Exam exam, List<GradeSnapshot> removed, List<GradeSnapshot> added) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+
+        for (GradeStatistics statistics : lockRows(exam.getId(), exam.getCourseId())) {
+            removed.forEach(s -> statistics.apply(s.grade(), s.honors(), s.published(), -1));
+            added.forEach(s -> statistics.apply(s.grade(), s.honors(), s.published(), 1));
+        }
+    }
+
+    // Pubblicazione in blocco: cambia solo lo stato dei voti, non i valori
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPublished(Exam exam, long publishedCount) {
+        if (publishedCount == 0) {
+            return;
+        }
+
+        for (GradeStatistics statistics : lockRows(exam.getId(), exam.getCourseId())) {
+            statistics.addPublished(publishedCount);
+        }
+    }
+
+    // L'esame è passato a un altro corso: le sue statistiche si spostano con lui
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moveExam(Exam exam, Long previousCourseId) {
+        if (Objects.equals(previousCourseId, exam.getCourseId())) {
+            return;
+        }
+
+        GradeStatistics examStatistics = statisticsRepository
+                .findForUpdate(StatisticsScope.EXAM, exam.getId())
+                .orElse(null);
+        if (examStatistics == null || examStatistics.isEmpty()) {
+            return;
+        }
+
+        lockRow(StatisticsScope.COURSE, previousCourseId).merge(examStatistics, -1);
+        lockRow(StatisticsScope.COURSE, exam.getCourseId()).merge(examStatistics, 1);
+    }
+
+    @Transactional(readOnly = true)
+    public GradeStatisticsDTO getCourseStatistics(Long courseId) {
+        return statisticsMapper.toDTO(find(StatisticsScope.COURSE, courseId));
+    }
+
+    @Transactional(readOnly = true)
+    public GradeStatisticsDTO getExamStatistics(Long examId) {
+        return statisticsMapper.toDTO(find(StatisticsScope.EXAM, examId));
+    }
+
+    /**
+     * Ricalcola tutte le statistiche da exam_grades e sostituisce il contenuto della tabella.
+     * Da eseguire con poca attività di valutazione in corso.
+     */
+    @Transactional
+    public int rebuild() {
+        Map<String, GradeStatistics> computed = computeFromGrades();
+
+        statisticsRepository.deleteAllInBatch();
+        statisticsRepository.flush();
+        statisticsRepository.saveAll(computed.values());
+
+        logger.info("Statistiche voti ricostruite: {} righe", computed.size());
+        return computed.size();
+    }
+
+    /**
+     * Confronta le righe materializzate con un ricalcolo da exam_grades e restituisce
+     * gli ambiti non allineati (es. "EXAM:12"); non modifica la tabella.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findInconsistencies() {
+        Map<String, GradeStatistics> computed = computeFromGrades();
+        Map<String, GradeStatistics> stored = new LinkedHashMap<>();
+        for (GradeStatistics statistics : statisticsRepository.findAll()) {
+            stored.put(key(statistics.getScope(), statistics.getScopeId()), statistics);
+        }
+
+        List<String> inconsistent = new ArrayList<>();
+        for (Map.Entry<String, GradeStatistics> entry : computed.entrySet()) {
+            GradeStatistics current = stored.remove(entry.getKey());
+            if (current == null || !current.hasSameValuesAs(entry.getValue())) {
+                inconsistent.add(entry.getKey());
+            }
+        }
+        // Righe rimaste senza voti sono corrette solo se vuote
+        stored.forEach((key, statistics) -> {
+            if (!statistics.isEmpty()) {
+                inconsistent.add(key);
+            }
+        });
+
+        return inconsistent;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return statisticsRepository.count() == 0;
+    }
+
+    private Map<String, GradeStatistics> computeFromGrades() {
+        Map<String, GradeStatistics> computed = new LinkedHashMap<>();
+
+        for (ExamGradeDistributionRow row : gradeRepository.getGradeDistributionByExam()) {
+            boolean published = row.getStatus() == GradeStatus.PUBLISHED;
+            computed.computeIfAbsent(key(StatisticsScope.EXAM, row.getExamId()),
+                            k -> new GradeStatistics(StatisticsScope.EXAM, row.getExamId()))
+                    .apply(row.getGrade(), row.getHonors(), published, row.getGradeCount());
+            computed.computeIfAbsent(key(StatisticsScope.COURSE, row.getCourseId()),
+                            k -> new GradeStatistics(StatisticsScope.COURSE, row.getCourseId()))
+                    .apply(row.getGrade(), row.getHonors(), published, row.getGradeCount());
+        }
+
+        return computed;
+    }
+
+    private List<GradeStatistics> lockRows(Long examId, Long courseId) {
+        return List.of(lockRow(StatisticsScope.EXAM, examId), lockRow(StatisticsScope.COURSE, courseId));
+    }
+
+    /**
+     * Blocca la riga di un ambito, creandola se manca. Due transazioni che aggiornano per prime lo stesso
+     * ambito la creano entrambe con insertIfAbsent: la seconda attende il commit della prima invece di fallire
+     * sul vincolo univoco. La verifica iniziale non blocca nulla (una SELECT ... FOR UPDATE su una riga
+     * inesistente prenderebbe in MySQL un gap lock, e due inserimenti concorrenti andrebbero in deadlock).
+     */
+    private GradeStatistics lockRow(StatisticsScope scope, Long scopeId) {
+        if (!statisticsRepository.existsByScopeAndScopeId(scope, scopeId)) {
+            statisticsRepository.insertIfAbsent(scope, scopeId, new long[GradeStatistics.HISTOGRAM_SIZE], LocalDateTime.now());
+        }
+        return statisticsRepository.findForUpdate(scope, scopeId)
+                .orElseThrow(() -> new IllegalStateException("Statistiche non trovate per " + key(scope, scopeId)));
+    }
+
+    private GradeStatistics find(StatisticsScope scope, Long scopeId) {
+        return statisticsRepository.findByScopeAndScopeId(scope, scopeId)
+                .orElseGet(() -> new GradeStatistics(scope, scopeId));
+    }
+
+    private static String key(StatisticsScope scope, Long scopeId) {
+        return scope + ":" + scopeId;
+    }
+}
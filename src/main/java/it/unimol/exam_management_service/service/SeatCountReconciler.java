@@ -0,0 +1,79 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Riallinea periodicamente il contatore dei posti occupati (exams.enrolled_count) con le
+ * iscrizioni effettive, nel caso sia stato modificato fuori dal servizio.
+ * Ogni esame viene corretto nella propria transazione con la riga bloccata, così
+ * le prenotazioni concorrenti (reserveSeat/releaseSeat) attendono la correzione.
+ */
+@Component
+public class SeatCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatCountReconciler.class);
+
+    private final ExamRepository examRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SeatCountReconciler(ExamRepository examRepository,
+                               EnrollmentRepository enrollmentRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.examRepository = examRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${exam.enrollment.seat-reconcile-interval-ms:3600000}")
+    public void reconcileScheduled() {
+        reconcile();
+    }
+
+    /**
+     * Corregge i contatori degli esami non ancora svolti e restituisce quanti ne sono stati modificati
+     */
+    public int reconcile() {
+        List<Long> drifted = transactionTemplate.execute(status ->
+                examRepository.findExamIdsWithSeatCountDrift(LocalDate.now()));
+        if (drifted == null || drifted.isEmpty()) {
+            return 0;
+        }
+
+        int fixed = 0;
+        for (Long examId : drifted) {
+            Boolean changed = transactionTemplate.execute(status -> reconcileExam(examId));
+            if (Boolean.TRUE.equals(changed)) {
+                fixed++;
+            }
+        }
+
+        logger.warn("Contatore posti riallineato per {} esami", fixed);
+        return fixed;
+    }
+
+    private boolean reconcileExam(Long examId) {
+        return examRepository.findByIdForUpdate(examId)
+                .map(exam -> {
+                    // Ricontrollo a riga bloccata: il disallineamento potrebbe essere già stato corretto
+                    int actual = (int) enrollmentRepository.countSeatHoldersByExamId(examId);
+                    if (actual == exam.getEnrolledCount()) {
+                        return false;
+                    }
+                    logger.info("Esame ID: {} - contatore posti {} corretto a {}", examId, exam.getEnrolledCount(), actual);
+                    examRepository.updateEnrolledCount(examId, actual);
+                    return true;
+                })
+                .orElse(false);
+    }
+}
@@ -0,0 +1,24 @@
+package it.unimol.exam_management_service.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Calcola ETag forti a partire dai valori che determinano una risposta (versioni, conteggi, data corrente),
+ * così una lettura condizionale si risolve senza caricare le entità né serializzare il corpo.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Object... parts) {
+        String state = Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        return DigestUtils.md5DigestAsHex(state.getBytes(StandardCharsets.UTF_8));
+    }
+}
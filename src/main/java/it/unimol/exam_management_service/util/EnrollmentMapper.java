@@ -2,6 +2,7 @@ package it.unimol.exam_management_service.util;
 
 import it.unimol.exam_management_service.dto.EnrollmentDTO;
 import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.repository.projection.ExamMetadata;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -33,4 +34,31 @@ public class EnrollmentMapper {
 
         return dto;
     }
+
+    /**
+     * Converte una nuova iscrizione prendendo nome e data dell'esame dai dati in cache,
+     * senza inizializzare il riferimento lazy all'esame
+     */
+    public EnrollmentDTO toDTO(ExamEnrollment enrollment, ExamMetadata exam) {
+        if (enrollment == null) {
+            return null;
+        }
+
+        EnrollmentDTO dto = new EnrollmentDTO();
+        dto.setId(enrollment.getId());
+        dto.setExamId(exam.id());
+        dto.setExamName(exam.name());
+        dto.setExamDate(exam.date());
+        dto.setStudentId(enrollment.getStudentId());
+        dto.setStatus(enrollment.getStatus());
+        dto.setEnrollmentDate(enrollment.getEnrollmentDate());
+        dto.setNotes(enrollment.getNotes());
+        dto.setHasGrade(enrollment.hasGrade());
+
+        if (enrollment.hasGrade()) {
+            dto.setGrade(enrollment.getGrade().getGrade());
+        }
+
+        return dto;
+    }
 }
\ No newline at end of file
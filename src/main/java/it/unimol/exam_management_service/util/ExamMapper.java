@@ -2,6 +2,7 @@ package it.unimol.exam_management_service.util;
 
 import it.unimol.exam_management_service.dto.ExamDTO;
 import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.repository.projection.ExamMetadata;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -36,6 +37,59 @@ public class ExamMapper {
         return dto;
     }
 
+    /**
+     * Converte l'esame usando un conteggio iscrizioni già calcolato,
+     * senza inizializzare la collezione lazy delle iscrizioni
+     */
+    public ExamDTO toDTO(Exam exam, long currentEnrollments) {
+        if (exam == null) {
+            return null;
+        }
+
+        ExamDTO dto = new ExamDTO();
+        dto.setId(exam.getId());
+        dto.setName(exam.getName());
+        dto.setDate(exam.getDate());
+        dto.setTime(exam.getTime());
+        dto.setCourseId(exam.getCourseId());
+        dto.setProfessorId(exam.getProfessorId());
+        dto.setClassroomId(exam.getClassroomId());
+        dto.setMaxStudents(exam.getMaxStudents());
+        dto.setEnrollmentDeadline(exam.getEnrollmentDeadline());
+        dto.setStatus(exam.getStatus());
+        dto.setNotes(exam.getNotes());
+        dto.setCurrentEnrollments((int) currentEnrollments);
+        dto.setEnrollmentOpen(exam.isEnrollmentOpen(currentEnrollments));
+
+        return dto;
+    }
+
+    /**
+     * Converte i dati anagrafici letti dalla cache, con il conteggio iscrizioni calcolato a parte
+     */
+    public ExamDTO toDTO(ExamMetadata exam, long currentEnrollments) {
+        if (exam == null) {
+            return null;
+        }
+
+        ExamDTO dto = new ExamDTO();
+        dto.setId(exam.id());
+        dto.setName(exam.name());
+        dto.setDate(exam.date());
+        dto.setTime(exam.time());
+        dto.setCourseId(exam.courseId());
+        dto.setProfessorId(exam.professorId());
+        dto.setClassroomId(exam.classroomId());
+        dto.setMaxStudents(exam.maxStudents());
+        dto.setEnrollmentDeadline(exam.enrollmentDeadline());
+        dto.setStatus(exam.status());
+        dto.setNotes(exam.notes());
+        dto.setCurrentEnrollments((int) currentEnrollments);
+        dto.setEnrollmentOpen(exam.isEnrollmentOpen(currentEnrollments));
+
+        return dto;
+    }
+
     public Exam toEntity(ExamDTO dto) {
         if (dto == null) {
             return null;
@@ -0,0 +1,93 @@
+package it.unimol.exam_management_service.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import it.unimol.exam_management_service.enums.ExportFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Scrive le righe di un export una alla volta (NDJSON o CSV) man mano che arrivano dal database:
+ * la memoria usata non dipende dal numero di righe.
+ */
+@Component
+public class ExportWriter {
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final ObjectWriter jsonWriter;
+
+    public ExportWriter(ObjectMapper objectMapper) {
+        this.jsonWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Colonna dell'export CSV: intestazione e valore letto dalla riga
+     */
+    public record Column<T>(String header, Function<T, Object> value) {
+    }
+
+    public <T> long write(Stream<T> rows, ExportFormat format, List<Column<T>> columns,
+                          OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long count = 0;
+
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(writer, columns.stream().map(column -> (Object) column.header()).toList());
+        }
+
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(writer, columns.stream().map(column -> column.value().apply(row)).toList());
+            } else {
+                jsonWriter.writeValue(writer, row);
+                writer.write('\n');
+            }
+            count++;
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: virgolette attorno ai valori con separatori, virgolette o a capo.
+    // I testi che iniziano come una formula (= + - @, tab, a capo) ricevono un apice davanti,
+    // così i fogli di calcolo li aprono come testo e non li eseguono
+    static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+        if (!(value instanceof Number) && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
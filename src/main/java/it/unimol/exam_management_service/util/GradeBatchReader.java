@@ -0,0 +1,58 @@
+package it.unimol.exam_management_service.util;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import it.unimol.exam_management_service.dto.request.CreateGradeRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Legge un array JSON di CreateGradeRequest un elemento alla volta, fermandosi oltre
+ * exam.grades.batch-max-rows righe: la memoria usata è limitata anche con un corpo più grande.
+ * Il lotto viene letto per intero prima di aprire la transazione, così un upload lento
+ * non tiene occupata una connessione al database.
+ */
+@Component
+public class GradeBatchReader {
+
+    private final ObjectReader reader;
+    private final int maxRows;
+
+    public GradeBatchReader(ObjectMapper objectMapper,
+                            @Value("${exam.grades.batch-max-rows:2000}") int maxRows) {
+        this.reader = objectMapper.readerFor(CreateGradeRequest.class);
+        this.maxRows = maxRows;
+    }
+
+    public List<CreateGradeRequest> read(InputStream inputStream) {
+        List<CreateGradeRequest> requests = new ArrayList<>();
+        try (MappingIterator<CreateGradeRequest> iterator = reader.readValues(inputStream)) {
+            while (iterator.hasNext()) {
+                if (requests.size() >= maxRows) {
+                    throw new IllegalArgumentException("Il lotto supera il limite di " + maxRows + " voti");
+                }
+                requests.add(iterator.next());
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Lotto di voti non leggibile: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw translate(e);
+        }
+        return requests;
+    }
+
+    // MappingIterator segnala JSON malformato con eccezioni non controllate
+    private static RuntimeException translate(RuntimeException e) {
+        if (e instanceof RuntimeJsonMappingException || e.getCause() instanceof IOException) {
+            return new IllegalArgumentException("Formato del lotto di voti non valido: " + e.getMessage(), e);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,54 @@
+package it.unimol.exam_management_service.util;
+
+import it.unimol.exam_management_service.dto.GradeStatisticsDTO;
+import it.unimol.exam_management_service.entity.GradeStatistics;
+import it.unimol.exam_management_service.enums.StatisticsScope;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class GradeStatisticsMapper {
+
+    public static final String HONORS_KEY = "30 e lode";
+
+    public GradeStatisticsDTO toDTO(GradeStatistics statistics) {
+        if (statistics == null) {
+            return null;
+        }
+
+        long[] histogram = statistics.getHistogram();
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int grade = 18; grade <= 30; grade++) {
+            distribution.put(String.valueOf(grade), histogram[grade]);
+        }
+        distribution.put(HONORS_KEY, histogram[GradeStatistics.HONORS_BUCKET]);
+
+        GradeStatisticsDTO dto = new GradeStatisticsDTO();
+        if (statistics.getScope() == StatisticsScope.COURSE) {
+            dto.setCourseId(statistics.getScopeId());
+        } else {
+            dto.setExamId(statistics.getScopeId());
+        }
+        dto.setTotalGrades(statistics.getTotalGrades());
+        dto.setPublishedCount(statistics.getPublishedCount());
+        dto.setDistribution(distribution);
+
+        long count = statistics.getGradeCount();
+        if (count > 0) {
+            double average = (double) statistics.getGradeSum() / count;
+            double variance = (double) statistics.getGradeSumSquares() / count - average * average;
+
+            dto.setAverageGrade(average);
+            dto.setStandardDeviation(Math.sqrt(Math.max(variance, 0)));
+            dto.setMinGrade(statistics.getMinGrade());
+            dto.setMaxGrade(statistics.getMaxGrade());
+            dto.setPassedCount(statistics.getPassedCount());
+            dto.setFailedCount(statistics.getFailedCount());
+            dto.setHonorsCount(statistics.getHonorsCount());
+        }
+
+        return dto;
+    }
+}
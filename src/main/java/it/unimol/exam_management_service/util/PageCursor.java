@@ -0,0 +1,71 @@
+package it.unimol.exam_management_service.util;
+
+import it.unimol.exam_management_service.dto.CursorPageDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Posizione nell'ordinamento (timestamp, id) dell'ultima riga restituita, usata per la
+ * paginazione keyset: la pagina successiva parte dalla riga dopo questa posizione invece
+ * che da un offset, quindi il costo non cresce con la profondità della pagina.
+ * Verso il client viaggia come token opaco (Base64 URL-safe).
+ */
+public record PageCursor(LocalDateTime timestamp, long id) {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Precede qualsiasi riga: usato per la prima pagina (DATETIME di MySQL parte dall'anno 1000)
+    public static final PageCursor START = new PageCursor(LocalDateTime.of(1000, 1, 1, 0, 0), 0L);
+
+    private static final String SEPARATOR = "|";
+
+    // Cursore per elenchi ordinati solo per id
+    public static PageCursor ofId(long id) {
+        return new PageCursor(START.timestamp(), id);
+    }
+
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            LocalDateTime timestamp = LocalDateTime.parse(value.substring(0, separator));
+            long id = Long.parseLong(value.substring(separator + 1));
+            return new PageCursor(timestamp, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursore di paginazione non valido");
+        }
+    }
+
+    public String encode() {
+        String value = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Una riga in più rispetto alla pagina indica se esiste una pagina successiva, senza COUNT
+    public static Pageable nextRows(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("La dimensione della pagina deve essere tra 1 e " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.ofSize(size + 1);
+    }
+
+    public static <T> CursorPageDTO<T> toPage(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows, null);
+        }
+
+        List<T> items = rows.subList(0, size);
+        return new CursorPageDTO<>(List.copyOf(items), cursorOf.apply(items.get(size - 1)).encode());
+    }
+}
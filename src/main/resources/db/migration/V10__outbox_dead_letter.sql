@@ -0,0 +1,2 @@
+-- Eventi rifiutati dal broker per exam.outbox.max-attempts volte: esclusi dal relay e conservati per l'analisi
+ALTER TABLE outbox_events ADD COLUMN failed_at DATETIME(6);
@@ -0,0 +1,3 @@
+-- Caricamento della finestra di date di ExamCalendarIndex (ExamRepository.findMetadataBetween):
+-- range su `date` senza filtro per corso o docente
+CREATE INDEX idx_exams_date ON exams (`date`);
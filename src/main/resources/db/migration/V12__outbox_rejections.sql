@@ -0,0 +1,3 @@
+-- Rifiuti del broker contati a parte dai tentativi: i fallimenti con broker non disponibile
+-- aumentano attempts ma non avvicinano l'evento all'esclusione (failed_at)
+ALTER TABLE outbox_events ADD COLUMN rejections INT NOT NULL DEFAULT 0;
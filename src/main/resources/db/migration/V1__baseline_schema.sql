@@ -0,0 +1,43 @@
+-- Schema iniziale, equivalente a quello generato in precedenza da ddl-auto=update.
+-- I database già esistenti vengono marcati come baseline (versione 1) e non eseguono questo script.
+
+CREATE TABLE exams (
+    id                  BIGINT        NOT NULL AUTO_INCREMENT,
+    name                VARCHAR(255)  NOT NULL,
+    `date`              DATE          NOT NULL,
+    `time`              TIME(6)       NOT NULL,
+    course_id           BIGINT        NOT NULL,
+    professor_id        BIGINT        NOT NULL,
+    classroom_id        BIGINT        NOT NULL,
+    max_students        INT           NOT NULL,
+    enrollment_deadline DATE          NOT NULL,
+    status              VARCHAR(32)   NOT NULL,
+    notes               VARCHAR(1000),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE exam_enrollments (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    student_id      BIGINT       NOT NULL,
+    exam_id         BIGINT       NOT NULL,
+    enrollment_date DATETIME(6)  NOT NULL,
+    status          VARCHAR(32)  NOT NULL,
+    notes           VARCHAR(500),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_enrollments_exam FOREIGN KEY (exam_id) REFERENCES exams (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE exam_grades (
+    id              BIGINT        NOT NULL AUTO_INCREMENT,
+    grade_value     INT,
+    has_honors      BIT,
+    status          VARCHAR(32)   NOT NULL,
+    evaluation_date DATETIME(6)   NOT NULL,
+    professor_id    BIGINT        NOT NULL,
+    feedback        VARCHAR(1000),
+    published_date  DATETIME(6),
+    enrollment_id   BIGINT        NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_grades_enrollment UNIQUE (enrollment_id),
+    CONSTRAINT fk_grades_enrollment FOREIGN KEY (enrollment_id) REFERENCES exam_enrollments (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,20 @@
+-- Indici per le ricerche più frequenti su iscrizioni, esami e voti.
+-- Il vincolo univoco (student_id, exam_id) fallisce se esistono iscrizioni duplicate:
+-- in quel caso vanno rimosse manualmente prima di eseguire la migrazione.
+
+-- existsByStudentIdAndExamId / findByStudentIdAndExamId
+ALTER TABLE exam_enrollments
+    ADD CONSTRAINT uk_enrollments_student_exam UNIQUE (student_id, exam_id);
+
+-- Iscrizioni di un esame filtrate per stato e ordinate per data
+CREATE INDEX idx_enrollments_exam_status ON exam_enrollments (exam_id, status, enrollment_date);
+
+-- "Le mie iscrizioni" ordinate per data
+CREATE INDEX idx_enrollments_student_date ON exam_enrollments (student_id, enrollment_date);
+
+-- Esami per corso e per docente in un intervallo di date
+CREATE INDEX idx_exams_course_date ON exams (course_id, `date`);
+CREATE INDEX idx_exams_professor_date ON exams (professor_id, `date`);
+
+-- Voti di un'iscrizione per stato
+CREATE INDEX idx_grades_enrollment_status ON exam_grades (enrollment_id, status);
@@ -0,0 +1,9 @@
+-- Contatore dei posti occupati per la prenotazione atomica dei posti (ExamRepository.reserveSeat)
+ALTER TABLE exams ADD COLUMN enrolled_count INT NOT NULL DEFAULT 0;
+
+-- Le iscrizioni ritirate non occupano posti
+UPDATE exams e
+SET enrolled_count = (SELECT COUNT(*)
+                      FROM exam_enrollments en
+                      WHERE en.exam_id = e.id
+                        AND en.status <> 'WITHDREW');
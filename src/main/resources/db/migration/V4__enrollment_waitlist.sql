@@ -0,0 +1,7 @@
+-- Le colonne di stato create da Hibernate erano di tipo ENUM: si convertono in VARCHAR
+-- così nuovi valori (es. WAITLISTED) non richiedono altre migrazioni.
+ALTER TABLE exams MODIFY status VARCHAR(32) NOT NULL;
+ALTER TABLE exam_enrollments MODIFY status VARCHAR(32) NOT NULL;
+ALTER TABLE exam_grades MODIFY status VARCHAR(32) NOT NULL;
+
+-- La testa della lista d'attesa si legge da idx_enrollments_exam_status (exam_id, status, enrollment_date)
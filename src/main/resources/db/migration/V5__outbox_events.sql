@@ -0,0 +1,16 @@
+-- Outbox degli eventi RabbitMQ, scritta nella stessa transazione delle modifiche (EventPublisher)
+CREATE TABLE outbox_events (
+    id           BIGINT         NOT NULL AUTO_INCREMENT,
+    exchange     VARCHAR(100)   NOT NULL,
+    routing_key  VARCHAR(100)   NOT NULL,
+    payload      LONGTEXT       NOT NULL,
+    payload_type VARCHAR(255),
+    created_at   DATETIME(6)    NOT NULL,
+    published_at DATETIME(6),
+    attempts     INT            NOT NULL DEFAULT 0,
+    last_error   VARCHAR(1000),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Il relay legge gli eventi non ancora consegnati in ordine di id
+CREATE INDEX idx_outbox_pending ON outbox_events (published_at, id);
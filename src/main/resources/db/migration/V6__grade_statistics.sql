@@ -0,0 +1,20 @@
+-- Statistiche dei voti materializzate per esame e per corso (GradeStatisticsService).
+-- La tabella viene popolata all'avvio da GradeStatisticsInitializer se è vuota.
+CREATE TABLE grade_statistics (
+    id                BIGINT        NOT NULL AUTO_INCREMENT,
+    scope             VARCHAR(16)   NOT NULL,
+    scope_id          BIGINT        NOT NULL,
+    total_grades      BIGINT        NOT NULL,
+    grade_count       BIGINT        NOT NULL,
+    grade_sum         BIGINT        NOT NULL,
+    grade_sum_squares BIGINT        NOT NULL,
+    min_grade         INT,
+    max_grade         INT,
+    passed_count      BIGINT        NOT NULL,
+    honors_count      BIGINT        NOT NULL,
+    published_count   BIGINT        NOT NULL,
+    histogram         VARCHAR(400)  NOT NULL,
+    updated_at        DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_grade_statistics_scope UNIQUE (scope, scope_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,10 @@
+-- Esami disponibili (ExamRepository.findAvailableExams): filtro su stato e scadenza,
+-- il confronto enrolled_count < max_students si valuta sull'indice senza leggere la riga
+CREATE INDEX idx_exams_availability ON exams (status, enrollment_deadline, enrolled_count, max_students);
+
+-- Riallinea i contatori: le iscrizioni in lista d'attesa non occupano posti
+UPDATE exams e
+SET enrolled_count = (SELECT COUNT(*)
+                      FROM exam_enrollments en
+                      WHERE en.exam_id = e.id
+                        AND en.status NOT IN ('WITHDREW', 'WAITLISTED'));
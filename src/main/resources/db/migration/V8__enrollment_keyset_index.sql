@@ -0,0 +1,3 @@
+-- Paginazione keyset di tutte le iscrizioni (EnrollmentRepository.findDTOsAfter):
+-- la pagina successiva è un range su (enrollment_date, id) invece di un OFFSET
+CREATE INDEX idx_enrollments_date ON exam_enrollments (enrollment_date, id);
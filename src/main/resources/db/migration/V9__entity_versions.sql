@@ -0,0 +1,4 @@
+-- Versione per il controllo ottimistico delle modifiche e per gli ETag delle letture
+-- (Exam.version, ExamEnrollment.version); le prenotazioni dei posti non la incrementano
+ALTER TABLE exams ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE exam_enrollments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
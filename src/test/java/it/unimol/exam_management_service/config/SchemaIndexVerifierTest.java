@@ -0,0 +1,52 @@
+package it.unimol.exam_management_service.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Schema creato dalle migrazioni Flyway (H2 in modalità MySQL, come LoadTestServer) invece che da Hibernate:
+ * ddl-auto=validate fa fallire l'avvio se entità e migrazioni divergono (colonne, tipi, tabelle).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema-verifier;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class SchemaIndexVerifierTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void migrationsAreAllApplied() {
+        MigrationInfo[] applied = flyway.info().applied();
+
+        assertThat(applied).isNotEmpty().allMatch(migration -> migration.getState() == MigrationState.SUCCESS);
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void migrationsCreateAllVerifiedIndexes() throws Exception {
+        SchemaIndexVerifier verifier = new SchemaIndexVerifier(dataSource, true);
+
+        assertThat(verifier.findMissingIndexes()).isEmpty();
+    }
+}
@@ -0,0 +1,202 @@
+package it.unimol.exam_management_service.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimol.exam_management_service.config.CacheConfig;
+import it.unimol.exam_management_service.datasource.ReadYourWrites;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.enums.ExamStatus;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.metrics.EnrollmentRejections;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import it.unimol.exam_management_service.service.EnrollmentService;
+import it.unimol.exam_management_service.service.ExamCalendarIndex;
+import it.unimol.exam_management_service.service.ExamMetadataService;
+import it.unimol.exam_management_service.service.ExamService;
+import it.unimol.exam_management_service.service.GradeStatisticsService;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import it.unimol.exam_management_service.util.ExamMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static it.unimol.exam_management_service.support.TestFixtures.authenticateAsAdmin;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Letture condizionali di ExamController ed EnrollmentController: 304 finché i dati non cambiano,
+ * 200 con un nuovo ETag dopo una modifica.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({CacheConfig.class, ExamMetadataService.class, ExamService.class, ExamMapper.class,
+        ExamCalendarIndex.class, EnrollmentService.class, EnrollmentMapper.class, SecurityUtils.class,
+        ReadYourWrites.class, EnrollmentRejections.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConditionalRequestTest {
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ExamCalendarIndex examCalendarIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockMvc mockMvc;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new ExamController(examService), new EnrollmentController(enrollmentService)).build();
+        statistics = statistics(entityManagerFactory);
+        authenticateAsAdmin();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        enrollmentRepository.deleteAll();
+        examRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.EXAM_METADATA).clear();
+    }
+
+    @Test
+    void unchangedExamIsNotModifiedWithoutLoadingIt() throws Exception {
+        Long examId = persistExam().getId();
+        String url = "/api/v1/exams/" + examId;
+        String etag = fetchETag(url);
+
+        statistics.clear();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Dati anagrafici dalla cache: solo il contatore degli iscritti
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        examService.updateExamStatus(examId, ExamStatus.CANCELLED);
+
+        assertThat(fetchETag(url, etag)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void availableExamsChangeWhenASeatIsTaken() throws Exception {
+        Long examId = persistExam().getId();
+        String url = "/api/v1/exams/available";
+        String etag = fetchETag(url);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> examRepository.reserveSeat(examId));
+
+        assertThat(fetchETag(url, etag)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void calendarChangesWithEnrollmentsAndFilters() throws Exception {
+        Exam exam = persistExam();
+        String url = "/api/v1/exams/calendar";
+        String etag = fetchETag(url);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(fetchETag(url + "?courseId=99", etag)).isNotEqualTo(etag);
+
+        enrollmentRepository.save(new ExamEnrollment(1L, exam));
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> examRepository.reserveSeat(exam.getId()));
+        // Il numero di iscritti del calendario in memoria si riallinea al ricaricamento periodico
+        examCalendarIndex.reload();
+
+        assertThat(fetchETag(url, etag)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void myEnrollmentsChangeWithEnrollmentStatus() throws Exception {
+        ExamEnrollment enrollment = enrollmentRepository.save(new ExamEnrollment(7L, persistExam()));
+        String url = "/api/v1/enrollments/my?studentId=7";
+        String etag = fetchETag(url);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        enrollment.setStatus(EnrollmentStatus.PRESENT);
+        enrollmentRepository.save(enrollment);
+
+        assertThat(fetchETag(url, etag)).isNotEqualTo(etag);
+    }
+
+    private String fetchETag(String url) throws Exception {
+        return fetchETag(url, null);
+    }
+
+    // Richiesta con l'ETag precedente: deve restituire 200 e un solo ETag
+    private String fetchETag(String url, String previousETag) throws Exception {
+        var request = get(url);
+        if (previousETag != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, previousETag);
+        }
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getHeaders(HttpHeaders.ETAG)).hasSize(1);
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    // Salvato senza passare dal servizio: il calendario in memoria va ricaricato
+    private Exam persistExam() {
+        Exam exam = examRepository.save(exam(10));
+        examCalendarIndex.reload();
+        return exam;
+    }
+}
@@ -0,0 +1,180 @@
+package it.unimol.exam_management_service.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.metrics.EnrollmentRejections;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import it.unimol.exam_management_service.service.EnrollmentService;
+import it.unimol.exam_management_service.service.ExamCalendarIndex;
+import it.unimol.exam_management_service.service.ExamMetadataService;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static it.unimol.exam_management_service.support.TestFixtures.authenticate;
+import static it.unimol.exam_management_service.support.TestFixtures.enrollmentRequest;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Due database H2 in memoria fanno da primario e da replica. La replica è una copia del primario
+ * con il nome dell'esame modificato, così ogni lettura rivela da quale database arriva.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "exam.datasource.replica.enabled=true",
+        "exam.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "exam.datasource.replica.username=sa",
+        "exam.datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+        "exam.datasource.replica.max-lag=PT5S"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({ReadReplicaDataSourceConfig.class, ReadYourWrites.class, SecurityUtils.class, EnrollmentService.class,
+        EnrollmentMapper.class, ExamMetadataService.class, ExamCalendarIndex.class, EnrollmentRejections.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private ExamMetadataService examMetadataService;
+
+    @Autowired
+    private ExamCalendarIndex examCalendarIndex;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:primary", "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private Long examId;
+
+    @BeforeEach
+    void setUp() {
+        examId = examRepository.save(exam(10)).getId();
+        copyPrimaryToReplica();
+        replica.update("UPDATE exams SET name = 'Copia replica' WHERE id = ?", examId);
+        setReplicaLag(0);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        enrollmentRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(readExamName(true)).isEqualTo("Copia replica");
+        assertThat(readExamName(false)).isEqualTo("Analisi I");
+        // Le letture del repository fuori da una transazione del servizio sono readOnly
+        assertThat(examRepository.findById(examId).orElseThrow().getName()).isEqualTo("Copia replica");
+    }
+
+    @Test
+    void laggingOrUnreachableReplicaFallsBackToPrimary() {
+        setReplicaLag(30);
+        assertThat(readExamName(true)).isEqualTo("Analisi I");
+
+        setReplicaLag(1);
+        assertThat(readExamName(true)).isEqualTo("Copia replica");
+
+        replica.execute("DROP TABLE replica_lag");
+        replicaLagMonitor.checkLag();
+        assertThat(readExamName(true)).isEqualTo("Analisi I");
+    }
+
+    @Test
+    void studentReadsOwnEnrollmentRightAfterEnrolling() {
+        authenticate("7", "ROLE_STUDENTE");
+        enrollmentService.enrollToExam(examId, enrollmentRequest(7L));
+
+        // Lo studente vede la nuova iscrizione, che la replica non ha ancora
+        assertThat(enrollmentService.getMyEnrollments(7L, null)).hasSize(1);
+
+        // Gli altri utenti continuano a leggere dalla replica
+        authenticate("1", "ROLE_ADMIN");
+        assertThat(enrollmentService.getMyEnrollments(7L, null)).isEmpty();
+    }
+
+    @Test
+    void cachedMetadataIsLoadedFromPrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        String name = readOnly.execute(status -> examMetadataService.getExamMetadata(examId).name());
+
+        assertThat(name).isEqualTo("Analisi I");
+    }
+
+    @Test
+    void calendarIndexIsLoadedFromPrimary() {
+        LocalDate date = LocalDate.now().plusDays(30);
+
+        examCalendarIndex.reload();
+
+        assertThat(examCalendarIndex.find(date, date, null, null))
+                .extracting(entry -> entry.exam().name())
+                .containsExactly("Analisi I");
+    }
+
+    private String readExamName(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> examRepository.findById(examId).orElseThrow().getName());
+    }
+
+    // La replica diventa una copia esatta del primario (schema e dati)
+    private void copyPrimaryToReplica() {
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+    }
+
+    private void setReplicaLag(int seconds) {
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds INT)");
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag VALUES (?)", seconds);
+        replicaLagMonitor.checkLag();
+    }
+}
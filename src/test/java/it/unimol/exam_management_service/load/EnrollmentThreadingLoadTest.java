@@ -0,0 +1,99 @@
+package it.unimol.exam_management_service.load;
+
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.load.LoadDriver.LoadRequest;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confronto di throughput e p99 di POST /exams/{examId}/enroll tra thread di piattaforma
+ * e virtual thread (profilo virtual-threads, solo se la JVM è almeno Java 21).
+ * L'applicazione viene avviata una volta per modalità (LoadTestServer), con lo stesso pool di connessioni.
+ * Escluso dalla build normale: mvn -Pload-test test (oppure -Pload-test,java21 per entrambe le modalità).
+ */
+@Tag("load")
+class EnrollmentThreadingLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentThreadingLoadTest.class);
+
+    private static final String ENROLL = "POST /exams/{examId}/enroll";
+    private static final int EXAMS = 20;
+    private static final int SEATS = 100;
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int REQUESTS = 4000;
+    // Oltre i 200 thread di Tomcat, così in modalità piattaforma le richieste si accodano
+    private static final int CONCURRENCY = 400;
+
+    private final LoadDriver driver = new LoadDriver();
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        Map<String, LatencyStats> results = new LinkedHashMap<>();
+        results.put("platform", run("platform", "test"));
+        if (Runtime.version().feature() >= 21) {
+            results.put("virtual", run("virtual", "test", "virtual-threads"));
+        } else {
+            logger.warn("Virtual thread non disponibili su Java {}: eseguita solo la modalità piattaforma",
+                    Runtime.version().feature());
+        }
+
+        results.forEach((mode, stats) -> logger.info("[{}] {}", mode, stats));
+    }
+
+    private LatencyStats run(String mode, String... profiles) throws Exception {
+        try (LoadTestServer server = LoadTestServer.start("threading-" + mode, profiles)) {
+            EnrollmentRepository enrollmentRepository = server.getBean(EnrollmentRepository.class);
+            List<Long> examIds = seedExams(server.getBean(ExamRepository.class));
+
+            // Riscaldamento (JIT, pool di connessioni) con studenti diversi da quelli misurati
+            driver.run(enrollments(server, examIds, 1_000_000, WARMUP_REQUESTS), CONCURRENCY);
+            LatencyStats stats = driver.run(enrollments(server, examIds, 1, REQUESTS), CONCURRENCY).get(ENROLL);
+
+            // Sotto carico la capienza non viene mai superata
+            for (Long examId : examIds) {
+                assertThat(enrollmentRepository.countSeatHoldersByExamId(examId)).isEqualTo(SEATS);
+            }
+            return stats;
+        }
+    }
+
+    private List<Long> seedExams(ExamRepository examRepository) {
+        List<Long> examIds = new ArrayList<>();
+        for (int i = 0; i < EXAMS; i++) {
+            Exam exam = exam("Esame " + i, (long) i, LocalDate.now().plusDays(30), SEATS);
+            examIds.add(examRepository.save(exam).getId());
+        }
+        return examIds;
+    }
+
+    // Ogni studente si iscrive a un esame
+    private static List<LoadRequest> enrollments(LoadTestServer server, List<Long> examIds,
+                                                 long firstStudentId, int requests) {
+        List<LoadRequest> prepared = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            long studentId = firstStudentId + i;
+            Long examId = examIds.get(i % examIds.size());
+            prepared.add(new LoadRequest(ENROLL, HttpRequest.newBuilder(server.uri("/exams/" + examId + "/enroll"))
+                    .header("Authorization", server.bearer(String.valueOf(studentId), "studente"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"studentId\":" + studentId + "}"))
+                    .build(), Set.of(201)));
+        }
+        return prepared;
+    }
+}
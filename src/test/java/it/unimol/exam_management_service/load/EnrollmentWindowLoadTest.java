@@ -0,0 +1,175 @@
+package it.unimol.exam_management_service.load;
+
+import it.unimol.exam_management_service.load.LoadDataSeeder.GradingExam;
+import it.unimol.exam_management_service.load.LoadDataSeeder.Plan;
+import it.unimol.exam_management_service.load.LoadDataSeeder.SeededData;
+import it.unimol.exam_management_service.load.LoadDriver.LoadRequest;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.service.ExamCalendarIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sessione d'esame completa su un calendario realistico, senza MySQL né RabbitMQ (vedi LoadTestServer):
+ * apertura delle iscrizioni con il calendario interrogato in parallelo, registrazione dei voti
+ * in blocco e pubblicazione. Per ogni fase vengono registrati throughput e p50/p95/p99 per endpoint.
+ * Le dimensioni si cambiano con le proprietà di sistema load.* (es. -Dload.enrollments=500000).
+ * Escluso dalla build normale: mvn -Pload-test test -Dtest=EnrollmentWindowLoadTest
+ */
+@Tag("load")
+class EnrollmentWindowLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentWindowLoadTest.class);
+
+    private static final Plan PLAN = new Plan(
+            Integer.getInteger("load.exams", 3_000),
+            Integer.getInteger("load.enrollments", 200_000),
+            Integer.getInteger("load.stampede.exams", 10),
+            Integer.getInteger("load.stampede.capacity", 200),
+            Integer.getInteger("load.grading.exams", 20),
+            Integer.getInteger("load.grading.students", 200));
+    private static final int STAMPEDE_STUDENTS = Integer.getInteger("load.stampede.students", 5_000);
+    private static final int CALENDAR_POLLS = Integer.getInteger("load.calendar.polls", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 200);
+    // Un lotto per docente alla volta, come dal pannello di registrazione dei voti
+    private static final int GRADING_CONCURRENCY = 4;
+
+    private static final String ENROLL = "POST /exams/{examId}/enroll";
+    private static final String CALENDAR = "GET /exams/calendar";
+    private static final String GRADE_BATCH = "POST /exams/{examId}/grades/batch";
+    private static final String PUBLISH_ALL = "PUT /exams/{examId}/grades/publish-all";
+
+    private final LoadDriver driver = new LoadDriver();
+    private final Map<String, Map<String, LatencyStats>> report = new LinkedHashMap<>();
+
+    @Test
+    void examSession() throws Exception {
+        try (LoadTestServer server = LoadTestServer.start("session")) {
+            JdbcTemplate jdbcTemplate = server.getBean(JdbcTemplate.class);
+            long started = System.nanoTime();
+            SeededData data = new LoadDataSeeder(jdbcTemplate).seed(PLAN);
+            server.getBean(ExamCalendarIndex.class).reload();
+            logger.info("Dati di prova: {} esami, {} iscrizioni in {} s", PLAN.exams(),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exam_enrollments", Long.class),
+                    (System.nanoTime() - started) / 1_000_000_000);
+
+            // Riscaldamento (JIT, pool di connessioni, indice del calendario)
+            driver.run(calendarPolls(server, data, 500, new Random(7)), CONCURRENCY);
+
+            enrollmentWindow(server, data);
+            bulkGrading(server, data, jdbcTemplate);
+            gradePublication(server, data, jdbcTemplate);
+        }
+
+        report.forEach((phase, stats) -> {
+            logger.info("== {}", phase);
+            stats.values().forEach(endpointStats -> logger.info(endpointStats.toString()));
+        });
+    }
+
+    // Apertura delle iscrizioni: tutti gli studenti si iscrivono agli stessi esami mentre altri consultano il calendario
+    private void enrollmentWindow(LoadTestServer server, SeededData data) throws Exception {
+        Random random = new Random(42);
+        List<LoadRequest> requests = new ArrayList<>(STAMPEDE_STUDENTS + CALENDAR_POLLS);
+        for (int i = 0; i < STAMPEDE_STUDENTS; i++) {
+            long studentId = LoadDataSeeder.STAMPEDE_FIRST_STUDENT + i;
+            Long examId = data.stampedeExamIds().get(i % data.stampedeExamIds().size());
+            requests.add(new LoadRequest(ENROLL, HttpRequest.newBuilder(server.uri("/exams/" + examId + "/enroll"))
+                    .header("Authorization", server.bearer(String.valueOf(studentId), "studente"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"studentId\":" + studentId + "}"))
+                    .build(), Set.of(201)));
+        }
+        requests.addAll(calendarPolls(server, data, CALENDAR_POLLS, random));
+        Collections.shuffle(requests, random);
+
+        report.put("Apertura iscrizioni", driver.run(requests, CONCURRENCY));
+
+        // Nessun esame supera la capienza; chi non ha trovato posto è in lista d'attesa
+        EnrollmentRepository enrollmentRepository = server.getBean(EnrollmentRepository.class);
+        long enrollments = 0;
+        for (Long examId : data.stampedeExamIds()) {
+            assertThat(enrollmentRepository.countSeatHoldersByExamId(examId))
+                    .isEqualTo(Math.min(PLAN.stampedeCapacity(), STAMPEDE_STUDENTS / data.stampedeExamIds().size()));
+            enrollments += enrollmentRepository.countByExamId(examId);
+        }
+        assertThat(enrollments).isEqualTo(STAMPEDE_STUDENTS);
+    }
+
+    // Calendario delle prossime due settimane, per corso o completo (accesso pubblico)
+    private static List<LoadRequest> calendarPolls(LoadTestServer server, SeededData data, int polls, Random random) {
+        LocalDate today = LocalDate.now();
+        List<LoadRequest> requests = new ArrayList<>(polls);
+        for (int i = 0; i < polls; i++) {
+            LocalDate start = today.plusDays(random.nextInt(30));
+            String query = "/exams/calendar?startDate=" + start + "&endDate=" + start.plusDays(14);
+            if (i % 4 != 0) {
+                query += "&courseId=" + (1 + random.nextInt(data.courses()));
+            }
+            requests.add(new LoadRequest(CALENDAR, HttpRequest.newBuilder(server.uri(query)).GET().build(),
+                    Set.of(200)));
+        }
+        return requests;
+    }
+
+    // Ogni docente registra in un unico lotto i voti di tutti i presenti
+    private void bulkGrading(LoadTestServer server, SeededData data, JdbcTemplate jdbcTemplate) throws Exception {
+        List<LoadRequest> requests = new ArrayList<>();
+        for (GradingExam exam : data.gradingExams()) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = 0; i < exam.enrollmentIds().size(); i++) {
+                int grade = 18 + i % 13;
+                body.append(i > 0 ? "," : "")
+                        .append("{\"enrollmentId\":").append(exam.enrollmentIds().get(i))
+                        .append(",\"grade\":").append(grade)
+                        .append(",\"honors\":").append(grade == 30 && i % 2 == 0)
+                        .append(",\"professorId\":").append(exam.professorId())
+                        .append(",\"feedback\":\"Prova scritta sufficiente\"}");
+            }
+            body.append(']');
+            requests.add(new LoadRequest(GRADE_BATCH,
+                    HttpRequest.newBuilder(server.uri("/exams/" + exam.examId() + "/grades/batch"))
+                            .header("Authorization", server.bearer(String.valueOf(exam.professorId()), "docente"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                            .build(), Set.of(200)));
+        }
+
+        report.put("Registrazione voti", driver.run(requests, GRADING_CONCURRENCY));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exam_grades", Long.class))
+                .isEqualTo((long) PLAN.gradingExams() * PLAN.studentsPerGradingExam());
+    }
+
+    private void gradePublication(LoadTestServer server, SeededData data, JdbcTemplate jdbcTemplate) throws Exception {
+        List<LoadRequest> requests = new ArrayList<>();
+        for (GradingExam exam : data.gradingExams()) {
+            requests.add(new LoadRequest(PUBLISH_ALL,
+                    HttpRequest.newBuilder(server.uri("/exams/" + exam.examId() + "/grades/publish-all"))
+                            .header("Authorization", server.bearer(String.valueOf(exam.professorId()), "docente"))
+                            .PUT(HttpRequest.BodyPublishers.noBody())
+                            .build(), Set.of(204)));
+        }
+
+        report.put("Pubblicazione voti", driver.run(requests, GRADING_CONCURRENCY));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM exam_grades WHERE published_date IS NOT NULL", Long.class))
+                .isEqualTo((long) PLAN.gradingExams() * PLAN.studentsPerGradingExam());
+    }
+}
@@ -0,0 +1,35 @@
+package it.unimol.exam_management_service.load;
+
+import java.util.Arrays;
+
+/**
+ * Throughput e percentili di latenza di un endpoint in una fase del test di carico
+ */
+record LatencyStats(String endpoint, int requests, double throughput,
+                    double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+
+    static LatencyStats of(String endpoint, long[] latencyNanos, long elapsedNanos) {
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        return new LatencyStats(endpoint, sorted.length,
+                sorted.length / (elapsedNanos / 1e9),
+                percentile(sorted, 0.50) / 1e6,
+                percentile(sorted, 0.95) / 1e6,
+                percentile(sorted, 0.99) / 1e6,
+                (sorted.length > 0 ? sorted[sorted.length - 1] : 0) / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s richieste=%6d throughput=%7.0f req/s p50=%7.1f ms p95=%7.1f ms p99=%7.1f ms max=%7.1f ms",
+                endpoint, requests, throughput, p50Millis, p95Millis, p99Millis, maxMillis);
+    }
+}
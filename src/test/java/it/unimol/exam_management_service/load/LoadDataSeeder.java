@@ -0,0 +1,127 @@
+package it.unimol.exam_management_service.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Popola il database con inserimenti JDBC in batch, senza passare dai servizi:
+ * esami appena aperti (per l'assalto alle iscrizioni), esami già svolti con studenti presenti
+ * (per la registrazione e la pubblicazione dei voti) e il resto del calendario con le sue iscrizioni.
+ * Il contatore enrolled_count è coerente con le iscrizioni inserite.
+ */
+final class LoadDataSeeder {
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final int COURSES = 40;
+    private static final int PROFESSORS = 120;
+    // Matricole delle iscrizioni già presenti; quelle dell'assalto partono da STAMPEDE_FIRST_STUDENT
+    private static final int STUDENT_POOL = 60_000;
+    static final long STAMPEDE_FIRST_STUDENT = 1_000_000L;
+
+    private static final String INSERT_EXAM = "INSERT INTO exams (name, `date`, `time`, course_id, professor_id, "
+            + "classroom_id, max_students, enrollment_deadline, status, notes, enrolled_count, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'SCHEDULED', ?, ?, 0)";
+    private static final String INSERT_ENROLLMENT = "INSERT INTO exam_enrollments "
+            + "(student_id, exam_id, enrollment_date, status, notes, version) VALUES (?, ?, ?, ?, NULL, 0)";
+
+    /**
+     * Dimensioni del calendario da generare
+     */
+    record Plan(int exams, int enrollments, int stampedeExams, int stampedeCapacity,
+                int gradingExams, int studentsPerGradingExam) {
+
+        int openExams() {
+            return exams - stampedeExams - gradingExams;
+        }
+    }
+
+    /**
+     * Esame già svolto, con il docente titolare e le iscrizioni dei presenti da valutare
+     */
+    record GradingExam(long examId, long professorId, List<Long> enrollmentIds) {
+    }
+
+    record SeededData(List<Long> stampedeExamIds, List<GradingExam> gradingExams, int courses) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    LoadDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    SeededData seed(Plan plan) {
+        LocalDate today = LocalDate.now();
+        int perOpenExam = plan.openExams() > 0 ? plan.enrollments() / plan.openExams() : 0;
+
+        List<Object[]> exams = new ArrayList<>(plan.exams());
+        for (int i = 0; i < plan.exams(); i++) {
+            long professorId = professorId(i);
+            if (i < plan.stampedeExams()) {
+                exams.add(exam(i, today.plusDays(30), today.plusDays(20), professorId, plan.stampedeCapacity(), 0));
+            } else if (i < plan.stampedeExams() + plan.gradingExams()) {
+                exams.add(exam(i, today.minusDays(1), today.minusDays(10), professorId,
+                        plan.studentsPerGradingExam(), plan.studentsPerGradingExam()));
+            } else {
+                // Calendario dei prossimi tre mesi, iscrizioni aperte fino a tre giorni prima
+                LocalDate date = today.plusDays(4 + i % 90);
+                exams.add(exam(i, date, date.minusDays(3), professorId, perOpenExam + 50, perOpenExam));
+            }
+        }
+        batchInsert(INSERT_EXAM, exams);
+        List<Long> examIds = jdbcTemplate.queryForList("SELECT id FROM exams ORDER BY id", Long.class);
+
+        List<Object[]> enrollments = new ArrayList<>(BATCH_SIZE);
+        for (int i = plan.stampedeExams(); i < plan.exams(); i++) {
+            boolean grading = i < plan.stampedeExams() + plan.gradingExams();
+            int students = grading ? plan.studentsPerGradingExam() : perOpenExam;
+            for (int j = 0; j < students; j++) {
+                // Matricole distinte nello stesso esame, sovrapposte tra esami diversi come negli appelli reali
+                long studentId = 1 + ((long) i * 37 + j) % STUDENT_POOL;
+                enrollments.add(new Object[]{studentId, examIds.get(i),
+                        Timestamp.valueOf(LocalDateTime.now().minusDays(1 + j % 20)),
+                        grading ? "PRESENT" : "ENROLLED"});
+                if (enrollments.size() == BATCH_SIZE) {
+                    batchInsert(INSERT_ENROLLMENT, enrollments);
+                    enrollments.clear();
+                }
+            }
+        }
+        batchInsert(INSERT_ENROLLMENT, enrollments);
+
+        List<GradingExam> gradingExams = new ArrayList<>(plan.gradingExams());
+        for (int i = plan.stampedeExams(); i < plan.stampedeExams() + plan.gradingExams(); i++) {
+            long examId = examIds.get(i);
+            List<Long> enrollmentIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM exam_enrollments WHERE exam_id = ? ORDER BY id", Long.class, examId);
+            gradingExams.add(new GradingExam(examId, professorId(i), enrollmentIds));
+        }
+
+        return new SeededData(List.copyOf(examIds.subList(0, plan.stampedeExams())), gradingExams, COURSES);
+    }
+
+    private static long professorId(int index) {
+        return 1 + index % PROFESSORS;
+    }
+
+    private static Object[] exam(int index, LocalDate date, LocalDate deadline, long professorId,
+                                 int maxStudents, int enrolled) {
+        return new Object[]{"Esame " + index, Date.valueOf(date), Time.valueOf(LocalTime.of(9 + index % 8, 0)),
+                1L + index % COURSES, professorId, 1L + index % 30, maxStudents, Date.valueOf(deadline),
+                "Appello generato per il test di carico", enrolled};
+    }
+
+    private void batchInsert(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package it.unimol.exam_management_service.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Esegue una fase del test di carico: le richieste partono nell'ordine della lista, al massimo
+ * concurrency alla volta, e le latenze sono raggruppate per endpoint. Una risposta con stato
+ * non atteso fa fallire la fase dopo che tutte le richieste sono terminate.
+ */
+final class LoadDriver {
+
+    /**
+     * Richiesta HTTP con l'endpoint sotto cui raccogliere la latenza (es. "POST /exams/{examId}/enroll")
+     */
+    record LoadRequest(String endpoint, HttpRequest request, Set<Integer> expectedStatuses) {
+    }
+
+    private record Sample(String endpoint, long latencyNanos) {
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    Map<String, LatencyStats> run(List<LoadRequest> requests, int concurrency) throws Exception {
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        List<Sample> samples = new ArrayList<>(requests.size());
+        try {
+            List<Future<Sample>> futures = new ArrayList<>(requests.size());
+            for (LoadRequest request : requests) {
+                futures.add(executor.submit(() -> send(request, failures)));
+            }
+            for (Future<Sample> future : futures) {
+                samples.add(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.size() + " risposte non attese, la prima: " + failures.peek());
+        }
+        return summarize(samples, elapsed);
+    }
+
+    private Sample send(LoadRequest request, Queue<String> failures) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request.request(), HttpResponse.BodyHandlers.ofString());
+        long latency = System.nanoTime() - start;
+        if (!request.expectedStatuses().contains(response.statusCode())) {
+            failures.add(request.request().method() + " " + request.request().uri() + " -> "
+                    + response.statusCode() + " " + response.body());
+        }
+        return new Sample(request.endpoint(), latency);
+    }
+
+    private static Map<String, LatencyStats> summarize(List<Sample> samples, long elapsedNanos) {
+        Map<String, List<Long>> byEndpoint = new LinkedHashMap<>();
+        for (Sample sample : samples) {
+            byEndpoint.computeIfAbsent(sample.endpoint(), endpoint -> new ArrayList<>()).add(sample.latencyNanos());
+        }
+
+        Map<String, LatencyStats> stats = new LinkedHashMap<>();
+        byEndpoint.forEach((endpoint, latencies) -> stats.put(endpoint, LatencyStats.of(endpoint,
+                latencies.stream().mapToLong(Long::longValue).toArray(), elapsedNanos)));
+        return stats;
+    }
+}
@@ -0,0 +1,81 @@
+package it.unimol.exam_management_service.load;
+
+import it.unimol.exam_management_service.ExamManagementServiceApplication;
+import it.unimol.exam_management_service.security.jwt.JwtTestTokens;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Applicazione completa avviata per i test di carico, senza MySQL né RabbitMQ:
+ * H2 in memoria in modalità MySQL con le migrazioni Flyway reali, broker dell'outbox in memoria
+ * e invalidazioni della cache locali. I token JWT sono firmati con una chiave generata per il test.
+ */
+final class LoadTestServer implements AutoCloseable {
+
+    private static final String CONTEXT_PATH = "/exam-service/api/v1";
+
+    private final JwtTestTokens tokens = new JwtTestTokens();
+    private final ConfigurableApplicationContext context;
+    private final int port;
+
+    private LoadTestServer(String name, String[] profiles, Map<String, Object> overrides) {
+        this.context = new SpringApplicationBuilder(ExamManagementServiceApplication.class)
+                .profiles(profiles)
+                .run(arguments(name, overrides));
+        this.port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    static LoadTestServer start(String name, String... profiles) {
+        return start(name, Map.of(), profiles);
+    }
+
+    static LoadTestServer start(String name, Map<String, Object> overrides, String... profiles) {
+        return new LoadTestServer(name, profiles.length > 0 ? profiles : new String[]{"test"}, overrides);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    URI uri(String path) {
+        return URI.create("http://localhost:" + port + CONTEXT_PATH + path);
+    }
+
+    String bearer(String userId, String role) {
+        return "Bearer " + tokens.token(userId, role, Duration.ofHours(2));
+    }
+
+    // Argomenti da riga di comando, così prevalgono su application.properties e sui profili
+    private String[] arguments(String name, Map<String, Object> overrides) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        // Attesa sui lock di riga come innodb_lock_wait_timeout di MySQL (50 s) invece del secondo di H2
+        properties.put("spring.datasource.url", "jdbc:h2:mem:load-" + name
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=50000");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.hikari.maximum-pool-size", 40);
+        // Schema creato dalle migrazioni di produzione invece che da Hibernate
+        properties.put("spring.flyway.enabled", true);
+        properties.put("spring.jpa.hibernate.ddl-auto", "none");
+        properties.put("spring.jpa.properties.hibernate.generate_statistics", false);
+        properties.put("jwt.public-key", Base64.getEncoder().encodeToString(tokens.keyPair().getPublic().getEncoded()));
+        properties.put("logging.level.it.unimol", "WARN");
+        properties.putAll(overrides);
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
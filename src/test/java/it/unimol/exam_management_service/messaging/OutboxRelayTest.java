@@ -0,0 +1,245 @@
+package it.unimol.exam_management_service.messaging;
+
+import it.unimol.exam_management_service.dto.ExamDTO;
+import it.unimol.exam_management_service.entity.OutboxEvent;
+import it.unimol.exam_management_service.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "exam.outbox.max-attempts=3")
+@ActiveProfiles("test")
+@Import({EventPublisher.class, OutboxRelay.class, InMemoryMessageBroker.class, OutboxRelayTest.ConverterConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @TestConfiguration
+    static class ConverterConfig {
+        @Bean
+        MessageConverter jsonMessageConverter() {
+            return new Jackson2JsonMessageConverter();
+        }
+    }
+
+    @Autowired
+    private EventPublisher eventPublisher;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryMessageBroker broker;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+        broker.clear();
+        broker.setUnavailable(false);
+        broker.setRejectedRoutingKey(null);
+    }
+
+    @Test
+    void committedEventsAreRelayedWithOriginalPayload() {
+        inTransaction(() -> eventPublisher.publish("exam.created", exam("Analisi I")));
+
+        assertThat(broker.getPublished()).isEmpty();
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isEqualTo(1L);
+
+        outboxRelay.relayPendingEvents();
+
+        List<InMemoryMessageBroker.PublishedMessage> published = broker.getPublished();
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).exchange()).isEqualTo(EventPublisher.EXAM_EXCHANGE);
+        assertThat(published.get(0).routingKey()).isEqualTo("exam.created");
+
+        Message message = published.get(0).message();
+        ExamDTO received = (ExamDTO) messageConverter.fromMessage(message);
+        assertThat(received.getName()).isEqualTo("Analisi I");
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
+    }
+
+    @Test
+    void rolledBackTransactionDoesNotLeaveEvents() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventPublisher.publish("exam.created", exam("Fisica"));
+            status.setRollbackOnly();
+        });
+
+        outboxRelay.relayPendingEvents();
+
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(broker.getPublished()).isEmpty();
+    }
+
+    @Test
+    void publishingOutsideTransactionIsRejected() {
+        assertThatThrownBy(() -> eventPublisher.publish("exam.deleted", 1L))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void eventsStayPendingWhileBrokerIsUnavailable() {
+        inTransaction(() -> eventPublisher.publish("exam.deleted", 42L));
+        broker.setUnavailable(true);
+
+        assertThat(outboxRelay.relayBatch()).isZero();
+
+        OutboxEvent pending = outboxEventRepository.findAll().get(0);
+        assertThat(pending.isPublished()).isFalse();
+        assertThat(pending.getAttempts()).isEqualTo(1);
+        assertThat(pending.getLastError()).isNotBlank();
+
+        broker.setUnavailable(false);
+        outboxRelay.relayPendingEvents();
+
+        assertThat(broker.getPublished()).hasSize(1);
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
+    }
+
+    @Test
+    void backlogIsDrainedInBatchesPreservingOrder() {
+        inTransaction(() -> {
+            for (long id = 1; id <= 250; id++) {
+                eventPublisher.publish("exam.deleted", id);
+            }
+        });
+
+        outboxRelay.relayPendingEvents();
+
+        List<Object> payloads = broker.getPublished().stream()
+                .map(published -> messageConverter.fromMessage(published.message()))
+                .toList();
+        assertThat(payloads).hasSize(250);
+        assertThat(payloads.get(0)).isEqualTo(1L);
+        assertThat(payloads.get(249)).isEqualTo(250L);
+    }
+
+    @Test
+    void rejectedEventDoesNotBlockTheFollowingOnes() {
+        broker.setRejectedRoutingKey("exam.created");
+        inTransaction(() -> {
+            eventPublisher.publish("exam.created", exam("Analisi I"));
+            for (long id = 1; id <= 5; id++) {
+                eventPublisher.publish("exam.deleted", id);
+            }
+        });
+
+        outboxRelay.relayPendingEvents();
+
+        assertThat(broker.getPublished()).hasSize(5)
+                .allMatch(published -> published.routingKey().equals("exam.deleted"));
+        OutboxEvent rejected = outboxEventRepository.findAll().stream()
+                .filter(event -> !event.isPublished()).findFirst().orElseThrow();
+        assertThat(rejected.getRoutingKey()).isEqualTo("exam.created");
+        assertThat(rejected.getAttempts()).isEqualTo(1);
+        assertThat(rejected.isFailed()).isFalse();
+    }
+
+    @Test
+    void eventRejectedUntilMaxAttemptsIsExcluded() {
+        broker.setRejectedRoutingKey("exam.created");
+        inTransaction(() -> eventPublisher.publish("exam.created", exam("Analisi I")));
+
+        // Ogni giro il broker accetta un nuovo evento e rifiuta di nuovo quello in testa
+        for (long round = 1; round <= 3; round++) {
+            long id = round;
+            inTransaction(() -> eventPublisher.publish("exam.deleted", id));
+            outboxRelay.relayPendingEvents();
+        }
+
+        OutboxEvent rejected = outboxEventRepository.findAll().get(0);
+        assertThat(rejected.getAttempts()).isEqualTo(3);
+        assertThat(rejected.isFailed()).isTrue();
+        assertThat(broker.getPublished()).hasSize(3);
+
+        inTransaction(() -> eventPublisher.publish("exam.deleted", 4L));
+        outboxRelay.relayPendingEvents();
+
+        assertThat(outboxEventRepository.findById(rejected.getId()).orElseThrow().getAttempts()).isEqualTo(3);
+        assertThat(broker.getPublished()).hasSize(4);
+    }
+
+    @Test
+    void unavailableBrokerNeverExcludesEvents() {
+        inTransaction(() -> {
+            for (long id = 1; id <= 5; id++) {
+                eventPublisher.publish("exam.deleted", id);
+            }
+        });
+        broker.setUnavailable(true);
+
+        for (int round = 0; round < 10; round++) {
+            outboxRelay.relayPendingEvents();
+        }
+
+        assertThat(outboxEventRepository.findAll()).noneMatch(OutboxEvent::isFailed);
+
+        broker.setUnavailable(false);
+        outboxRelay.relayPendingEvents();
+
+        assertThat(broker.getPublished()).hasSize(5);
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
+    }
+
+    @Test
+    void rejectionAfterAnOutageDoesNotExcludeTheEvent() {
+        inTransaction(() -> {
+            eventPublisher.publish("exam.created", exam("Analisi I"));
+            eventPublisher.publish("exam.deleted", 1L);
+        });
+        broker.setUnavailable(true);
+
+        // Broker fermo per più giri del relay: i tentativi falliti superano exam.outbox.max-attempts
+        for (int round = 0; round < 5; round++) {
+            outboxRelay.relayPendingEvents();
+        }
+        assertThat(outboxEventRepository.findAll()).allMatch(event -> event.getAttempts() >= 3);
+
+        broker.setUnavailable(false);
+        broker.setRejectedRoutingKey("exam.created");
+        outboxRelay.relayPendingEvents();
+
+        OutboxEvent rejected = outboxEventRepository.findAll().stream()
+                .filter(event -> !event.isPublished()).findFirst().orElseThrow();
+        assertThat(rejected.getRoutingKey()).isEqualTo("exam.created");
+        assertThat(rejected.getRejections()).isEqualTo(1);
+        assertThat(rejected.isFailed()).isFalse();
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+    private static ExamDTO exam(String name) {
+        ExamDTO dto = new ExamDTO();
+        dto.setName(name);
+        return dto;
+    }
+}
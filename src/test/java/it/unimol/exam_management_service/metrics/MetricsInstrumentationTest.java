@@ -0,0 +1,226 @@
+package it.unimol.exam_management_service.metrics;
+
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import it.unimol.exam_management_service.config.MetricsConfig;
+import it.unimol.exam_management_service.config.RabbitMQConfig;
+import it.unimol.exam_management_service.datasource.ReadYourWrites;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import it.unimol.exam_management_service.service.EnrollmentService;
+import it.unimol.exam_management_service.service.ExamMetadataService;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.amqp.RabbitTemplateConfigurer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static it.unimol.exam_management_service.support.TestFixtures.authenticate;
+import static it.unimol.exam_management_service.support.TestFixtures.enrollmentRequest;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Metriche registrate dai servizi: tempi dei metodi pubblici, iscrizioni rifiutate per motivo,
+ * istruzioni SQL per richiesta e tempi degli invii al broker.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({MetricsConfig.class, MetricsInstrumentationTest.TimedConfig.class, RabbitMQConfig.class, EnrollmentService.class,
+        ExamMetadataService.class, EnrollmentMapper.class, SecurityUtils.class, ReadYourWrites.class,
+        EnrollmentRejections.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MetricsInstrumentationTest {
+
+    @TestConfiguration
+    @EnableAspectJAutoProxy
+    @EnableConfigurationProperties(RabbitProperties.class)
+    static class TimedConfig {
+
+        @Bean
+        TimedAspect timedAspect(MeterRegistry meterRegistry) {
+            return new TimedAspect(meterRegistry);
+        }
+
+        // Osservazioni registrate come timer, come fa l'autoconfigurazione dell'actuator
+        @Bean
+        ObservationRegistry observationRegistry(MeterRegistry meterRegistry) {
+            ObservationRegistry observationRegistry = ObservationRegistry.create();
+            observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+            return observationRegistry;
+        }
+
+        @Bean
+        RabbitTemplateConfigurer rabbitTemplateConfigurer(RabbitProperties rabbitProperties) {
+            return new RabbitTemplateConfigurer(rabbitProperties);
+        }
+    }
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        enrollmentRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void rejectedEnrollmentsAreCountedByReason() {
+        Long examId = saveExam(1, LocalDate.now().plusDays(20));
+        Long closedExamId = saveExam(10, LocalDate.now().minusDays(1));
+        // Il registro è condiviso tra i test: si confrontano gli incrementi
+        Map<String, Double> before = Map.of("unauthorized", rejections("unauthorized"),
+                "deadline", rejections("deadline"), "duplicate", rejections("duplicate"));
+        double waitlistedBefore = waitlisted();
+
+        authenticate("7", "ROLE_STUDENTE");
+        assertThatThrownBy(() -> enrollmentService.enrollToExam(examId, enrollmentRequest(8L)))
+                .hasMessageContaining("Non sei autorizzato");
+        assertThatThrownBy(() -> enrollmentService.enrollToExam(closedExamId, enrollmentRequest(7L)))
+                .isInstanceOf(IllegalStateException.class);
+        enrollmentService.enrollToExam(examId, enrollmentRequest(7L));
+        assertThatThrownBy(() -> enrollmentService.enrollToExam(examId, enrollmentRequest(7L)))
+                .isInstanceOf(IllegalStateException.class);
+
+        // L'unico posto è occupato: il secondo studente va in lista d'attesa
+        authenticate("9", "ROLE_STUDENTE");
+        enrollmentService.enrollToExam(examId, enrollmentRequest(9L));
+
+        assertThat(rejections("unauthorized") - before.get("unauthorized")).isEqualTo(1);
+        assertThat(rejections("deadline") - before.get("deadline")).isEqualTo(1);
+        assertThat(rejections("duplicate") - before.get("duplicate")).isEqualTo(1);
+        // La lista d'attesa non è un rifiuto: ha un contatore a parte
+        assertThat(waitlisted() - waitlistedBefore).isEqualTo(1);
+    }
+
+    @Test
+    void publicServiceMethodsAreTimed() {
+        Long examId = saveExam(10, LocalDate.now().plusDays(20));
+        authenticate("7", "ROLE_STUDENTE");
+        long enrollsBefore = timedCalls("enrollToExam");
+        long readsBefore = timedCalls("getMyEnrollments");
+
+        enrollmentService.enrollToExam(examId, enrollmentRequest(7L));
+        enrollmentService.getMyEnrollments(7L, null);
+        enrollmentService.getMyEnrollments(7L, null);
+
+        assertThat(timedCalls("enrollToExam") - enrollsBefore).isEqualTo(1);
+        assertThat(timedCalls("getMyEnrollments") - readsBefore).isEqualTo(2);
+        Timer read = meterRegistry.get(MetricsConfig.SERVICE_TIMER).tag("method", "getMyEnrollments").timer();
+        assertThat(read.takeSnapshot().percentileValues()).hasSize(3);
+    }
+
+    @Test
+    void sqlStatementsAreCountedPerRequest() throws Exception {
+        Long examId = saveExam(10, LocalDate.now().plusDays(20));
+        authenticate("7", "ROLE_STUDENTE");
+        enrollmentService.enrollToExam(examId, enrollmentRequest(7L));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/enrollments/my");
+        new SqlStatementMetricsFilter(meterRegistry).doFilter(request, new MockHttpServletResponse(),
+                (servletRequest, servletResponse) -> {
+                    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/enrollments/my");
+                    enrollmentService.getMyEnrollments(7L, null);
+                });
+
+        DistributionSummary statements = meterRegistry.get(SqlStatementMetricsFilter.METRIC)
+                .tag("method", "GET").tag("uri", "/api/v1/enrollments/my").summary();
+        // Unica richiesta con questo URI nel registro condiviso
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void brokerSendsAreTimed() {
+        // Canale finto: l'invio riesce senza un broker RabbitMQ
+        Connection connection = mock(Connection.class);
+        Channel channel = mock(Channel.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createChannel(false)).thenReturn(channel);
+        when(channel.isOpen()).thenReturn(true);
+        long sendsBefore = brokerSends();
+
+        rabbitTemplate.convertAndSend("exam-events", "exam.created", Map.of("examId", 1));
+        rabbitTemplate.convertAndSend("exam-events", "exam.updated", Map.of("examId", 1));
+
+        assertThat(brokerSends() - sendsBefore).isEqualTo(2);
+    }
+
+    private Long saveExam(int maxStudents, LocalDate enrollmentDeadline) {
+        Exam exam = exam(maxStudents);
+        exam.setEnrollmentDeadline(enrollmentDeadline);
+        return examRepository.save(exam).getId();
+    }
+
+    private long timedCalls(String method) {
+        Timer timer = meterRegistry.find(MetricsConfig.SERVICE_TIMER).tag("method", method).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    // Un timer per destinazione e routing key
+    private long brokerSends() {
+        return meterRegistry.find("spring.rabbit.template").tag("spring.rabbit.template.name", "rabbitTemplate")
+                .timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get(EnrollmentRejections.METRIC).tag("reason", reason).counter().count();
+    }
+
+    private double waitlisted() {
+        return meterRegistry.get(EnrollmentRejections.WAITLISTED_METRIC).counter().count();
+    }
+}
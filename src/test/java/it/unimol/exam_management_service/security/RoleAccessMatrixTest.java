@@ -0,0 +1,158 @@
+package it.unimol.exam_management_service.security;
+
+import it.unimol.exam_management_service.security.jwt.JwtTestTokens;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Regole sugli URL (SecurityConfig) e @PreAuthorize dei controller insieme, con token firmati veri:
+ * ogni ruolo raggiunge i propri endpoint (nessun 401/403) e riceve 403 su quelli degli altri ruoli.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:role-matrix;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RoleAccessMatrixTest {
+
+    private static final JwtTestTokens TOKENS = new JwtTestTokens();
+
+    @DynamicPropertySource
+    static void jwtPublicKey(DynamicPropertyRegistry registry) {
+        registry.add("jwt.public-key",
+                () -> Base64.getEncoder().encodeToString(TOKENS.keyPair().getPublic().getEncoded()));
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void anonymousReachesOnlyPublicEndpoints() throws Exception {
+        assertThat(status(get("/api/v1/exams/calendar"), null)).isEqualTo(200);
+        assertThat(status(get("/api/v1/exams/available"), null)).isEqualTo(401);
+        assertThat(status(get("/api/v1/grades/my").param("studentId", "7"), null)).isEqualTo(401);
+        // Senza RabbitMQ lo stato è DOWN (503): conta solo che non sia richiesta l'autenticazione
+        assertThat(status(get("/actuator/health"), null)).isNotIn(401, 403);
+        assertThat(status(get("/actuator/prometheus"), null)).isEqualTo(401);
+        assertThat(status(delete("/actuator/caches"), null)).isEqualTo(401);
+    }
+
+    @Test
+    void studentReachesOwnEndpoints() throws Exception {
+        String role = "studente";
+        assertAllowed(get("/api/v1/exams/available"), role);
+        assertAllowed(get("/api/v1/exams"), role);
+        assertAllowed(get("/api/v1/enrollments/my").param("studentId", "7"), role);
+        assertAllowed(get("/api/v1/grades/my").param("studentId", "7"), role);
+        assertAllowed(get("/api/v1/exams/1/waitlist/position").param("studentId", "7"), role);
+        assertAllowed(json(post("/api/v1/exams/1/enroll"), "{\"studentId\":7}"), role);
+        assertAllowed(delete("/api/v1/enrollments/1").param("studentId", "7"), role);
+
+        assertForbidden(json(post("/api/v1/exams"), newExam()), role);
+        assertForbidden(get("/api/v1/enrollments/scroll"), role);
+        assertForbidden(get("/api/v1/exams/1/enrollments"), role);
+        assertForbidden(json(post("/api/v1/exams/1/grades/batch"), "[]"), role);
+        assertForbidden(get("/api/v1/exports/enrollments"), role);
+        assertForbidden(get("/actuator/metrics"), role);
+        assertForbidden(delete("/actuator/caches"), role);
+    }
+
+    @Test
+    void professorReachesOwnEndpoints() throws Exception {
+        String role = "docente";
+        assertAllowed(get("/api/v1/exams"), role);
+        assertAllowed(get("/api/v1/exams/1/enrollments"), role);
+        assertAllowed(get("/api/v1/exams/1/grades"), role);
+        assertAllowed(json(post("/api/v1/exams/1/grades/batch"), "[]"), role);
+        assertAllowed(put("/api/v1/exams/1/grades/publish-all"), role);
+        assertAllowed(get("/api/v1/grades/course/1/statistics"), role);
+
+        assertForbidden(get("/api/v1/exams/available"), role);
+        assertForbidden(get("/api/v1/enrollments/my").param("studentId", "7"), role);
+        assertForbidden(get("/api/v1/enrollments/scroll"), role);
+        assertForbidden(delete("/api/v1/exams/1"), role);
+        assertForbidden(get("/api/v1/exports/grades"), role);
+    }
+
+    @Test
+    void adminReachesAdministrativeEndpoints() throws Exception {
+        for (String role : new String[]{"admin", "administrative"}) {
+            assertAllowed(get("/api/v1/exams"), role);
+            assertAllowed(get("/api/v1/enrollments"), role);
+            assertAllowed(get("/api/v1/enrollments/scroll"), role);
+            assertAllowed(get("/api/v1/exams/1/grades/statistics"), role);
+            assertAllowed(get("/api/v1/exports/enrollments"), role);
+            assertAllowed(get("/api/v1/exports/grades"), role);
+            assertAllowed(delete("/api/v1/exams/999"), role);
+            assertAllowed(json(post("/api/v1/exams"), newExam()), role);
+            assertAllowed(get("/actuator/prometheus"), role);
+            assertAllowed(get("/actuator/caches"), role);
+
+            assertForbidden(get("/api/v1/exams/available"), role);
+            assertForbidden(json(post("/api/v1/exams/1/enroll"), "{\"studentId\":7}"), role);
+            assertForbidden(json(post("/api/v1/exams/1/grades/batch"), "[]"), role);
+        }
+    }
+
+    @Test
+    void unknownRoleIsForbidden() throws Exception {
+        assertForbidden(get("/api/v1/exams"), "ospite");
+        assertForbidden(get("/api/v1/exports/enrollments"), "ospite");
+    }
+
+    private void assertAllowed(MockHttpServletRequestBuilder request, String role) throws Exception {
+        assertThat(status(request, role)).as(describe(request, role)).isNotIn(401, 403);
+    }
+
+    private void assertForbidden(MockHttpServletRequestBuilder request, String role) throws Exception {
+        assertThat(status(request, role)).as(describe(request, role)).isEqualTo(403);
+    }
+
+    private static String describe(MockHttpServletRequestBuilder request, String role) {
+        MockHttpServletRequest built = request.buildRequest(new MockServletContext());
+        return built.getMethod() + " " + built.getRequestURI() + " con ruolo " + role;
+    }
+
+    // Richiesta valida, così la validazione del corpo non anticipa il controllo del ruolo
+    private static String newExam() {
+        LocalDate date = LocalDate.now().plusDays(30);
+        return "{\"name\":\"Analisi I\",\"date\":\"" + date + "\",\"time\":\"09:00:00\",\"courseId\":1,"
+                + "\"professorId\":10,\"classroomId\":100,\"maxStudents\":50,"
+                + "\"enrollmentDeadline\":\"" + date.minusDays(10) + "\"}";
+    }
+
+    private int status(MockHttpServletRequestBuilder request, String role) throws Exception {
+        if (role != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKENS.token("7", role, Duration.ofHours(1)));
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
@@ -0,0 +1,85 @@
+package it.unimol.exam_management_service.security.jwt;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ogni token valido viene verificato una sola volta; i token non validi non autenticano la richiesta.
+ */
+class JwtAuthFilterTest {
+
+    private final JwtTestTokens tokens = new JwtTestTokens();
+    private final JwtAuthFilter filter = new JwtAuthFilter(tokens.keyPair().getPublic(), 100, Duration.ofMinutes(10));
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenIsVerifiedOnce() throws Exception {
+        String token = tokens.token("42", "student", Duration.ofHours(1));
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        assertThat(first.getDetails()).isEqualTo("42");
+        assertThat(first.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_STUDENT");
+        assertThat(second.getDetails()).isEqualTo("42");
+        CacheStats stats = filter.verifiedTokenStats();
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void administrativeRolesAreMappedToAdmin() throws Exception {
+        for (String role : new String[]{"admin", "administrative", "super_admin"}) {
+            Authentication authentication = authenticate(tokens.token("1", role, Duration.ofHours(1)));
+
+            assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                    .containsExactly("ROLE_ADMIN");
+        }
+    }
+
+    @Test
+    void expiredTokenIsRejected() throws Exception {
+        assertThat(authenticate(tokens.token("42", "student", Duration.ofMinutes(-1)))).isNull();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() throws Exception {
+        String forged = new JwtTestTokens().token("42", "admin", Duration.ofHours(1));
+
+        assertThat(authenticate(forged)).isNull();
+        assertThat(authenticate(forged)).isNull();
+        assertThat(filter.verifiedTokenStats().hitCount()).isZero();
+    }
+
+    @Test
+    void requestWithoutTokenIsNotAuthenticated() throws Exception {
+        FilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
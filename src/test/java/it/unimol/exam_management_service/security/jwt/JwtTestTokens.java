@@ -0,0 +1,45 @@
+package it.unimol.exam_management_service.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Token RS256 firmati con una coppia di chiavi generata al volo, per test e benchmark di JwtAuthFilter
+ */
+public final class JwtTestTokens {
+
+    private final KeyPair keyPair;
+
+    public JwtTestTokens() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            this.keyPair = generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public KeyPair keyPair() {
+        return keyPair;
+    }
+
+    public String token(String userId, String role, Duration validity) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setSubject(userId)
+                .claim("username", "utente" + userId)
+                .claim("role", role)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(validity)))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+}
@@ -0,0 +1,132 @@
+package it.unimol.exam_management_service.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import it.unimol.exam_management_service.config.CacheConfig;
+import it.unimol.exam_management_service.enums.ExamStatus;
+import it.unimol.exam_management_service.messaging.CacheInvalidationTransport;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.messaging.ExamCacheInvalidation;
+import it.unimol.exam_management_service.messaging.LocalCacheInvalidationTransport;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.util.ExamMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Due istanze del servizio condividono il trasporto delle invalidazioni: la seconda è simulata
+ * con un proprio CacheManager e un proprio ClusterCacheInvalidator.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({CacheConfig.class, ExamMetadataService.class, ExamService.class, ExamMapper.class,
+        ExamCalendarIndex.class, ClusterCacheInvalidator.class, LocalCacheInvalidationTransport.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClusterCacheInvalidationTest {
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidationTransport transport;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Cache replicaCache;
+    private ExamCalendarIndex replicaCalendar;
+    private final Queue<ExamCacheInvalidation> delivered = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager replicaCacheManager = new CaffeineCacheManager();
+        replicaCacheManager.setCaffeine(Caffeine.newBuilder());
+        replicaCacheManager.setCacheNames(List.of(CacheConfig.EXAM_METADATA));
+        replicaCalendar = mock(ExamCalendarIndex.class);
+        new ClusterCacheInvalidator(transport, replicaCacheManager, replicaCalendar);
+        replicaCache = replicaCacheManager.getCache(CacheConfig.EXAM_METADATA);
+        transport.subscribe(delivered::add);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        examRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.EXAM_METADATA).clear();
+    }
+
+    @Test
+    void statusChangeEvictsTheExamOnOtherInstances() {
+        Long examId = examRepository.save(exam(10)).getId();
+        Long otherExamId = examRepository.save(exam(10)).getId();
+        replicaCache.put(examId, "copia locale");
+        replicaCache.put(otherExamId, "copia locale");
+
+        examService.updateExamStatus(examId, ExamStatus.CANCELLED);
+
+        assertThat(replicaCache.get(examId)).isNull();
+        assertThat(replicaCache.get(otherExamId)).isNotNull();
+        verify(replicaCalendar).refresh(examId);
+        verify(replicaCalendar, never()).refresh(otherExamId);
+    }
+
+    @Test
+    void updateEvictsTheExamOnOtherInstances() {
+        Long examId = examRepository.save(exam(10)).getId();
+        replicaCache.put(examId, "copia locale");
+
+        examService.updateExam(examId, examService.getExamById(examId));
+
+        assertThat(replicaCache.get(examId)).isNull();
+    }
+
+    @Test
+    void rolledBackChangesAreNotBroadcast() {
+        Long examId = examRepository.save(exam(10)).getId();
+        replicaCache.put(examId, "copia locale");
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            examService.updateExamStatus(examId, ExamStatus.CANCELLED);
+            status.setRollbackOnly();
+        });
+
+        assertThat(delivered).isEmpty();
+        assertThat(replicaCache.get(examId)).isNotNull();
+        verifyNoInteractions(replicaCalendar);
+    }
+}
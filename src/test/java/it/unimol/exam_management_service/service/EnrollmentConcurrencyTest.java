@@ -0,0 +1,160 @@
+package it.unimol.exam_management_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimol.exam_management_service.datasource.ReadYourWrites;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.metrics.EnrollmentRejections;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static it.unimol.exam_management_service.support.TestFixtures.authenticateAsAdmin;
+import static it.unimol.exam_management_service.support.TestFixtures.enrollmentRequest;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Simula l'apertura delle iscrizioni: migliaia di richieste parallele sullo stesso esame,
+ * con studenti che inviano la richiesta più volte. Chi non trova posto finisce in lista d'attesa.
+ * Le richieste doppie sono rifiutate come iscrizioni già presenti, anche quando arrivano insieme.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({EnrollmentService.class, ExamMetadataService.class, EnrollmentMapper.class, SecurityUtils.class,
+        ReadYourWrites.class, EnrollmentRejections.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EnrollmentConcurrencyTest {
+
+    private static final int CAPACITY = 50;
+    private static final int STUDENTS = 1000;
+    private static final int ATTEMPTS_PER_STUDENT = 2;
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @MockitoSpyBean
+    private EnrollmentRepository enrollmentRepository;
+
+    @AfterEach
+    void cleanUp() {
+        enrollmentRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void parallelEnrollmentsNeverOverbookOrDuplicate() throws Exception {
+        Long examId = examRepository.save(exam(CAPACITY)).getId();
+
+        List<Long> attempts = new ArrayList<>();
+        for (int round = 0; round < ATTEMPTS_PER_STUDENT; round++) {
+            for (long studentId = 1; studentId <= STUDENTS; studentId++) {
+                attempts.add(studentId);
+            }
+        }
+
+        Outcome outcome = enrollConcurrently(examId, attempts);
+
+        assertThat(outcome.unexpected()).isEmpty();
+        assertThat(outcome.accepted()).isEqualTo(STUDENTS);
+        assertThat(outcome.duplicates()).isEqualTo(attempts.size() - STUDENTS);
+        assertThat(enrollmentRepository.countByExamIdAndStatus(examId, EnrollmentStatus.ENROLLED)).isEqualTo(CAPACITY);
+        assertThat(enrollmentRepository.countByExamIdAndStatus(examId, EnrollmentStatus.WAITLISTED))
+                .isEqualTo(STUDENTS - CAPACITY);
+        assertThat(examRepository.findById(examId).orElseThrow().getEnrolledCount()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void concurrentDuplicatesOnAnOpenExamReleaseTheirSeats() throws Exception {
+        // Posti liberi per tutti e doppioni che arrivano insieme: il controllo preliminare non li vede
+        // (simulato sempre negativo), li ferma il vincolo univoco e il rollback restituisce il posto prenotato
+        int students = 20;
+        int attemptsPerStudent = 10;
+        Long examId = examRepository.save(exam(CAPACITY)).getId();
+        doReturn(false).when(enrollmentRepository).existsByStudentIdAndExamId(anyLong(), anyLong());
+
+        List<Long> attempts = new ArrayList<>();
+        for (long studentId = 1; studentId <= students; studentId++) {
+            for (int attempt = 0; attempt < attemptsPerStudent; attempt++) {
+                attempts.add(studentId);
+            }
+        }
+
+        Outcome outcome = enrollConcurrently(examId, attempts);
+
+        assertThat(outcome.unexpected()).isEmpty();
+        assertThat(outcome.accepted()).isEqualTo(students);
+        assertThat(outcome.duplicates()).isEqualTo(attempts.size() - students);
+        assertThat(enrollmentRepository.countByExamIdAndStatus(examId, EnrollmentStatus.ENROLLED)).isEqualTo(students);
+        assertThat(enrollmentRepository.countByExamIdAndStatus(examId, EnrollmentStatus.WAITLISTED)).isZero();
+        assertThat(examRepository.findById(examId).orElseThrow().getEnrolledCount()).isEqualTo(students);
+    }
+
+    private record Outcome(int accepted, int duplicates, Queue<Throwable> unexpected) {
+    }
+
+    // Tutte le richieste partono insieme; sono attesi solo successi e rifiuti per iscrizione doppia
+    private Outcome enrollConcurrently(Long examId, List<Long> attempts) throws InterruptedException {
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+
+        for (Long studentId : attempts) {
+            executor.submit(() -> {
+                authenticateAsAdmin();
+                try {
+                    start.await();
+                    enrollmentService.enrollToExam(examId, enrollmentRequest(studentId));
+                    accepted.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    if ("Sei già iscritto a questo esame".equals(e.getMessage())) {
+                        duplicates.incrementAndGet();
+                    } else {
+                        unexpected.add(e);
+                    }
+                } catch (Throwable t) {
+                    unexpected.add(t);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        return new Outcome(accepted.get(), duplicates.get(), unexpected);
+    }
+}
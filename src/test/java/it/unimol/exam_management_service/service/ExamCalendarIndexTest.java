@@ -0,0 +1,181 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.config.CacheConfig;
+import it.unimol.exam_management_service.dto.ExamDTO;
+import it.unimol.exam_management_service.dto.request.CreateExamRequest;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.enums.ExamStatus;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.util.ExamMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Il calendario è servito dall'indice in memoria, aggiornato dopo il commit delle modifiche agli esami.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({CacheConfig.class, ExamMetadataService.class, ExamService.class, ExamMapper.class, ExamCalendarIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExamCalendarIndexTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(30);
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamCalendarIndex examCalendarIndex;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = statistics(entityManagerFactory);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        enrollmentRepository.deleteAll();
+        examRepository.deleteAll();
+        examCalendarIndex.reload();
+        cacheManager.getCache(CacheConfig.EXAM_METADATA).clear();
+    }
+
+    @Test
+    void calendarIsServedWithoutQueries() {
+        Long later = createExam("Fisica", START.plusDays(2), 1L, 10L).getId();
+        Long earlier = createExam("Analisi I", START, 1L, 10L).getId();
+
+        statistics.clear();
+        List<ExamDTO> calendar = examService.getExamCalendar(START, START.plusDays(7), null, null);
+        examService.getExamCalendarETag(START, START.plusDays(7), null, null);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(calendar).extracting(ExamDTO::getId).containsExactly(earlier, later);
+    }
+
+    @Test
+    void rangeAndFiltersAreAppliedByTheIndex() {
+        Long analysis = createExam("Analisi I", START, 1L, 10L).getId();
+        Long physics = createExam("Fisica", START.plusDays(1), 2L, 10L).getId();
+        Long chemistry = createExam("Chimica", START.plusDays(1), 2L, 20L).getId();
+        createExam("Geometria", START.plusDays(40), 1L, 10L);
+
+        assertThat(calendar(START, START.plusDays(7), null, null)).containsExactly(analysis, physics, chemistry);
+        assertThat(calendar(START.plusDays(1), START.plusDays(1), null, null)).containsExactly(physics, chemistry);
+        assertThat(calendar(START, START.plusDays(7), 2L, null)).containsExactly(physics, chemistry);
+        assertThat(calendar(START, START.plusDays(7), null, 10L)).containsExactly(analysis, physics);
+        assertThat(calendar(START, START.plusDays(7), 2L, 20L)).containsExactly(chemistry);
+        assertThat(calendar(START, START.plusDays(7), 3L, null)).isEmpty();
+        assertThat(calendar(START.plusDays(7), START, null, null)).isEmpty();
+    }
+
+    @Test
+    void examChangesAreVisibleAfterCommit() {
+        Long examId = createExam("Analisi I", START, 1L, 10L).getId();
+        Long otherId = createExam("Fisica", START, 1L, 10L).getId();
+        String etag = examService.getExamCalendarETag(START, START, null, null);
+
+        examService.updateExamStatus(examId, ExamStatus.CANCELLED);
+
+        assertThat(examService.getExamCalendar(START, START, null, null))
+                .filteredOn(exam -> exam.getId().equals(examId))
+                .extracting(ExamDTO::getStatus)
+                .containsExactly(ExamStatus.CANCELLED);
+        assertThat(examService.getExamCalendarETag(START, START, null, null)).isNotEqualTo(etag);
+
+        examService.deleteExam(otherId);
+
+        assertThat(calendar(START, START, null, null)).containsExactly(examId);
+    }
+
+    @Test
+    void rangesOutsideTheWindowAreReadFromTheDatabase() {
+        LocalDate beyondHorizon = LocalDate.now().plusDays(400);
+        Long inWindow = createExam("Analisi I", START, 1L, 10L).getId();
+        Long outside = createExam("Fisica", beyondHorizon, 1L, 10L).getId();
+
+        statistics.clear();
+        assertThat(calendar(START, START, null, null)).containsExactly(inWindow);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        assertThat(calendar(START, beyondHorizon, null, null)).containsExactly(inWindow, outside);
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+    }
+
+    @Test
+    void reloadPicksUpEnrollmentCounts() {
+        Long examId = createExam("Analisi I", START, 1L, 10L).getId();
+        enrollmentRepository.save(new ExamEnrollment(1L, examRepository.findById(examId).orElseThrow()));
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> examRepository.reserveSeat(examId));
+
+        assertThat(examService.getExamCalendar(START, START, null, null).get(0).getCurrentEnrollments()).isZero();
+
+        examCalendarIndex.reload();
+
+        assertThat(examService.getExamCalendar(START, START, null, null).get(0).getCurrentEnrollments()).isEqualTo(1);
+    }
+
+    private List<Long> calendar(LocalDate startDate, LocalDate endDate, Long courseId, Long professorId) {
+        return examService.getExamCalendar(startDate, endDate, courseId, professorId).stream()
+                .map(ExamDTO::getId)
+                .toList();
+    }
+
+    private ExamDTO createExam(String name, LocalDate date, Long courseId, Long professorId) {
+        CreateExamRequest request = new CreateExamRequest();
+        request.setName(name);
+        request.setDate(date);
+        request.setTime(LocalTime.NOON);
+        request.setCourseId(courseId);
+        request.setProfessorId(professorId);
+        request.setClassroomId(100L);
+        request.setMaxStudents(10);
+        request.setEnrollmentDeadline(date.minusDays(10));
+        return examService.createExam(request);
+    }
+}
@@ -0,0 +1,158 @@
+package it.unimol.exam_management_service.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimol.exam_management_service.config.CacheConfig;
+import it.unimol.exam_management_service.datasource.ReadYourWrites;
+import it.unimol.exam_management_service.dto.EnrollmentDTO;
+import it.unimol.exam_management_service.dto.ExamDTO;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.enums.ExamStatus;
+import it.unimol.exam_management_service.exception.ResourceNotFoundException;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.metrics.EnrollmentRejections;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import it.unimol.exam_management_service.util.ExamMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static it.unimol.exam_management_service.support.TestFixtures.authenticateAsAdmin;
+import static it.unimol.exam_management_service.support.TestFixtures.enrollmentRequest;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Le invalidazioni avvengono dopo il commit, quindi ogni chiamata ai servizi gira nella propria transazione.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({CacheConfig.class, ExamMetadataService.class, ExamService.class, ExamMapper.class,
+        ExamCalendarIndex.class, EnrollmentService.class, EnrollmentMapper.class, SecurityUtils.class,
+        ReadYourWrites.class, EnrollmentRejections.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExamMetadataCacheTest {
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = statistics(entityManagerFactory);
+        authenticateAsAdmin();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        enrollmentRepository.deleteAll();
+        examRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.EXAM_METADATA).clear();
+    }
+
+    @Test
+    void repeatedReadsOnlyQueryTheEnrollmentCount() {
+        Long examId = examRepository.save(exam(10)).getId();
+        CacheStats initial = nativeCacheStats();
+
+        examService.getExamById(examId);
+        statistics.clear();
+        ExamDTO cached = examService.getExamById(examId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(cached.getName()).isEqualTo("Analisi I");
+        CacheStats stats = nativeCacheStats().minus(initial);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updatesAreVisibleAfterCommit() {
+        Long examId = examRepository.save(exam(10)).getId();
+        ExamDTO exam = examService.getExamById(examId);
+
+        exam.setName("Analisi II");
+        examService.updateExam(examId, exam);
+        assertThat(examService.getExamById(examId).getName()).isEqualTo("Analisi II");
+
+        examService.updateExamStatus(examId, ExamStatus.CANCELLED);
+        ExamDTO cancelled = examService.getExamById(examId);
+        assertThat(cancelled.getStatus()).isEqualTo(ExamStatus.CANCELLED);
+        assertThat(cancelled.getEnrollmentOpen()).isFalse();
+    }
+
+    @Test
+    void deletedExamIsNoLongerServedFromCache() {
+        Long examId = examRepository.save(exam(10)).getId();
+        examService.getExamById(examId);
+
+        examService.deleteExam(examId);
+
+        assertThatThrownBy(() -> examService.getExamById(examId))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void enrollmentCapacityIsCheckedOnTheDatabase() {
+        Long examId = examRepository.save(exam(2)).getId();
+        assertThat(examService.getExamById(examId).getMaxStudents()).isEqualTo(2);
+
+        // Capienza ridotta senza passare dal servizio: la copia in cache resta a 2
+        jdbcTemplate.update("UPDATE exams SET max_students = 1 WHERE id = ?", examId);
+
+        EnrollmentDTO first = enrollmentService.enrollToExam(examId, enrollmentRequest(1L));
+        EnrollmentDTO second = enrollmentService.enrollToExam(examId, enrollmentRequest(2L));
+
+        assertThat(first.getStatus()).isEqualTo(EnrollmentStatus.ENROLLED);
+        assertThat(first.getExamName()).isEqualTo("Analisi I");
+        assertThat(second.getStatus()).isEqualTo(EnrollmentStatus.WAITLISTED);
+    }
+
+    private CacheStats nativeCacheStats() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfig.EXAM_METADATA)).getNativeCache().stats();
+    }
+}
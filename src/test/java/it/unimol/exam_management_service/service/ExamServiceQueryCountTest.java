@@ -0,0 +1,91 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.dto.ExamDTO;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.util.ExamMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static it.unimol.exam_management_service.support.TestFixtures.countStatements;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ExamServiceQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private ExamService examService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        examService = new ExamService(examRepository, enrollmentRepository, mock(EventPublisher.class), new ExamMapper(),
+                mock(GradeStatisticsService.class), new ExamMetadataService(examRepository),
+                mock(ApplicationEventPublisher.class), mock(ExamCalendarIndex.class));
+        statistics = statistics(entityManagerFactory);
+    }
+
+    @Test
+    void listingStatementCountDoesNotGrowWithExamCount() {
+        seedCourse(1L, 5);
+        seedCourse(2L, 40);
+
+        long smallCourseStatements = countStatements(entityManager, statistics, () -> examService.getExamsByCourse(1L));
+        long largeCourseStatements = countStatements(entityManager, statistics, () -> examService.getExamsByCourse(2L));
+
+        assertThat(largeCourseStatements).isEqualTo(smallCourseStatements);
+        // Il numero di iscritti è il contatore dell'esame: nessuna query di conteggio
+        assertThat(largeCourseStatements).isEqualTo(1);
+    }
+
+    @Test
+    void listingReportsEnrollmentCountPerExam() {
+        seedCourse(3L, 3);
+
+        List<ExamDTO> exams = examService.getExamsByCourse(3L);
+
+        assertThat(exams).hasSize(3);
+        assertThat(exams).allSatisfy(dto -> assertThat(dto.getCurrentEnrollments()).isEqualTo(2));
+    }
+
+    private void seedCourse(Long courseId, int examCount) {
+        for (int i = 0; i < examCount; i++) {
+            Exam exam = exam("Esame " + courseId + "-" + i, courseId, LocalDate.now().plusDays(30 + i), 50);
+            entityManager.persist(exam);
+            entityManager.persist(new ExamEnrollment(1000L + i, exam));
+            entityManager.persist(new ExamEnrollment(2000L + i, exam));
+            entityManager.flush();
+            examRepository.reserveSeat(exam.getId());
+            examRepository.reserveSeat(exam.getId());
+        }
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,150 @@
+package it.unimol.exam_management_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.enums.ExportFormat;
+import it.unimol.exam_management_service.enums.GradeStatus;
+import it.unimol.exam_management_service.util.ExportWriter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExportService.class, ExportWriter.class, ExportServiceTest.JacksonConfig.class})
+class ExportServiceTest {
+
+    @TestConfiguration
+    static class JacksonConfig {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule());
+        }
+    }
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = statistics(entityManagerFactory);
+    }
+
+    @Test
+    void enrollmentRosterIsStreamedAsNdjsonWithoutLoadingEntities() throws Exception {
+        Exam march = seedExam(1L, LocalDate.now().plusDays(30), 4);
+        seedExam(1L, LocalDate.now().plusDays(90), 3);
+        seedExam(2L, LocalDate.now().plusDays(30), 5);
+        entityManager.clear();
+        statistics.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = exportService.exportEnrollments(1L, null, null, LocalDate.now().plusDays(60), null,
+                ExportFormat.NDJSON, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(count).isEqualTo(4);
+        assertThat(lines).hasSize(4);
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            assertThat(row.get("examId").asLong()).isEqualTo(march.getId());
+            assertThat(row.get("examName").asText()).isEqualTo("Esame \"Analisi\", modulo 1");
+        }
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void gradebookIsStreamedAsCsvWithEscapedValues() throws Exception {
+        Exam exam = seedExam(3L, LocalDate.now().plusDays(30), 3);
+        entityManager.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = exportService.exportGrades(null, exam.getId(), null, null, GradeStatus.EVALUATED,
+                ExportFormat.CSV, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).startsWith("gradeId,enrollmentId,examId,examName,studentId,grade");
+        assertThat(lines.get(1)).contains(",\"Esame \"\"Analisi\"\", modulo 1\",");
+    }
+
+    @Test
+    void csvCellsThatLookLikeFormulasAreNeutralized() throws Exception {
+        Exam exam = seedExam("=HYPERLINK(\"http://example.org\";\"Analisi\")", 5L, LocalDate.now().plusDays(30), 1);
+        entityManager.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.exportGrades(null, exam.getId(), null, null, null, ExportFormat.CSV, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(1)).contains(",\"'=HYPERLINK(\"\"http://example.org\"\";\"\"Analisi\"\")\",");
+    }
+
+    @Test
+    void statusFilterAndInvalidRangeAreApplied() throws Exception {
+        Exam exam = seedExam(4L, LocalDate.now().plusDays(30), 3);
+        ExamEnrollment withdrawn = new ExamEnrollment(9999L, exam);
+        withdrawn.setStatus(EnrollmentStatus.WITHDREW);
+        entityManager.persist(withdrawn);
+        entityManager.flush();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = exportService.exportEnrollments(4L, null, null, null, EnrollmentStatus.WITHDREW,
+                ExportFormat.CSV, output);
+
+        assertThat(count).isEqualTo(1);
+        assertThatThrownBy(() -> exportService.exportEnrollments(null, null, LocalDate.now(),
+                LocalDate.now().minusDays(1), null, ExportFormat.CSV, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Exam seedExam(Long courseId, LocalDate date, int students) {
+        return seedExam("Esame \"Analisi\", modulo 1", courseId, date, students);
+    }
+
+    private Exam seedExam(String name, Long courseId, LocalDate date, int students) {
+        Exam exam = entityManager.persist(exam(name, courseId, date, 500));
+        for (int i = 0; i < students; i++) {
+            ExamEnrollment enrollment = entityManager.persist(new ExamEnrollment(exam.getId() * 1000 + i, exam));
+            entityManager.persist(new ExamGrade(20 + i, false, 10L, enrollment));
+        }
+        entityManager.flush();
+        return exam;
+    }
+}
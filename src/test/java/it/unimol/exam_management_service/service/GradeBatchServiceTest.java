@@ -0,0 +1,158 @@
+package it.unimol.exam_management_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimol.exam_management_service.dto.GradeBatchResponseDTO;
+import it.unimol.exam_management_service.dto.GradeBatchResultDTO;
+import it.unimol.exam_management_service.dto.GradesRecordedBatchDTO;
+import it.unimol.exam_management_service.dto.request.CreateGradeRequest;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.enums.GradeBatchOutcome;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.GradeJdbcRepository;
+import it.unimol.exam_management_service.repository.GradeRepository;
+import it.unimol.exam_management_service.util.GradeBatchReader;
+import it.unimol.exam_management_service.util.GradeMapper;
+import it.unimol.exam_management_service.util.GradeStatisticsMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static it.unimol.exam_management_service.support.TestFixtures.PROFESSOR_ID;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({GradeBatchService.class, GradeJdbcRepository.class, GradeMapper.class,
+        GradeStatisticsService.class, GradeStatisticsMapper.class, ValidationAutoConfiguration.class})
+class GradeBatchServiceTest {
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @Autowired
+    private GradeBatchService gradeBatchService;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final GradeBatchReader reader = new GradeBatchReader(new ObjectMapper(), 2000);
+
+    @Test
+    void recordsWholeSessionAndReportsEveryRow() {
+        Exam exam = entityManager.persist(exam(500));
+        List<ExamEnrollment> present = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            present.add(persistEnrollment(exam, 1000L + i, EnrollmentStatus.PRESENT));
+        }
+        // Le prime 20 iscrizioni hanno già un voto, che verrà aggiornato
+        for (int i = 0; i < 20; i++) {
+            entityManager.persist(new ExamGrade(18, false, PROFESSOR_ID, present.get(i)));
+        }
+        ExamEnrollment absent = persistEnrollment(exam, 5000L, EnrollmentStatus.ABSENT);
+        entityManager.flush();
+        entityManager.clear();
+
+        StringJoiner rows = new StringJoiner(",", "[", "]");
+        for (ExamEnrollment enrollment : present) {
+            rows.add(row(enrollment.getId(), 28, PROFESSOR_ID));
+        }
+        rows.add(row(present.get(0).getId(), 30, PROFESSOR_ID)); // ripetuta
+        rows.add(row(absent.getId(), 25, PROFESSOR_ID));         // non presente
+        rows.add(row(999_999L, 25, PROFESSOR_ID));               // altro esame
+        rows.add(row(present.get(1).getId(), 31, PROFESSOR_ID)); // voto fuori scala (e ripetuta)
+        rows.add(row(present.get(2).getId(), 25, 77L));          // altro professore (e ripetuta)
+
+        GradeBatchResponseDTO response = gradeBatchService.recordGrades(exam.getId(), read(rows.toString()));
+
+        assertThat(response.getReceived()).isEqualTo(125);
+        assertThat(response.getCreated()).isEqualTo(100);
+        assertThat(response.getUpdated()).isEqualTo(20);
+        assertThat(response.getRejected()).isEqualTo(5);
+        assertThat(response.getResults()).hasSize(125);
+        assertThat(response.getResults().subList(0, 120))
+                .allSatisfy(result -> assertThat(result.getGradeId()).isNotNull());
+        assertThat(response.getResults().subList(120, 125))
+                .extracting(GradeBatchResultDTO::getOutcome)
+                .containsOnly(GradeBatchOutcome.REJECTED);
+        assertThat(response.getResults().get(123).getMessage()).isEqualTo("Il voto non può superare 30");
+
+        entityManager.clear();
+        Map<Long, Integer> stored = new HashMap<>();
+        gradeRepository.findByExamId(exam.getId())
+                .forEach(g -> stored.put(g.getEnrollment().getId(), g.getGrade()));
+        assertThat(stored).hasSize(120);
+        assertThat(stored.values()).containsOnly(28);
+
+        ArgumentCaptor<GradesRecordedBatchDTO> event = ArgumentCaptor.forClass(GradesRecordedBatchDTO.class);
+        verify(eventPublisher).publish(eq("exam.grade.recorded.batch"), event.capture());
+        assertThat(event.getValue().getGradeCount()).isEqualTo(120);
+        assertThat(event.getValue().getGrades()).allSatisfy(g -> assertThat(g.getId()).isNotNull());
+        // Eventi per singolo voto per i consumer di exam.grade.recorded (exam.grades.per-grade-publish-events)
+        verify(eventPublisher, times(120)).publish(eq("exam.grade.recorded"), any());
+    }
+
+    @Test
+    void malformedPayloadIsRejected() {
+        Exam exam = entityManager.persist(exam(500));
+        ExamEnrollment enrollment = persistEnrollment(exam, 1L, EnrollmentStatus.PRESENT);
+        entityManager.flush();
+
+        String payload = "[" + row(enrollment.getId(), 27, PROFESSOR_ID) + ", {\"enrollmentId\": ";
+
+        assertThatThrownBy(() -> gradeBatchService.recordGrades(exam.getId(), read(payload)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void payloadOverTheRowLimitIsRejectedWhileReading() {
+        GradeBatchReader limitedReader = new GradeBatchReader(new ObjectMapper(), 2);
+        String payload = "[" + row(1L, 27, PROFESSOR_ID) + "," + row(2L, 27, PROFESSOR_ID) + ","
+                + row(3L, 27, PROFESSOR_ID) + "]";
+
+        assertThatThrownBy(() -> limitedReader.read(
+                new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2 voti");
+    }
+
+    private List<CreateGradeRequest> read(String json) {
+        return reader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String row(Long enrollmentId, int grade, long professorId) {
+        return "{\"enrollmentId\":" + enrollmentId + ",\"grade\":" + grade
+                + ",\"honors\":false,\"professorId\":" + professorId + "}";
+    }
+
+    private ExamEnrollment persistEnrollment(Exam exam, Long studentId, EnrollmentStatus status) {
+        ExamEnrollment enrollment = new ExamEnrollment(studentId, exam);
+        enrollment.setStatus(status);
+        return entityManager.persist(enrollment);
+    }
+}
@@ -0,0 +1,177 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.dto.GradesPublishedBatchDTO;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.enums.ExamStatus;
+import it.unimol.exam_management_service.enums.GradeStatus;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.repository.GradeRepository;
+import it.unimol.exam_management_service.repository.GradeStatisticsRepository;
+import it.unimol.exam_management_service.util.GradeMapper;
+import it.unimol.exam_management_service.util.GradeStatisticsMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static it.unimol.exam_management_service.support.TestFixtures.countStatements;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class GradeBulkPublishTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private GradeStatisticsRepository gradeStatisticsRepository;
+
+    private EventPublisher eventPublisher;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(EventPublisher.class);
+        statistics = statistics(entityManagerFactory);
+    }
+
+    @Test
+    void publishesEvaluatedGradesWithOneBatchEvent() {
+        Exam exam = seedExam(20, 3);
+
+        int published = gradeService(false).publishAllGradesForExam(exam.getId());
+
+        assertThat(published).isEqualTo(20);
+        assertThat(gradeRepository.countByStatus(GradeStatus.PUBLISHED)).isEqualTo(20);
+        assertThat(gradeRepository.countByStatus(GradeStatus.NOT_EVALUATED)).isEqualTo(3);
+        assertThat(examRepository.findById(exam.getId()).orElseThrow().getStatus()).isEqualTo(ExamStatus.COMPLETED);
+
+        ArgumentCaptor<GradesPublishedBatchDTO> batch = ArgumentCaptor.forClass(GradesPublishedBatchDTO.class);
+        verify(eventPublisher).publish(eq("exam.grade.published.batch"), batch.capture());
+        assertThat(batch.getValue().getGradeCount()).isEqualTo(20);
+        assertThat(batch.getValue().getGrades()).allSatisfy(g -> assertThat(g.getStudentId()).isNotNull());
+        verify(eventPublisher, never()).publish(eq("exam.grade.published"), any());
+        verify(eventPublisher).publish("exam.completed", exam.getId());
+    }
+
+    @Test
+    void batchContainsOnlyTheGradesItPublished() {
+        Exam exam = seedExam(3, 0);
+        ExamGrade alreadyPublished = gradeRepository.findByExamId(exam.getId()).get(0);
+        alreadyPublished.publish();
+        gradeRepository.saveAndFlush(alreadyPublished);
+        entityManager.clear();
+
+        int published = gradeService(false).publishAllGradesForExam(exam.getId());
+
+        assertThat(published).isEqualTo(2);
+        ArgumentCaptor<GradesPublishedBatchDTO> batch = ArgumentCaptor.forClass(GradesPublishedBatchDTO.class);
+        verify(eventPublisher).publish(eq("exam.grade.published.batch"), batch.capture());
+        assertThat(batch.getValue().getGrades()).hasSize(2)
+                .noneMatch(g -> g.getGradeId().equals(alreadyPublished.getId()));
+    }
+
+    @Test
+    void pastExamIsCompletedWhenGradesArePublished() {
+        Exam exam = seedExam(2, 0);
+        // I voti si pubblicano dopo l'appello: la data dell'esame è già passata
+        entityManager.getEntityManager().createQuery("UPDATE Exam e SET e.date = :date WHERE e.id = :id")
+                .setParameter("date", LocalDate.now().minusDays(7))
+                .setParameter("id", exam.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        gradeService(false).publishAllGradesForExam(exam.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(examRepository.findById(exam.getId()).orElseThrow().getStatus()).isEqualTo(ExamStatus.COMPLETED);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithGradeCount() {
+        Exam small = seedExam(5, 0);
+        Exam large = seedExam(60, 0);
+        GradeService gradeService = gradeService(false);
+        // Le righe delle statistiche esistono già quando i voti passano dal servizio
+        statisticsService().rebuild();
+
+        long smallStatements = countStatements(entityManager, statistics,
+                () -> gradeService.publishAllGradesForExam(small.getId()));
+        long largeStatements = countStatements(entityManager, statistics,
+                () -> gradeService.publishAllGradesForExam(large.getId()));
+
+        assertThat(largeStatements).isEqualTo(smallStatements);
+    }
+
+    @Test
+    void perGradeEventsCanBeKeptForExistingConsumers() {
+        Exam exam = seedExam(4, 1);
+
+        gradeService(true).publishAllGradesForExam(exam.getId());
+
+        verify(eventPublisher).publish(eq("exam.grade.published.batch"), any(GradesPublishedBatchDTO.class));
+        verify(eventPublisher, times(4)).publish(eq("exam.grade.published"), any(GradeDTO.class));
+    }
+
+    private GradeService gradeService(boolean perGradeEvents) {
+        return new GradeService(gradeRepository, enrollmentRepository, examRepository,
+                eventPublisher, new GradeMapper(),
+                statisticsService(), new ExamMetadataService(examRepository), mock(ApplicationEventPublisher.class),
+                perGradeEvents);
+    }
+
+    private GradeStatisticsService statisticsService() {
+        return new GradeStatisticsService(gradeStatisticsRepository, gradeRepository, new GradeStatisticsMapper());
+    }
+
+    private Exam seedExam(int evaluated, int notEvaluated) {
+        Exam exam = exam(500);
+        entityManager.persist(exam);
+
+        long studentId = exam.getId() * 1000;
+        for (int i = 0; i < evaluated + notEvaluated; i++) {
+            ExamEnrollment enrollment = new ExamEnrollment(studentId + i, exam);
+            entityManager.persist(enrollment);
+            Integer value = i < evaluated ? 18 + (i % 13) : null;
+            entityManager.persist(new ExamGrade(value, false, 10L, enrollment));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return exam;
+    }
+}
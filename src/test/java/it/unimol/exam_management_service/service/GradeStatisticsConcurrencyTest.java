@@ -0,0 +1,103 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.GradeStatistics;
+import it.unimol.exam_management_service.enums.StatisticsScope;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.repository.GradeStatisticsRepository;
+import it.unimol.exam_management_service.service.GradeStatisticsService.GradeSnapshot;
+import it.unimol.exam_management_service.util.GradeStatisticsMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Primi voti di un esame registrati insieme: le righe delle statistiche non esistono ancora
+ * e tutte le transazioni provano a crearle.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({GradeStatisticsService.class, GradeStatisticsMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GradeStatisticsConcurrencyTest {
+
+    private static final int TRANSACTIONS = 16;
+
+    @Autowired
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @MockitoSpyBean
+    private GradeStatisticsRepository gradeStatisticsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        gradeStatisticsRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentFirstChangesShareTheNewRows() throws Exception {
+        Exam exam = examRepository.save(exam(50));
+        // Tutte le transazioni trovano le righe mancanti, come se arrivassero nello stesso istante
+        doReturn(false).when(gradeStatisticsRepository).existsByScopeAndScopeId(any(), anyLong());
+
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(TRANSACTIONS);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(status -> gradeStatisticsService.recordChange(
+                            exam, null, new GradeSnapshot(24, false, false)));
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(failures).isEmpty();
+        assertThat(gradeStatisticsRepository.count()).isEqualTo(2);
+        assertThat(totalGrades(StatisticsScope.EXAM, exam.getId())).isEqualTo(TRANSACTIONS);
+        assertThat(totalGrades(StatisticsScope.COURSE, exam.getCourseId())).isEqualTo(TRANSACTIONS);
+    }
+
+    private long totalGrades(StatisticsScope scope, Long scopeId) {
+        return gradeStatisticsRepository.findByScopeAndScopeId(scope, scopeId)
+                .map(GradeStatistics::getTotalGrades)
+                .orElse(0L);
+    }
+}
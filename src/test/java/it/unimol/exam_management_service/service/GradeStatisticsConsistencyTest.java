@@ -0,0 +1,182 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.dto.ExamDTO;
+import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.dto.GradeStatisticsDTO;
+import it.unimol.exam_management_service.dto.request.CreateGradeRequest;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.GradeJdbcRepository;
+import it.unimol.exam_management_service.util.ExamMapper;
+import it.unimol.exam_management_service.util.GradeMapper;
+import it.unimol.exam_management_service.util.GradeStatisticsMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static it.unimol.exam_management_service.support.TestFixtures.PROFESSOR_ID;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica che le statistiche aggiornate in modo incrementale coincidano con un ricalcolo da exam_grades
+ * dopo una sequenza di operazioni sui voti.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({GradeService.class, GradeBatchService.class, GradeStatisticsService.class, ExamService.class,
+        ExamMetadataService.class, GradeJdbcRepository.class, GradeMapper.class, GradeStatisticsMapper.class,
+        ExamMapper.class, ExamCalendarIndex.class, ValidationAutoConfiguration.class})
+class GradeStatisticsConsistencyTest {
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private GradeBatchService gradeBatchService;
+
+    @Autowired
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void incrementalStatisticsMatchRebuildAfterGradeChanges() {
+        Exam first = entityManager.persist(exam(1L, 50));
+        Exam second = entityManager.persist(exam(1L, 50));
+        Exam third = entityManager.persist(exam(2L, 50));
+        List<ExamEnrollment> firstEnrollments = persistPresentEnrollments(first, 12);
+        List<ExamEnrollment> secondEnrollments = persistPresentEnrollments(second, 6);
+        List<ExamEnrollment> thirdEnrollments = persistPresentEnrollments(third, 4);
+        entityManager.flush();
+
+        // Voti singoli, compresi 30 e lode, insufficienze e voti non ancora assegnati
+        List<GradeDTO> recorded = new ArrayList<>();
+        int[] values = {30, 30, 28, 25, 18, 15, 12, 22, 27, 24};
+        for (int i = 0; i < values.length; i++) {
+            recorded.add(gradeService.recordGrade(first.getId(),
+                    request(firstEnrollments.get(i).getId(), values[i], i == 0)));
+        }
+        recorded.add(gradeService.recordGrade(first.getId(), request(firstEnrollments.get(10).getId(), null, false)));
+
+        // Nuova registrazione sullo stesso voto, modifica, cancellazione e pubblicazione
+        gradeService.recordGrade(first.getId(), request(firstEnrollments.get(3).getId(), 26, false));
+        GradeDTO changed = recorded.get(4);
+        changed.setGrade(21);
+        changed.setHonors(false);
+        gradeService.updateGrade(changed.getId(), changed);
+        gradeService.deleteGrade(recorded.get(5).getId());
+        gradeService.publishGrade(recorded.get(1).getId());
+        endRequest();
+
+        // Registrazione in blocco su un altro esame dello stesso corso
+        List<CreateGradeRequest> batch = new ArrayList<>();
+        for (int i = 0; i < secondEnrollments.size(); i++) {
+            batch.add(request(secondEnrollments.get(i).getId(), 18 + i * 2, false));
+        }
+        gradeBatchService.recordGrades(second.getId(), batch);
+        endRequest();
+        gradeBatchService.recordGrades(second.getId(),
+                List.of(request(secondEnrollments.get(0).getId(), 29, false)));
+
+        // Pubblicazione in blocco e spostamento di un esame in un altro corso
+        for (ExamEnrollment enrollment : thirdEnrollments) {
+            gradeService.recordGrade(third.getId(), request(enrollment.getId(), 23, false));
+        }
+        gradeService.publishAllGradesForExam(third.getId());
+        endRequest();
+
+        ExamDTO moved = examMapper.toDTO(entityManager.find(Exam.class, second.getId()));
+        moved.setCourseId(2L);
+        examService.updateExam(second.getId(), moved);
+
+        endRequest();
+
+        assertThat(gradeStatisticsService.findInconsistencies()).isEmpty();
+
+        // Le statistiche lette dopo un ricalcolo completo da exam_grades sono le stesse
+        List<GradeStatisticsDTO> materialized = List.of(
+                gradeService.getCourseGradeStatistics(1L), gradeService.getCourseGradeStatistics(2L));
+        gradeStatisticsService.rebuild();
+        endRequest();
+        assertThat(List.of(gradeService.getCourseGradeStatistics(1L), gradeService.getCourseGradeStatistics(2L)))
+                .usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(materialized);
+
+        GradeStatisticsDTO firstExam = gradeService.getExamGradeStatistics(first.getId());
+        assertThat(firstExam.getTotalGrades()).isEqualTo(10);
+        assertThat(firstExam.getPublishedCount()).isEqualTo(1);
+        assertThat(gradeService.getExamGradeStatistics(third.getId()).getPublishedCount()).isEqualTo(4);
+    }
+
+    @Test
+    void rebuildRepairsDriftedStatistics() {
+        Exam exam = entityManager.persist(exam(3L, 50));
+        List<ExamEnrollment> enrollments = persistPresentEnrollments(exam, 3);
+        entityManager.flush();
+        for (ExamEnrollment enrollment : enrollments) {
+            gradeService.recordGrade(exam.getId(), request(enrollment.getId(), 27, false));
+        }
+        entityManager.flush();
+
+        // Modifica diretta della tabella, senza passare dal servizio
+        entityManager.getEntityManager()
+                .createQuery("UPDATE ExamGrade g SET g.grade = 19")
+                .executeUpdate();
+        entityManager.clear();
+
+        assertThat(gradeStatisticsService.findInconsistencies()).contains("EXAM:" + exam.getId(), "COURSE:3");
+
+        gradeStatisticsService.rebuild();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(gradeStatisticsService.findInconsistencies()).isEmpty();
+        assertThat(gradeService.getCourseGradeStatistics(3L).getAverageGrade()).isEqualTo(19.0);
+    }
+
+    // Ogni richiesta HTTP lavora con un contesto di persistenza nuovo
+    private void endRequest() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private CreateGradeRequest request(Long enrollmentId, Integer grade, boolean honors) {
+        CreateGradeRequest request = new CreateGradeRequest();
+        request.setEnrollmentId(enrollmentId);
+        request.setGrade(grade);
+        request.setHonors(honors);
+        request.setProfessorId(PROFESSOR_ID);
+        return request;
+    }
+
+    private List<ExamEnrollment> persistPresentEnrollments(Exam exam, int count) {
+        List<ExamEnrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ExamEnrollment enrollment = new ExamEnrollment(exam.getId() * 100 + i, exam);
+            enrollment.setStatus(EnrollmentStatus.PRESENT);
+            enrollments.add(entityManager.persist(enrollment));
+        }
+        return enrollments;
+    }
+}
@@ -0,0 +1,117 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.dto.GradeStatisticsDTO;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.repository.GradeRepository;
+import it.unimol.exam_management_service.repository.GradeStatisticsRepository;
+import it.unimol.exam_management_service.util.GradeMapper;
+import it.unimol.exam_management_service.util.GradeStatisticsMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class GradeStatisticsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private GradeStatisticsRepository gradeStatisticsRepository;
+
+    private GradeService gradeService;
+    private GradeStatisticsService gradeStatisticsService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        gradeStatisticsService = new GradeStatisticsService(gradeStatisticsRepository, gradeRepository,
+                new GradeStatisticsMapper());
+        gradeService = new GradeService(gradeRepository, enrollmentRepository, examRepository,
+                mock(EventPublisher.class), new GradeMapper(), gradeStatisticsService,
+                new ExamMetadataService(examRepository), mock(ApplicationEventPublisher.class), true);
+        statistics = statistics(entityManagerFactory);
+    }
+
+    @Test
+    void courseStatisticsAreReadWithOneQuery() {
+        Exam first = entityManager.persist(exam(1L, 50));
+        Exam second = entityManager.persist(exam(1L, 50));
+        Exam otherCourse = entityManager.persist(exam(2L, 50));
+
+        persistGrade(first, 1, 30, true);
+        persistGrade(first, 2, 30, false);
+        persistGrade(first, 3, 24, false);
+        persistGrade(second, 4, 15, false);
+        persistGrade(second, 5, 18, false);
+        persistGrade(second, 6, null, false);
+        persistGrade(otherCourse, 7, 29, false);
+        entityManager.flush();
+        gradeStatisticsService.rebuild();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        GradeStatisticsDTO dto = gradeService.getCourseGradeStatistics(1L);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(dto.getTotalGrades()).isEqualTo(6);
+        assertThat(dto.getAverageGrade()).isCloseTo((30 + 30 + 24 + 15 + 18) / 5.0, within(1e-9));
+        assertThat(dto.getMinGrade()).isEqualTo(15);
+        assertThat(dto.getMaxGrade()).isEqualTo(30);
+        assertThat(dto.getPassedCount()).isEqualTo(4);
+        assertThat(dto.getFailedCount()).isEqualTo(1);
+        assertThat(dto.getHonorsCount()).isEqualTo(1);
+        assertThat(dto.getDistribution())
+                .containsEntry("18", 1L)
+                .containsEntry("24", 1L)
+                .containsEntry("30", 1L)
+                .containsEntry(GradeStatisticsMapper.HONORS_KEY, 1L)
+                .containsEntry("29", 0L)
+                .hasSize(14);
+    }
+
+    @Test
+    void courseWithoutGradesHasEmptyStatistics() {
+        GradeStatisticsDTO dto = gradeService.getCourseGradeStatistics(99L);
+
+        assertThat(dto.getTotalGrades()).isZero();
+        assertThat(dto.getAverageGrade()).isNull();
+        assertThat(dto.getDistribution().values()).containsOnly(0L);
+    }
+
+    private void persistGrade(Exam exam, long studentId, Integer grade, boolean honors) {
+        ExamEnrollment enrollment = entityManager.persist(new ExamEnrollment(studentId, exam));
+        entityManager.persist(new ExamGrade(grade, honors, 10L, enrollment));
+    }
+}
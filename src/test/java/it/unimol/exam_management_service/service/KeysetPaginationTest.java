@@ -0,0 +1,160 @@
+package it.unimol.exam_management_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimol.exam_management_service.datasource.ReadYourWrites;
+import it.unimol.exam_management_service.dto.CursorPageDTO;
+import it.unimol.exam_management_service.dto.EnrollmentDTO;
+import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.metrics.EnrollmentRejections;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import it.unimol.exam_management_service.util.GradeMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static it.unimol.exam_management_service.support.TestFixtures.authenticateAsAdmin;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({EnrollmentService.class, GradeService.class, ExamMetadataService.class, EnrollmentMapper.class,
+        GradeMapper.class, SecurityUtils.class, ReadYourWrites.class,
+        EnrollmentRejections.class, SimpleMeterRegistry.class})
+class KeysetPaginationTest {
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = statistics(entityManagerFactory);
+        authenticateAsAdmin();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void scrollingVisitsEveryEnrollmentOnceWithOneQueryPerPage() {
+        Exam exam = seedExam(45);
+
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            entityManager.clear();
+            statistics.clear();
+            CursorPageDTO<EnrollmentDTO> page = enrollmentService.scrollAllEnrollments(exam.getId(), null, null, cursor, 20);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+            page.getItems().forEach(dto -> visited.add(dto.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(visited).hasSize(45).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void examEnrollmentsAreOrderedByEnrollmentDateThenId() {
+        Exam exam = seedExam(7);
+
+        CursorPageDTO<EnrollmentDTO> first = enrollmentService.scrollExamEnrollments(exam.getId(), null, null, 4);
+        CursorPageDTO<EnrollmentDTO> second = enrollmentService.scrollExamEnrollments(exam.getId(), null,
+                first.getNextCursor(), 4);
+
+        assertThat(first.getItems()).hasSize(4);
+        assertThat(first.getHasNext()).isTrue();
+        assertThat(second.getItems()).hasSize(3);
+        assertThat(second.getHasNext()).isFalse();
+
+        List<EnrollmentDTO> all = new ArrayList<>(first.getItems());
+        all.addAll(second.getItems());
+        for (int i = 1; i < all.size(); i++) {
+            EnrollmentDTO previous = all.get(i - 1);
+            EnrollmentDTO current = all.get(i);
+            assertThat(current.getEnrollmentDate()).isAfterOrEqualTo(previous.getEnrollmentDate());
+            if (current.getEnrollmentDate().equals(previous.getEnrollmentDate())) {
+                assertThat(current.getId()).isGreaterThan(previous.getId());
+            }
+        }
+    }
+
+    @Test
+    void examGradesAreScrolledById() {
+        Exam exam = seedExam(25);
+
+        CursorPageDTO<GradeDTO> first = gradeService.scrollExamGrades(exam.getId(), null, null, null, null, 10);
+        CursorPageDTO<GradeDTO> last = gradeService.scrollExamGrades(exam.getId(), null, null, null,
+                gradeService.scrollExamGrades(exam.getId(), null, null, null, first.getNextCursor(), 10).getNextCursor(), 10);
+
+        assertThat(first.getItems()).extracting(GradeDTO::getId).isSorted();
+        assertThat(last.getItems()).hasSize(5);
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void invalidCursorOrSizeIsRejected() {
+        Exam exam = seedExam(1);
+
+        assertThatThrownBy(() -> enrollmentService.scrollAllEnrollments(null, null, null, "non-un-cursore", 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> gradeService.scrollExamGrades(exam.getId(), null, null, null, null, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Iscrizioni a gruppi di tre con la stessa data, per verificare lo spareggio sull'id
+    private Exam seedExam(int students) {
+        Exam exam = entityManager.persist(exam(500));
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < students; i++) {
+            ExamEnrollment enrollment = new ExamEnrollment(1000L + i, exam);
+            enrollment.setEnrollmentDate(base.plusMinutes((students - i) / 3));
+            entityManager.persist(enrollment);
+            entityManager.persist(new ExamGrade(18 + i % 13, false, 10L, enrollment));
+        }
+        entityManager.flush();
+        return exam;
+    }
+}
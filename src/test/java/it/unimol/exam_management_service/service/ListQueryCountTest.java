@@ -0,0 +1,180 @@
+package it.unimol.exam_management_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimol.exam_management_service.datasource.ReadYourWrites;
+import it.unimol.exam_management_service.dto.EnrollmentDTO;
+import it.unimol.exam_management_service.dto.GradeDTO;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.entity.ExamGrade;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.metrics.EnrollmentRejections;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import it.unimol.exam_management_service.util.GradeMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static it.unimol.exam_management_service.support.TestFixtures.authenticateAsAdmin;
+import static it.unimol.exam_management_service.support.TestFixtures.countStatements;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static it.unimol.exam_management_service.support.TestFixtures.statistics;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gli elenchi di iscrizioni e voti caricano esame, iscrizione e voto con la query della pagina:
+ * il numero di istruzioni SQL non dipende dal numero di righe restituite.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({EnrollmentService.class, GradeService.class, ExamMetadataService.class, EnrollmentMapper.class,
+        GradeMapper.class, SecurityUtils.class, ReadYourWrites.class,
+        EnrollmentRejections.class, SimpleMeterRegistry.class})
+class ListQueryCountTest {
+
+    private static final PageRequest PAGE = PageRequest.of(0, 100);
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = statistics(entityManagerFactory);
+        authenticateAsAdmin();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void examEnrollmentsAreLoadedWithOneQuery() {
+        Exam small = seedExam(3, 1000L);
+        Exam large = seedExam(30, 2000L);
+
+        assertThat(countStatements(entityManager, statistics,
+                () -> enrollmentService.getExamEnrollments(small.getId(), null, PAGE))).isEqualTo(2);
+        assertThat(countStatements(entityManager, statistics,
+                () -> enrollmentService.getExamEnrollments(large.getId(), null, PAGE))).isEqualTo(2);
+    }
+
+    @Test
+    void studentEnrollmentsAreLoadedWithOneQuery() {
+        for (int i = 0; i < 12; i++) {
+            seedExam(1, 5000L);
+        }
+
+        List<EnrollmentDTO> enrollments = measure(() -> enrollmentService.getMyEnrollments(5000L, null));
+
+        assertThat(enrollments).hasSize(12).allSatisfy(dto -> {
+            assertThat(dto.getExamName()).isNotNull();
+            assertThat(dto.getGrade()).isEqualTo(27);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void examGradesAreLoadedWithOneQuery() {
+        Exam small = seedExam(3, 1000L);
+        Exam large = seedExam(30, 2000L);
+
+        assertThat(countStatements(entityManager, statistics,
+                () -> gradeService.getExamGrades(small.getId(), null, null, null, PAGE))).isEqualTo(1);
+        List<GradeDTO> grades = measure(() -> gradeService.getExamGrades(large.getId(), null, null, null, PAGE));
+
+        assertThat(grades).hasSize(30).allSatisfy(dto -> assertThat(dto.getExamName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void studentGradesAreLoadedWithOneQuery() {
+        for (int i = 0; i < 12; i++) {
+            seedExam(1, 5000L);
+        }
+
+        List<GradeDTO> grades = measure(() -> gradeService.getStudentGrades(5000L, null));
+
+        assertThat(grades).hasSize(12).allSatisfy(dto -> assertThat(dto.getStudentId()).isEqualTo(5000L));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyListsAreProjectedWithoutLoadingEntities() {
+        Exam exam = seedExam(5, 1000L);
+        ExamEnrollment ungraded = entityManager.persist(new ExamEnrollment(3000L, exam));
+        entityManager.flush();
+
+        List<EnrollmentDTO> enrollments = withoutEntityLoads(() ->
+                enrollmentService.getExamEnrollments(exam.getId(), null, PAGE));
+        List<GradeDTO> grades = withoutEntityLoads(() ->
+                gradeService.getExamGrades(exam.getId(), null, null, null, PAGE));
+
+        assertThat(enrollments).hasSize(6);
+        assertThat(enrollments).filteredOn(dto -> dto.getId().equals(ungraded.getId())).singleElement()
+                .satisfies(dto -> {
+                    assertThat(dto.getHasGrade()).isFalse();
+                    assertThat(dto.getGrade()).isNull();
+                });
+
+        // Stessi valori prodotti dal mapper a partire dalle entità
+        GradeMapper gradeMapper = new GradeMapper();
+        for (GradeDTO projected : grades) {
+            GradeDTO mapped = gradeMapper.toDTO(entityManager.find(ExamGrade.class, projected.getId()));
+            assertThat(projected).usingRecursiveComparison().isEqualTo(mapped);
+        }
+    }
+
+    private <T> T withoutEntityLoads(Supplier<T> action) {
+        T result = measure(action);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        return result;
+    }
+
+    private <T> T measure(Supplier<T> action) {
+        entityManager.clear();
+        statistics.clear();
+        return action.get();
+    }
+
+    private Exam seedExam(int students, long firstStudentId) {
+        Exam exam = entityManager.persist(exam(500));
+        for (int i = 0; i < students; i++) {
+            ExamEnrollment enrollment = entityManager.persist(new ExamEnrollment(firstStudentId + i, exam));
+            entityManager.persist(new ExamGrade(27, false, 10L, enrollment));
+        }
+        entityManager.flush();
+        return exam;
+    }
+}
@@ -0,0 +1,96 @@
+package it.unimol.exam_management_service.service;
+
+import it.unimol.exam_management_service.dto.ExamDTO;
+import it.unimol.exam_management_service.entity.Exam;
+import it.unimol.exam_management_service.entity.ExamEnrollment;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.util.ExamMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({SeatCountReconciler.class, ExamService.class, ExamMetadataService.class, ExamMapper.class,
+        ExamCalendarIndex.class})
+class SeatCountReconcilerTest {
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private SeatCountReconciler reconciler;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void availabilityIsReadFromSeatCounter() {
+        Exam open = persistExam(2, 1);
+        Exam full = persistExam(2, 2);
+        entityManager.clear();
+
+        List<ExamDTO> available = examService.getAvailableExams(null);
+
+        assertThat(available).extracting(ExamDTO::getId).contains(open.getId()).doesNotContain(full.getId());
+        assertThat(available).filteredOn(dto -> dto.getId().equals(open.getId()))
+                .singleElement()
+                .satisfies(dto -> assertThat(dto.getCurrentEnrollments()).isEqualTo(1));
+    }
+
+    @Test
+    void reconcileFixesDriftedCounters() {
+        Exam drifted = persistExam(3, 0);
+        persistEnrollment(drifted, 1L, EnrollmentStatus.ENROLLED);
+        persistEnrollment(drifted, 2L, EnrollmentStatus.PRESENT);
+        persistEnrollment(drifted, 3L, EnrollmentStatus.WITHDREW);
+        persistEnrollment(drifted, 4L, EnrollmentStatus.WAITLISTED);
+        Exam consistent = persistExam(3, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(reconciler.reconcile()).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(examRepository.findById(drifted.getId()).orElseThrow().getEnrolledCount()).isEqualTo(2);
+        assertThat(examRepository.findById(consistent.getId()).orElseThrow().getEnrolledCount()).isZero();
+        assertThat(reconciler.reconcile()).isZero();
+    }
+
+    // Esame con il contatore già impostato, come dopo le prenotazioni tramite reserveSeat
+    private Exam persistExam(int maxStudents, int seatsTaken) {
+        Exam exam = entityManager.persist(exam(maxStudents));
+        for (int i = 0; i < seatsTaken; i++) {
+            persistEnrollment(exam, exam.getId() * 100 + i, EnrollmentStatus.ENROLLED);
+            examRepository.reserveSeat(exam.getId());
+        }
+        entityManager.flush();
+        return exam;
+    }
+
+    private void persistEnrollment(Exam exam, Long studentId, EnrollmentStatus status) {
+        ExamEnrollment enrollment = new ExamEnrollment(studentId, exam);
+        enrollment.setStatus(status);
+        entityManager.persist(enrollment);
+    }
+}
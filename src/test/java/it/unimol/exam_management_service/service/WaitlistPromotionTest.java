@@ -0,0 +1,138 @@
+package it.unimol.exam_management_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimol.exam_management_service.config.CacheConfig;
+import it.unimol.exam_management_service.datasource.ReadYourWrites;
+import it.unimol.exam_management_service.dto.ExamDTO;
+import it.unimol.exam_management_service.enums.EnrollmentStatus;
+import it.unimol.exam_management_service.messaging.EventPublisher;
+import it.unimol.exam_management_service.metrics.EnrollmentRejections;
+import it.unimol.exam_management_service.repository.EnrollmentRepository;
+import it.unimol.exam_management_service.repository.ExamRepository;
+import it.unimol.exam_management_service.security.SecurityUtils;
+import it.unimol.exam_management_service.util.EnrollmentMapper;
+import it.unimol.exam_management_service.util.ExamMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static it.unimol.exam_management_service.support.TestFixtures.authenticateAsAdmin;
+import static it.unimol.exam_management_service.support.TestFixtures.enrollmentRequest;
+import static it.unimol.exam_management_service.support.TestFixtures.exam;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Aumento della capienza di un esame al completo: i nuovi posti passano agli studenti in lista d'attesa
+ * in ordine di arrivo e il contatore dei posti segue le promozioni.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({CacheConfig.class, ExamService.class, ExamMapper.class, ExamMetadataService.class, ExamCalendarIndex.class,
+        EnrollmentService.class, EnrollmentMapper.class, SecurityUtils.class, ReadYourWrites.class,
+        EnrollmentRejections.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WaitlistPromotionTest {
+
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    @MockitoBean
+    private GradeStatisticsService gradeStatisticsService;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        enrollmentRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void raisingCapacityPromotesWaitlistedStudentsInArrivalOrder() {
+        Long examId = examRepository.save(exam(2)).getId();
+        for (long studentId = 1; studentId <= 5; studentId++) {
+            enroll(examId, studentId);
+        }
+
+        ExamDTO updated = updateMaxStudents(examId, 4);
+
+        assertThat(updated.getCurrentEnrollments()).isEqualTo(4);
+        assertThat(statusOf(examId, 3L)).isEqualTo(EnrollmentStatus.ENROLLED);
+        assertThat(statusOf(examId, 4L)).isEqualTo(EnrollmentStatus.ENROLLED);
+        assertThat(statusOf(examId, 5L)).isEqualTo(EnrollmentStatus.WAITLISTED);
+        assertThat(examRepository.findById(examId).orElseThrow().getEnrolledCount()).isEqualTo(4);
+        verify(eventPublisher, times(2)).publish(eq("exam.enrollment.promoted"), any());
+    }
+
+    @Test
+    void seatsLeftAfterEmptyingTheWaitlistStayFree() {
+        Long examId = examRepository.save(exam(1)).getId();
+        enroll(examId, 1L);
+        enroll(examId, 2L);
+
+        updateMaxStudents(examId, 10);
+
+        assertThat(statusOf(examId, 2L)).isEqualTo(EnrollmentStatus.ENROLLED);
+        assertThat(enrollmentRepository.countByExamIdAndStatus(examId, EnrollmentStatus.WAITLISTED)).isZero();
+        assertThat(examRepository.findById(examId).orElseThrow().getEnrolledCount()).isEqualTo(2);
+
+        // I posti liberi restano disponibili per le nuove iscrizioni
+        enroll(examId, 3L);
+        assertThat(statusOf(examId, 3L)).isEqualTo(EnrollmentStatus.ENROLLED);
+    }
+
+    @Test
+    void loweringCapacityPromotesNobody() {
+        Long examId = examRepository.save(exam(2)).getId();
+        for (long studentId = 1; studentId <= 3; studentId++) {
+            enroll(examId, studentId);
+        }
+
+        updateMaxStudents(examId, 1);
+
+        assertThat(statusOf(examId, 3L)).isEqualTo(EnrollmentStatus.WAITLISTED);
+        assertThat(examRepository.findById(examId).orElseThrow().getEnrolledCount()).isEqualTo(2);
+    }
+
+    private void enroll(Long examId, Long studentId) {
+        enrollmentService.enrollToExam(examId, enrollmentRequest(studentId));
+    }
+
+    private ExamDTO updateMaxStudents(Long examId, int maxStudents) {
+        ExamDTO dto = examService.getExamById(examId);
+        dto.setMaxStudents(maxStudents);
+        return examService.updateExam(examId, dto);
+    }
+
+    private EnrollmentStatus statusOf(Long examId, Long studentId) {
+        return enrollmentRepository.findByStudentIdAndExamId(studentId, examId).orElseThrow().getStatus();
+    }
+}
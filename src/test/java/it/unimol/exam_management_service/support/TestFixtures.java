@@ -0,0 +1,76 @@
+package it.unimol.exam_management_service.support;
+
+import it.unimol.exam_management_service.dto.request.EnrollmentRequest;
+import it.unimol.exam_management_service.entity.Exam;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Dati e utilità condivisi dai test: esami di prova, utente autenticato e conteggio delle query Hibernate
+ */
+public final class TestFixtures {
+
+    public static final long PROFESSOR_ID = 10L;
+    public static final long CLASSROOM_ID = 100L;
+
+    private TestFixtures() {
+    }
+
+    // Esame del corso 1 tra 30 giorni, con iscrizioni aperte per altri 20
+    public static Exam exam(int maxStudents) {
+        return exam(1L, maxStudents);
+    }
+
+    public static Exam exam(Long courseId, int maxStudents) {
+        return exam("Analisi I", courseId, LocalDate.now().plusDays(30), maxStudents);
+    }
+
+    // Le iscrizioni chiudono 10 giorni prima della data dell'esame
+    public static Exam exam(String name, Long courseId, LocalDate date, int maxStudents) {
+        return new Exam(name, date, LocalTime.NOON, courseId, PROFESSOR_ID, CLASSROOM_ID, maxStudents,
+                date.minusDays(10));
+    }
+
+    public static EnrollmentRequest enrollmentRequest(Long studentId) {
+        EnrollmentRequest request = new EnrollmentRequest();
+        request.setStudentId(studentId);
+        return request;
+    }
+
+    // Utente con id nei dettagli, come dopo JwtAuthFilter (letto da SecurityUtils)
+    public static void authenticate(String userId, String role) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userId, null, List.of(new SimpleGrantedAuthority(role)));
+        authentication.setDetails(userId);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    public static void authenticateAsAdmin() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    public static Statistics statistics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        return statistics;
+    }
+
+    // Statement preparati da action, comprese le scritture rimaste in sospeso; parte da un contesto vuoto
+    public static long countStatements(TestEntityManager entityManager, Statistics statistics, Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+}